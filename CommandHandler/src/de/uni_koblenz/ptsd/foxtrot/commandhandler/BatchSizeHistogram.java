@@ -0,0 +1,111 @@
+package de.uni_koblenz.ptsd.foxtrot.commandhandler;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Distribution of dispatched batch sizes with power-of-two buckets.
+ *
+ * <p>Bucket {@code i} counts batches whose size {@code n} satisfies
+ * {@code 2^i <= n < 2^(i+1)}, i.e. the buckets are {@code 1}, {@code 2-3},
+ * {@code 4-7}, {@code 8-15} and so on. The last bucket is open-ended.</p>
+ *
+ * <p>Recording is lock-free and may happen concurrently with reads.</p>
+ */
+public final class BatchSizeHistogram {
+
+    private static final int BUCKETS = 16;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Records one dispatched batch.
+     *
+     * @param size number of commands in the batch (at least 1)
+     */
+    void record(int size) {
+        if (size < 1) {
+            return;
+        }
+        int bucket = Math.min(BUCKETS - 1, 31 - Integer.numberOfLeadingZeros(size));
+        this.counts.incrementAndGet(bucket);
+    }
+
+    /**
+     * Returns the number of buckets.
+     *
+     * @return the bucket count
+     */
+    public int bucketCount() {
+        return BUCKETS;
+    }
+
+    /**
+     * Returns the smallest batch size counted in the given bucket.
+     *
+     * @param bucket bucket index
+     * @return the inclusive lower bound {@code 2^bucket}
+     */
+    public static int lowerBound(int bucket) {
+        return 1 << bucket;
+    }
+
+    /**
+     * Returns the number of batches recorded in the given bucket.
+     *
+     * @param bucket bucket index
+     * @return the count
+     */
+    public long count(int bucket) {
+        return this.counts.get(bucket);
+    }
+
+    /**
+     * Returns the total number of recorded batches.
+     *
+     * @return the sum over all buckets
+     */
+    public long total() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += this.counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Returns a copy of all bucket counts.
+     *
+     * @return one count per bucket
+     */
+    public long[] snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = this.counts.get(i);
+        }
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("BatchSizeHistogram[");
+        boolean first = true;
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = this.counts.get(i);
+            if (count == 0) {
+                continue;
+            }
+            if (!first) {
+                sb.append(", ");
+            }
+            first = false;
+            sb.append(lowerBound(i));
+            if (i == BUCKETS - 1) {
+                sb.append('+');
+            } else if (lowerBound(i + 1) - 1 > lowerBound(i)) {
+                sb.append('-').append(lowerBound(i + 1) - 1);
+            }
+            sb.append('=').append(count);
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,63 @@
+package de.uni_koblenz.ptsd.foxtrot.commandhandler;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import de.uni_koblenz.ptsd.foxtrot.commandhandler.commands.Command;
+import de.uni_koblenz.ptsd.foxtrot.commandhandler.commands.PlayerPosCommand;
+import de.uni_koblenz.ptsd.foxtrot.commandhandler.commands.PlayerScoreCommand;
+
+/**
+ * Drops position and score updates that are superseded within the same batch.
+ *
+ * <p>A {@link PlayerPosCommand} overwrites position and direction of its player
+ * completely, and a {@link PlayerScoreCommand} overwrites the score, so only the
+ * last one per player matters for the model. The coalescer keeps that last
+ * command at its original place and removes the earlier ones. All other
+ * commands, in particular {@code BaitPosCommand} appear/vanish events, keep
+ * their exact relative order.</p>
+ *
+ * <p>Not thread-safe; owned by the {@link CommandHandler} worker.</p>
+ */
+final class CommandCoalescer {
+
+    private final Set<Integer> positionsSeen = new HashSet<>();
+    private final Set<Integer> scoresSeen = new HashSet<>();
+
+    /**
+     * Removes superseded updates from {@code batch} in place.
+     *
+     * @param batch commands in execution order
+     * @return the number of removed commands
+     */
+    int coalesce(List<Command> batch) {
+        this.positionsSeen.clear();
+        this.scoresSeen.clear();
+        int removed = 0;
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            Command cmd = batch.get(i);
+            boolean superseded = false;
+            if (cmd instanceof PlayerPosCommand pos) {
+                superseded = !this.positionsSeen.add(pos.getPlayerId());
+            } else if (cmd instanceof PlayerScoreCommand score) {
+                superseded = !this.scoresSeen.add(score.getPlayerId());
+            }
+            if (superseded) {
+                batch.set(i, null);
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            int write = 0;
+            for (int read = 0; read < batch.size(); read++) {
+                Command cmd = batch.get(read);
+                if (cmd != null) {
+                    batch.set(write++, cmd);
+                }
+            }
+            batch.subList(write, batch.size()).clear();
+        }
+        return removed;
+    }
+}
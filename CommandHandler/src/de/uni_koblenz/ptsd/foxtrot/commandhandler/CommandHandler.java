@@ -1,17 +1,24 @@
 package de.uni_koblenz.ptsd.foxtrot.commandhandler;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import de.uni_koblenz.ptsd.foxtrot.commandhandler.commands.Command;
-import javafx.application.Platform;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.GameStatusModel;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.ModelExecutor;
 
 /**
- * Manages a FIFO queue of {@link Command} instances and processes them on a
- * dedicated background thread. The actual command logic is always executed on
- * the JavaFX Application Thread via {@link Platform#runLater(Runnable)} to keep
- * UI operations safe.
+ * Manages a bounded FIFO queue of {@link Command} instances and processes them on a
+ * dedicated background thread. The actual command logic is executed by a
+ * {@link ModelExecutor}. By default that is the JavaFX Application Thread, which
+ * keeps UI operations safe. Headless clients pass {@link ModelExecutor#singleThread(String)}
+ * and never start the FX toolkit; {@link ModelExecutor#direct()} runs commands on the
+ * worker itself and is only safe when no other thread updates the model.
  *
  * <h2>Usage</h2>
  * <pre>{@code
@@ -23,13 +30,37 @@ import javafx.application.Platform;
  *
  * <h2>Threading</h2>
  * <ul>
- *   <li>Commands are enqueued thread-safely in a {@link BlockingQueue}.</li>
- *   <li>A background worker takes commands and dispatches them to the FX thread using
- *       {@code Platform.runLater}.</li>
+ *   <li>Commands are enqueued thread-safely in a preallocated multi-producer/single-consumer
+ *       ring buffer. Enqueueing allocates nothing, and the worker only parks when the queue
+ *       is empty (see {@link WaitStrategy}). Capacity and wait strategy come from
+ *       {@link DispatchTuning}. When the queue is full, {@link #enqueueCommand(Command)}
+ *       waits for a free slot, while {@link #offerCommand(Command, Runnable)} refuses the
+ *       command and calls back once the queue has drained to half its capacity. Threads
+ *       that must not block, such as the protocol's selector thread, use the latter.</li>
+ *   <li>A background worker takes commands and dispatches them to the model executor
+ *       (with the FX executor, via {@code Platform.runLater}).</li>
  *   <li>Command processing is <em>asynchronous</em> with respect to the caller of
  *       {@link #submit(Command)}; it does not wait for the UI update to complete.</li>
  * </ul>
  *
+ * <h2>Sessions</h2>
+ * <p>Every handler is bound to one {@link GameStatusModel} and executes its commands with
+ * {@link Command#execute(GameStatusModel)}. Hosting several game sessions in one JVM only
+ * takes one handler (and protocol) per session, each with its own model. The no-model
+ * constructors bind to {@link GameStatusModel#getInstance()}.</p>
+ *
+ * <h2>Dispatch modes</h2>
+ * <ul>
+ *   <li>{@link DispatchMode#SINGLE} (default) posts one task per command to the model executor.</li>
+ *   <li>{@link DispatchMode#BATCH} drains everything queued (up to {@link DispatchTuning#maxBatchSize}) and runs the
+ *       whole batch in a single FX pulse. A burst of {@code BPOS}/{@code PPOS} messages then
+ *       costs a handful of runnables instead of thousands. The distribution of batch sizes
+ *       is available through {@link #getBatchSizeHistogram()}.</li>
+ *   <li>With {@link DispatchTuning#coalesceUpdates} a batch is first passed through a
+ *       coalescing stage that keeps only the latest {@code PlayerPosCommand} and
+ *       {@code PlayerScoreCommand} per player; all other commands keep their order.</li>
+ * </ul>
+ *
  * <h2>Lifecycle</h2>
  * <ul>
  *   <li>Creating an instance automatically starts a daemon worker thread.</li>
@@ -42,7 +73,7 @@ import javafx.application.Platform;
 public class CommandHandler {
 
     /** FIFO queue for commands. Never {@code null}. */
-    private final BlockingQueue<Command> commandQueue = new LinkedBlockingQueue<>();
+    private final MpscRingBuffer<Command> commandQueue;
 
     /** Background thread that pulls commands from the queue. */
     private final Thread worker;
@@ -50,49 +81,265 @@ public class CommandHandler {
     /** Running flag for the worker. */
     private final AtomicBoolean running = new AtomicBoolean(true);
 
+    /** Dispatch configuration. */
+    private final DispatchTuning tuning;
+
+    /** Thread on which commands are executed. */
+    private final ModelExecutor executor;
+
+    /** Session model the commands are applied to. */
+    private final GameStatusModel model;
+
+    /** Sizes of the batches handed to the model executor. */
+    private final BatchSizeHistogram batchSizes = new BatchSizeHistogram();
+
+    /** Drops superseded updates from a batch; used by the worker only. */
+    private final CommandCoalescer coalescer = new CommandCoalescer();
+
+    /** Number of commands dropped by the coalescing stage. */
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /** Callback of the producer whose command was last refused, run once when there is room again. */
+    private final AtomicReference<Runnable> spaceWaiter = new AtomicReference<>();
+
     /**
-     * Creates a new {@code CommandHandler} and starts the background worker.
+     * Creates a new {@code CommandHandler} with {@link DispatchTuning#defaults()}
+     * and starts the background worker.
      * The worker is marked as a daemon so it won't block JVM shutdown.
      */
 
     public CommandHandler() {
-        worker = new Thread(this::process, "CommandHandler-Worker");
-        worker.setDaemon(true);
+        this(DispatchTuning.defaults());
+    }
+
+    /**
+     * Creates a new {@code CommandHandler} with the given dispatch configuration
+     * and starts the background worker.
+     *
+     * @param tuning dispatch mode and batch size; {@code null} selects the defaults
+     */
+    public CommandHandler(DispatchTuning tuning) {
+        this(tuning, ModelExecutor.fx());
+    }
+
+    /**
+     * Creates a new {@code CommandHandler} that executes commands with the given
+     * executor and starts the background worker.
+     *
+     * @param tuning   dispatch mode and batch size; {@code null} selects the defaults
+     * @param executor where commands are executed; {@code null} selects {@link ModelExecutor#fx()}
+     */
+    public CommandHandler(DispatchTuning tuning, ModelExecutor executor) {
+        this(tuning, executor, GameStatusModel.getInstance());
+    }
+
+    /**
+     * Creates a new {@code CommandHandler} for one game session and starts the
+     * background worker.
+     *
+     * @param tuning   dispatch mode and batch size; {@code null} selects the defaults
+     * @param executor where commands are executed; {@code null} selects {@link ModelExecutor#fx()}
+     * @param model    the session model commands are applied to
+     * @throws NullPointerException if {@code model} is {@code null}
+     */
+    public CommandHandler(DispatchTuning tuning, ModelExecutor executor, GameStatusModel model) {
+        this(tuning, executor, model, null);
+    }
+
+    /**
+     * Creates a new {@code CommandHandler} for one game session whose worker is
+     * created by the given factory, e.g. a virtual thread factory when many
+     * sessions share one JVM.
+     *
+     * @param tuning        dispatch mode and batch size; {@code null} selects the defaults
+     * @param executor      where commands are executed; {@code null} selects {@link ModelExecutor#fx()}
+     * @param model         the session model commands are applied to
+     * @param workerFactory creates the worker thread; {@code null} selects a platform daemon thread
+     * @throws NullPointerException if {@code model} is {@code null}
+     */
+    public CommandHandler(DispatchTuning tuning, ModelExecutor executor, GameStatusModel model,
+            ThreadFactory workerFactory) {
+        this.model = Objects.requireNonNull(model, "model");
+        this.tuning = (tuning != null) ? tuning : DispatchTuning.defaults();
+        this.executor = (executor != null) ? executor : ModelExecutor.fx();
+        this.commandQueue = new MpscRingBuffer<>(this.tuning.queueCapacity, this.tuning.waitStrategy);
+        if (workerFactory != null) {
+            worker = workerFactory.newThread(this::process);
+        } else {
+            worker = new Thread(this::process, "CommandHandler-Worker");
+            worker.setDaemon(true);
+        }
         worker.start();
     }
     /**
      * Submits a {@link Command} for execution. Returns as soon as the command has been queued.
-     * <p>Execution happens later on the JavaFX Application Thread.</p>
+     * <p>Execution happens later through the handler's {@link ModelExecutor}. If the queue is full the
+     * caller waits for a free slot; once the handler has been stopped the command is dropped
+     * instead. Threads that serve other work and must not block use
+     * {@link #offerCommand(Command, Runnable)}.</p>
      *
      * @param cmd the command to submit (must not be {@code null})
      * @throws NullPointerException if {@code cmd} is {@code null}
      */
 
     public void enqueueCommand(Command cmd) {
-        try {
-            commandQueue.put(cmd);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        int attempt = 0;
+        while (!commandQueue.offer(cmd)) {
+            if (!running.get() || Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            tuning.waitStrategy.backOff(attempt++);
+        }
+    }
+
+    /**
+     * Submits a {@link Command} for execution without ever blocking.
+     * <p>If the queue is full the command is refused and {@code onSpace} is run once, on the worker
+     * thread, as soon as the queue has drained to half its capacity; the caller keeps the command
+     * and offers it again then. Only the callback of the most recent refusal is kept, so this suits
+     * a single producer per handler such as the protocol's selector thread. Once the handler has
+     * been stopped the command is dropped and counts as accepted.</p>
+     *
+     * @param cmd     the command to submit (must not be {@code null})
+     * @param onSpace run when a refused command can be offered again; must not block; may be {@code null}
+     * @return {@code true} if the command was queued or dropped, {@code false} if it was refused
+     * @throws NullPointerException if {@code cmd} is {@code null}
+     */
+    public boolean offerCommand(Command cmd, Runnable onSpace) {
+        Objects.requireNonNull(cmd, "cmd");
+        if (commandQueue.offer(cmd) || !running.get()) {
+            return true;
+        }
+        if (onSpace == null) {
+            return false;
+        }
+        spaceWaiter.set(onSpace);
+        // The worker may have drained the queue before it could see the callback.
+        if (commandQueue.offer(cmd)) {
+            spaceWaiter.compareAndSet(onSpace, null);
+            return true;
+        }
+        return false;
+    }
+
+    /** Runs the pending space callback once the queue is at most half full. Worker thread only. */
+    private void signalSpace() {
+        if (spaceWaiter.get() != null && commandQueue.size() <= commandQueue.capacity() / 2) {
+            Runnable waiter = spaceWaiter.getAndSet(null);
+            if (waiter != null) {
+                waiter.run();
+            }
         }
     }
 
     private void process() {
+        if (tuning.mode == DispatchMode.BATCH) {
+            processBatches();
+            return;
+        }
         while (running.get()) {
             try {
                 Command cmd = commandQueue.take();
-                if (Platform.isFxApplicationThread()) {
-                    cmd.execute();
-                } else {
-                    Platform.runLater(cmd::execute);
+                signalSpace();
+                batchSizes.record(1);
+                executor.runOnModelThread(() -> cmd.execute(model));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void processBatches() {
+        int maxBatchSize = tuning.maxBatchSize;
+        while (running.get()) {
+            try {
+                Command first = commandQueue.take();
+                List<Command> batch = new ArrayList<>(Math.min(maxBatchSize, commandQueue.size() + 1));
+                batch.add(first);
+                commandQueue.drainTo(batch, maxBatchSize - 1);
+                signalSpace();
+                batchSizes.record(batch.size());
+                if (tuning.coalesceUpdates) {
+                    coalesced.addAndGet(coalescer.coalesce(batch));
                 }
+                executor.runOnModelThread(() -> executeBatch(batch));
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
         }
     }
 
+    /**
+     * Runs all commands of a batch in order. A failing command is reported and
+     * does not prevent the rest of the batch from running.
+     */
+    private void executeBatch(List<Command> batch) {
+        for (Command cmd : batch) {
+            try {
+                cmd.execute(model);
+            } catch (RuntimeException e) {
+                System.err.println("[CommandHandler] Command " + cmd.getClass().getSimpleName() + " failed: "
+                        + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Returns the session model this handler applies its commands to.
+     *
+     * @return the bound model
+     */
+    public GameStatusModel getModel() {
+        return model;
+    }
+
+    /**
+     * Returns the executor on which this handler applies model updates.
+     * Other components that write to the model should use the same one.
+     *
+     * @return the model executor
+     */
+    public ModelExecutor getModelExecutor() {
+        return executor;
+    }
+
+    /**
+     * Returns the distribution of dispatched batch sizes. In
+     * {@link DispatchMode#SINGLE} every command counts as a batch of one.
+     *
+     * @return the live histogram
+     */
+    public BatchSizeHistogram getBatchSizeHistogram() {
+        return batchSizes;
+    }
+
+    /**
+     * Returns how many superseded position/score updates the coalescing stage
+     * has dropped so far.
+     *
+     * @return the number of coalesced commands
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * Returns the number of commands waiting to be dispatched.
+     *
+     * @return the current queue length
+     */
+    public int getQueueDepth() {
+        return commandQueue.size();
+    }
+
     public void stop() {
         running.set(false);
         worker.interrupt();
+        // Refused producers offer again and find their commands dropped.
+        Runnable waiter = spaceWaiter.getAndSet(null);
+        if (waiter != null) {
+            waiter.run();
+        }
     }
 }
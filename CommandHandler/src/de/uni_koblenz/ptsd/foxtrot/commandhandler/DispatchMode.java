@@ -0,0 +1,15 @@
+package de.uni_koblenz.ptsd.foxtrot.commandhandler;
+
+/**
+ * How the {@link CommandHandler} worker hands commands to its model executor
+ * (the JavaFX Application Thread by default).
+ */
+public enum DispatchMode {
+    /** One executor task per command. */
+    SINGLE,
+    /**
+     * Everything queued at wake-up (up to the configured batch size) is
+     * drained and executed in a single executor task.
+     */
+    BATCH
+}
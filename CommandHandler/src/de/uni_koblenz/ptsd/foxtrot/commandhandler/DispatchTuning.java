@@ -0,0 +1,89 @@
+package de.uni_koblenz.ptsd.foxtrot.commandhandler;
+
+/**
+ * Configuration of the {@link CommandHandler} dispatch loop.
+ *
+ * <p>Immutable bag of knobs in the style of the strategy tuning: all fields
+ * are {@code public final} and instances are created through the static
+ * factories or the full constructor.</p>
+ *
+ * <h2>Thread-safety</h2>
+ * <p>Instances are immutable and therefore thread-safe.</p>
+ */
+public final class DispatchTuning {
+    /** Whether commands are posted one by one or drained in batches. */
+    public final DispatchMode mode;
+    /** Upper bound of commands executed in one FX pulse in {@link DispatchMode#BATCH}. */
+    public final int maxBatchSize;
+    /**
+     * Whether superseded position and score updates of the same player are dropped
+     * from a batch before it is executed. Only effective in {@link DispatchMode#BATCH}.
+     */
+    public final boolean coalesceUpdates;
+    /** Number of slots of the preallocated command ring buffer (rounded up to a power of two). */
+    public final int queueCapacity;
+    /** How the worker waits for commands and producers wait for a free slot. */
+    public final WaitStrategy waitStrategy;
+
+    /** Default number of command queue slots. */
+    public static final int DEFAULT_QUEUE_CAPACITY = 16 * 1024;
+
+    public DispatchTuning(DispatchMode mode, int maxBatchSize) {
+        this(mode, maxBatchSize, false);
+    }
+
+    public DispatchTuning(DispatchMode mode, int maxBatchSize, boolean coalesceUpdates) {
+        this(mode, maxBatchSize, coalesceUpdates, DEFAULT_QUEUE_CAPACITY, WaitStrategy.PARK);
+    }
+
+    public DispatchTuning(DispatchMode mode, int maxBatchSize, boolean coalesceUpdates, int queueCapacity,
+            WaitStrategy waitStrategy) {
+        if (mode == null) {
+            throw new IllegalArgumentException("mode must not be null");
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be at least 1");
+        }
+        if (queueCapacity < 2) {
+            throw new IllegalArgumentException("queueCapacity must be at least 2");
+        }
+        if (waitStrategy == null) {
+            throw new IllegalArgumentException("waitStrategy must not be null");
+        }
+        this.mode = mode;
+        this.maxBatchSize = maxBatchSize;
+        this.coalesceUpdates = coalesceUpdates;
+        this.queueCapacity = queueCapacity;
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Returns the classic behaviour: one {@code Platform.runLater} per command.
+     *
+     * @return single-command dispatch
+     */
+    public static DispatchTuning defaults() {
+        return new DispatchTuning(DispatchMode.SINGLE, 1);
+    }
+
+    /**
+     * Returns batched dispatch with the given batch size.
+     *
+     * @param maxBatchSize maximum number of commands executed per FX pulse
+     * @return batched dispatch
+     */
+    public static DispatchTuning batched(int maxBatchSize) {
+        return new DispatchTuning(DispatchMode.BATCH, maxBatchSize);
+    }
+
+    /**
+     * Returns batched dispatch that also coalesces superseded position and
+     * score updates per player within each batch.
+     *
+     * @param maxBatchSize maximum number of commands executed per FX pulse
+     * @return batched, coalescing dispatch
+     */
+    public static DispatchTuning batchedCoalescing(int maxBatchSize) {
+        return new DispatchTuning(DispatchMode.BATCH, maxBatchSize, true);
+    }
+}
@@ -0,0 +1,197 @@
+package de.uni_koblenz.ptsd.foxtrot.commandhandler;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded, preallocated multi-producer/single-consumer ring buffer.
+ *
+ * <p>Each slot carries a sequence number (the scheme of Dmitry Vyukov's bounded
+ * queue): a producer claims a position with one CAS on the tail, stores its
+ * element and publishes it by advancing the slot's sequence. The single
+ * consumer reads slots in order without any atomic read-modify-write.
+ * Neither side allocates after construction.</p>
+ *
+ * <p>When the buffer is empty the consumer waits according to its
+ * {@link WaitStrategy}; with {@link WaitStrategy#PARK} producers only unpark
+ * it when it has announced that it is about to sleep, so a busy queue costs
+ * no park/unpark pair per element.</p>
+ *
+ * @param <E> element type
+ */
+final class MpscRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final WaitStrategy waitStrategy;
+
+    // Consumer side; only written by the consumer thread.
+    private volatile long head;
+    private volatile Thread consumer;
+    private volatile boolean consumerParked;
+
+    /**
+     * Creates a buffer whose capacity is {@code capacity} rounded up to a power of two.
+     *
+     * @param capacity     minimum number of slots (at least 2)
+     * @param waitStrategy how the consumer and full producers wait
+     */
+    MpscRingBuffer(int capacity, WaitStrategy waitStrategy) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be at least 2");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            this.sequences.set(i, i);
+        }
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Inserts an element if a slot is free.
+     *
+     * @param element the element (must not be {@code null})
+     * @return {@code false} if the buffer is full
+     */
+    boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        long pos = this.tail.get();
+        while (true) {
+            int index = (int) pos & this.mask;
+            long seq = this.sequences.get(index);
+            long diff = seq - pos;
+            if (diff == 0) {
+                if (this.tail.compareAndSet(pos, pos + 1)) {
+                    this.elements.lazySet(index, element);
+                    this.sequences.set(index, pos + 1);
+                    if (this.consumerParked) {
+                        LockSupport.unpark(this.consumer);
+                    }
+                    return true;
+                }
+                pos = this.tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = this.tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the next element without waiting. Consumer thread only.
+     *
+     * @return the element, or {@code null} if the buffer is empty
+     */
+    E poll() {
+        long pos = this.head;
+        int index = (int) pos & this.mask;
+        if (this.sequences.get(index) != pos + 1) {
+            return null;
+        }
+        E element = this.elements.get(index);
+        this.elements.lazySet(index, null);
+        this.sequences.set(index, pos + this.mask + 1);
+        this.head = pos + 1;
+        return element;
+    }
+
+    /**
+     * Removes the next element, waiting according to the wait strategy while
+     * the buffer is empty. Consumer thread only.
+     *
+     * @return the element
+     * @throws InterruptedException if the consumer is interrupted while waiting
+     */
+    E take() throws InterruptedException {
+        int attempt = 0;
+        while (true) {
+            E element = this.poll();
+            if (element != null) {
+                return element;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (this.waitStrategy == WaitStrategy.SPIN || attempt < WaitStrategy.SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (this.waitStrategy == WaitStrategy.YIELD) {
+                Thread.yield();
+            } else {
+                this.consumer = Thread.currentThread();
+                this.consumerParked = true;
+                if (this.isEmpty()) {
+                    LockSupport.park(this);
+                }
+                this.consumerParked = false;
+            }
+            attempt++;
+        }
+    }
+
+    /**
+     * Moves up to {@code maxElements} available elements into {@code target}
+     * without waiting. Consumer thread only.
+     *
+     * @param target      collection receiving the elements in FIFO order
+     * @param maxElements maximum number of elements to move
+     * @return the number of moved elements
+     */
+    int drainTo(Collection<? super E> target, int maxElements) {
+        int moved = 0;
+        E element;
+        while (moved < maxElements && (element = this.poll()) != null) {
+            target.add(element);
+            moved++;
+        }
+        return moved;
+    }
+
+    /**
+     * Returns whether no published element is waiting.
+     *
+     * @return {@code true} if the next slot has not been published yet
+     */
+    boolean isEmpty() {
+        long pos = this.head;
+        return this.sequences.get((int) pos & this.mask) != pos + 1;
+    }
+
+    /**
+     * Returns an estimate of the number of queued elements.
+     *
+     * @return claimed minus consumed positions
+     */
+    int size() {
+        long size = this.tail.get() - this.head;
+        return (int) Math.max(0, Math.min(size, this.capacity()));
+    }
+
+    /**
+     * Returns the number of slots.
+     *
+     * @return the capacity (a power of two)
+     */
+    int capacity() {
+        return this.mask + 1;
+    }
+
+    /**
+     * Returns the wait strategy of this buffer.
+     *
+     * @return the wait strategy
+     */
+    WaitStrategy waitStrategy() {
+        return this.waitStrategy;
+    }
+}
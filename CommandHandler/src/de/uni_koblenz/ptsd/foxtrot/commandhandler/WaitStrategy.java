@@ -0,0 +1,34 @@
+package de.uni_koblenz.ptsd.foxtrot.commandhandler;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How threads wait on the {@link CommandHandler} command queue when there is
+ * nothing to take (consumer) or no free slot (producers).
+ */
+public enum WaitStrategy {
+    /** Busy-spin with {@link Thread#onSpinWait()}. Lowest latency, burns a core. */
+    SPIN,
+    /** Spin briefly, then {@link Thread#yield()}. */
+    YIELD,
+    /** Spin briefly, then park until a producer signals. Lowest CPU use. */
+    PARK;
+
+    /** Number of spin iterations before yielding or parking. */
+    static final int SPIN_TRIES = 100;
+
+    /**
+     * Backs off once while a producer waits for a free slot.
+     *
+     * @param attempt number of failed attempts so far
+     */
+    void backOff(int attempt) {
+        if (this == SPIN || attempt < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (this == YIELD) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(1_000L);
+        }
+    }
+}
@@ -34,7 +34,11 @@ public class BaitPosCommand implements Command {
 
     @Override
     public void execute() {
-        GameStatusModel model = GameStatusModel.getInstance();
+        execute(GameStatusModel.getInstance());
+    }
+
+    @Override
+    public void execute(GameStatusModel model) {
         if (model.getBaits() == null) {
             model.setBaits(FXCollections.observableHashMap());
         }
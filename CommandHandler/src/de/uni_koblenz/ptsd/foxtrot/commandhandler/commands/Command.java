@@ -1,5 +1,6 @@
 package de.uni_koblenz.ptsd.foxtrot.commandhandler.commands;
 
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.GameStatusModel;
 
 /**
 * Base interface for executable commands in the client.
@@ -12,8 +13,18 @@ package de.uni_koblenz.ptsd.foxtrot.commandhandler.commands;
 *
 * <h2>Threading</h2>
 * <p>
-* Implementations may perform UI operations. If needed, they should marshal
-* execution to the JavaFX Application Thread (e.g., using {@code Platform.runLater}).
+* The {@code CommandHandler} already executes commands on its model thread, so
+* implementations update the model directly. Only dialogs and other toolkit
+* operations need to be marshalled to the JavaFX Application Thread, and they
+* must degrade gracefully when the toolkit is not running (headless clients).
+* </p>
+*
+* <h2>Sessions</h2>
+* <p>
+* Each {@code CommandHandler} is bound to the model of its own game session and
+* calls {@link #execute(GameStatusModel)}. Commands that touch the model override
+* that method; {@link #execute()} applies the command to the shared default model
+* {@link GameStatusModel#getInstance()}.
 * </p>
 *
 * @since 1.0
@@ -27,4 +38,17 @@ public interface Command {
 * </p>
 */
 void execute();
+
+/**
+* Executes the command against the given session model.
+* <p>
+* The default implementation ignores the model and calls {@link #execute()},
+* which suits commands that do not touch the model.
+* </p>
+*
+* @param model the model of the session this command belongs to
+*/
+default void execute(GameStatusModel model) {
+    execute();
+}
 }
\ No newline at end of file
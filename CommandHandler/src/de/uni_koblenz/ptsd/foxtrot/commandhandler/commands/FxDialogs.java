@@ -0,0 +1,29 @@
+package de.uni_koblenz.ptsd.foxtrot.commandhandler.commands;
+
+import javafx.application.Platform;
+import javafx.scene.control.Alert;
+
+/**
+ * Shows server notifications as JavaFX dialogs when the toolkit is running.
+ * <p>
+ * Headless clients never start the toolkit; {@link Platform#runLater(Runnable)}
+ * then fails and the message is written to {@code System.err} instead.
+ * </p>
+ */
+final class FxDialogs {
+
+    private FxDialogs() {
+    }
+
+    static void show(Alert.AlertType type, String message) {
+        try {
+            Platform.runLater(() -> {
+                Alert a = new Alert(type, message);
+                a.setHeaderText(null);
+                a.showAndWait();
+            });
+        } catch (IllegalStateException toolkitNotRunning) {
+            System.err.println("[" + type + "] " + message);
+        }
+    }
+}
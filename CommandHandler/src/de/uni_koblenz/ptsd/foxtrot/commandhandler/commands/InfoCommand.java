@@ -2,7 +2,6 @@ package de.uni_koblenz.ptsd.foxtrot.commandhandler.commands;
 
 
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.GameStatusModel;
-import javafx.application.Platform;
 import javafx.scene.control.Alert;
 
 
@@ -14,8 +13,9 @@ import javafx.scene.control.Alert;
 * </p>
 *
 * <h2>Threading</h2>
-* <p>UI interactions are typically executed on the JavaFX Application Thread via
-* {@link Platform#runLater(Runnable)}.</p>
+* <p>Model updates run on the thread the {@code CommandHandler} executes the command on.
+* Dialogs are posted to the JavaFX Application Thread; without a running toolkit the
+* message is written to {@code System.err} instead.</p>
 *
 */
 public class InfoCommand implements Command {
@@ -36,36 +36,26 @@ public class InfoCommand implements Command {
 
     @Override
     public void execute() {
-        Platform.runLater(() -> {
-            GameStatusModel model = GameStatusModel.getInstance();
+        execute(GameStatusModel.getInstance());
+    }
 
-            switch (this.infoCode) {
-            case 453 -> model.setReady(true); // STEP not possible
+    @Override
+    public void execute(GameStatusModel model) {
+        switch (this.infoCode) {
+        case 453 -> model.setReady(true); // STEP not possible
 
-            case 452 -> { // Nickname already used
-                Alert a = new Alert(Alert.AlertType.ERROR, "Nickname already in use. Please choose another.");
-                a.setHeaderText(null);
-                a.showAndWait();
-            }
+        case 452 -> // Nickname already used
+            FxDialogs.show(Alert.AlertType.ERROR, "Nickname already in use. Please choose another.");
 
-            case 451 -> { // Too many clients
-                Alert a = new Alert(Alert.AlertType.ERROR,
-                        "Too many clients connected. Please wait and try again later.");
-                a.setHeaderText(null);
-                a.showAndWait();
-            }
+        case 451 -> // Too many clients
+            FxDialogs.show(Alert.AlertType.ERROR, "Too many clients connected. Please wait and try again later.");
 
-            case 457 -> { // Login timeout
-                Alert a = new Alert(Alert.AlertType.ERROR, "Login timeout. Please reconnect.");
-                a.setHeaderText(null);
-                a.showAndWait();
-                
-            }
+        case 457 -> // Login timeout
+            FxDialogs.show(Alert.AlertType.ERROR, "Login timeout. Please reconnect.");
 
-            default -> {
-                System.err.println("Unhandled INFO code: " + this.infoCode);
-            }
-            }
-        });
+        default -> {
+            System.err.println("Unhandled INFO code: " + this.infoCode);
+        }
+        }
     }
 }
\ No newline at end of file
@@ -32,7 +32,11 @@ public class JoinCommand implements Command {
      */
     @Override
     public void execute() {
-        GameStatusModel model = GameStatusModel.getInstance();
+        execute(GameStatusModel.getInstance());
+    }
+
+    @Override
+    public void execute(GameStatusModel model) {
         if (model.getPlayers() == null) {
             model.setPlayers(FXCollections.observableHashMap());
         }
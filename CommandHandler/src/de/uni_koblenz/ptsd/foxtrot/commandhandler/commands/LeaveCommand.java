@@ -24,7 +24,11 @@ public class LeaveCommand implements Command {
 
     @Override
     public void execute() {
-        GameStatusModel model = GameStatusModel.getInstance();
+        execute(GameStatusModel.getInstance());
+    }
+
+    @Override
+    public void execute(GameStatusModel model) {
         if (model.getPlayers() != null) {
             model.getPlayers().remove(playerId);
         }
@@ -1,9 +1,13 @@
 package de.uni_koblenz.ptsd.foxtrot.commandhandler.commands;
 
+import java.util.concurrent.CompletableFuture;
+
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.State;
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.CellType;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.DistanceTable;
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.GameStatusModel;
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Maze;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.MazeCache;
 
 /**
 * Stores/updates the game maze layout in the {@link GameStatusModel}.
@@ -11,6 +15,13 @@ import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Maze;
 * The command records layout data (e.g., grid, walls, spawn points) and may
 * update dependent values (width, height, passable cells).
 * </p>
+* <p>
+* Installing a maze also starts the background build of its all-pairs
+* {@link DistanceTable}, unless the maze has more walkable cells than
+* {@link GameStatusModel#getDistanceTableCellBudget()}. If the model has a
+* {@link MazeCache}, a table stored for the same layout earlier is loaded
+* instead.
+* </p>
 *
 */
 
@@ -31,9 +42,38 @@ public class MazeCommand implements Command {
 
     @Override
     public void execute() {
+        execute(GameStatusModel.getInstance());
+    }
+
+    @Override
+    public void execute(GameStatusModel model) {
         Maze maze = new Maze(width, height, cells);
-        GameStatusModel.getInstance().setMaze(maze);
-        GameStatusModel.getInstance().setState(State.NOTLOGGEDIN);
+        model.setMaze(maze);
+        model.setDistanceTable(null);
+        model.setState(State.NOTLOGGEDIN);
+        precomputeDistances(model, maze);
+    }
+
+    /**
+     * Starts building or loading the {@link DistanceTable} of the new maze in the
+     * background if it fits the model's cell budget. The model ignores the table if another
+     * maze has been installed by the time it is finished.
+     */
+    private static void precomputeDistances(GameStatusModel model, Maze maze) {
+        int walkable = DistanceTable.countWalkable(maze);
+        if (walkable == 0 || walkable > model.getDistanceTableCellBudget()) {
+            return;
+        }
+        MazeCache cache = model.getMazeCache();
+        CompletableFuture<DistanceTable> future = (cache != null) ? cache.loadOrBuildAsync(maze)
+                : DistanceTable.buildAsync(maze);
+        future.whenComplete((table, error) -> {
+            if (error != null) {
+                System.err.println("[MazeCommand] Distance table failed: " + error);
+            } else {
+                model.setDistanceTable(table);
+            }
+        });
     }
 }
 
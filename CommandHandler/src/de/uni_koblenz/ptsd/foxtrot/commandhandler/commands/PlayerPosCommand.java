@@ -38,10 +38,19 @@ public class PlayerPosCommand implements Command {
         this.event = event;
     }
 
+    /** @return the id of the player this update refers to */
+    public int getPlayerId() {
+        return this.playerId;
+    }
+
     /** Ensures the player exists in the model and updates position and direction. */
     @Override
     public void execute() {
-        GameStatusModel model = GameStatusModel.getInstance();
+        execute(GameStatusModel.getInstance());
+    }
+
+    @Override
+    public void execute(GameStatusModel model) {
         if (model.getPlayers() == null) {
             model.setPlayers(FXCollections.observableHashMap());
         }
@@ -21,10 +21,19 @@ public class PlayerScoreCommand implements Command {
         this.score = score;
     }
 
+    /** @return the id of the player this update refers to */
+    public int getPlayerId() {
+        return playerId;
+    }
+
     /** Ensures the player exists in the model and sets the score. */
     @Override
     public void execute() {
-        GameStatusModel model = GameStatusModel.getInstance();
+        execute(GameStatusModel.getInstance());
+    }
+
+    @Override
+    public void execute(GameStatusModel model) {
         if (model.getPlayers() == null) {
             model.setPlayers(FXCollections.observableHashMap());
         }
@@ -11,6 +11,11 @@ public class QuitCommand implements Command {
 
     @Override
     public void execute() {
-        GameStatusModel.getInstance().setState(State.DISCONNECTED);
+        execute(GameStatusModel.getInstance());
+    }
+
+    @Override
+    public void execute(GameStatusModel model) {
+        model.setState(State.DISCONNECTED);
     }
 }
\ No newline at end of file
@@ -17,7 +17,11 @@ public class ServerVersionCommand implements Command {
 
     @Override
     public void execute() {
-        GameStatusModel model = GameStatusModel.getInstance();
+        execute(GameStatusModel.getInstance());
+    }
+
+    @Override
+    public void execute(GameStatusModel model) {
         model.setserverID(serverId);
         model.setState(State.CONNECTED);
     }
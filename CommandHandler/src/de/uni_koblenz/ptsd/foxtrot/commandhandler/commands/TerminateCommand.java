@@ -3,24 +3,23 @@ package de.uni_koblenz.ptsd.foxtrot.commandhandler.commands;
 
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.State;
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.GameStatusModel;
-import javafx.application.Platform;
 import javafx.scene.control.Alert;
 
 
 /**
 * Marks the client as disconnected because the server terminated the connection
-* and shows an informational dialog.
+* and shows an informational dialog (or logs it when running headless).
 */
 public class TerminateCommand implements Command {
 
     @Override
     public void execute() {
-        GameStatusModel.getInstance().setState(State.DISCONNECTED);
-        Platform.runLater(() -> {
-            Alert a = new Alert(Alert.AlertType.INFORMATION, "Server has terminated.");
-            a.setHeaderText(null);
-            a.showAndWait();
-            
-        });
+        execute(GameStatusModel.getInstance());
+    }
+
+    @Override
+    public void execute(GameStatusModel model) {
+        model.setState(State.DISCONNECTED);
+        FxDialogs.show(Alert.AlertType.INFORMATION, "Server has terminated.");
     }
 }
@@ -18,7 +18,11 @@ public class WelcomeCommand implements Command {
 
     @Override
     public void execute() {
-        GameStatusModel model = GameStatusModel.getInstance();
+        execute(GameStatusModel.getInstance());
+    }
+
+    @Override
+    public void execute(GameStatusModel model) {
         model.setclientID(clientId);
         model.setState(State.LOGGEDIN);
     }
@@ -0,0 +1,66 @@
+package de.uni_koblenz.ptsd.foxtrot.commandhandler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.uni_koblenz.ptsd.foxtrot.commandhandler.commands.BaitPosCommand;
+import de.uni_koblenz.ptsd.foxtrot.commandhandler.commands.Command;
+import de.uni_koblenz.ptsd.foxtrot.commandhandler.commands.JoinCommand;
+import de.uni_koblenz.ptsd.foxtrot.commandhandler.commands.PlayerPosCommand;
+import de.uni_koblenz.ptsd.foxtrot.commandhandler.commands.PlayerScoreCommand;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.BaitEvent;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.BaitType;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.Direction;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.PlayerEvent;
+
+class CommandCoalescerTest {
+
+    private final CommandCoalescer coalescer = new CommandCoalescer();
+
+    @Test
+    @DisplayName("Only the latest position and score per player survive")
+    void keepsLatestUpdatePerPlayer() {
+        Command pos1a = new PlayerPosCommand(1, 1, 1, Direction.N, PlayerEvent.MOV);
+        Command pos2 = new PlayerPosCommand(2, 5, 5, Direction.E, PlayerEvent.MOV);
+        Command score1a = new PlayerScoreCommand(1, 10);
+        Command pos1b = new PlayerPosCommand(1, 1, 2, Direction.S, PlayerEvent.MOV);
+        Command score1b = new PlayerScoreCommand(1, 52);
+        List<Command> batch = new ArrayList<>(List.of(pos1a, pos2, score1a, pos1b, score1b));
+
+        assertEquals(2, coalescer.coalesce(batch));
+        assertEquals(List.of(pos2, pos1b, score1b), batch);
+    }
+
+    @Test
+    @DisplayName("Bait events and other commands keep their exact order")
+    void preservesBaitOrdering() {
+        Command app = new BaitPosCommand(3, 3, BaitType.GEM, BaitEvent.APP);
+        Command posA = new PlayerPosCommand(1, 2, 3, Direction.E, PlayerEvent.MOV);
+        Command van = new BaitPosCommand(3, 3, BaitType.GEM, BaitEvent.VAN);
+        Command join = new JoinCommand(4, "late");
+        Command app2 = new BaitPosCommand(3, 3, BaitType.FOOD, BaitEvent.APP);
+        Command posB = new PlayerPosCommand(1, 3, 3, Direction.E, PlayerEvent.MOV);
+        List<Command> batch = new ArrayList<>(List.of(app, posA, van, join, app2, posB));
+
+        assertEquals(1, coalescer.coalesce(batch));
+        assertEquals(List.of(app, van, join, app2, posB), batch);
+    }
+
+    @Test
+    @DisplayName("Batches without duplicates are left untouched")
+    void leavesDistinctUpdatesAlone() {
+        Command pos1 = new PlayerPosCommand(1, 1, 1, Direction.N, PlayerEvent.MOV);
+        Command pos2 = new PlayerPosCommand(2, 1, 1, Direction.N, PlayerEvent.MOV);
+        List<Command> batch = new ArrayList<>(List.of(pos1, pos2));
+
+        assertEquals(0, coalescer.coalesce(batch));
+        assertSame(pos1, batch.get(0));
+        assertSame(pos2, batch.get(1));
+    }
+}
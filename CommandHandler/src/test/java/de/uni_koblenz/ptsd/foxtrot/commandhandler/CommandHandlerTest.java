@@ -23,6 +23,9 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import de.uni_koblenz.ptsd.foxtrot.commandhandler.commands.Command;
+import de.uni_koblenz.ptsd.foxtrot.commandhandler.commands.ReadyCommand;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.GameStatusModel;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.ModelExecutor;
 import javafx.application.Platform;
 
 class CommandHandlerTest {
@@ -166,4 +169,128 @@ class CommandHandlerTest {
 
         assertTrue(completed.get(), "Command that was already running must finish cleanly");
     }
+
+    @Test
+    @DisplayName("Batch mode keeps FIFO order and runs bursts in few FX pulses")
+    void batchModeDrainsBurstsInOrder() throws Exception {
+        handler.stop();
+        handler = new CommandHandler(DispatchTuning.batched(64));
+
+        int commandCount = 500;
+        CountDownLatch allExecuted = new CountDownLatch(commandCount);
+        List<Integer> executionOrder = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Hold the FX thread so the whole burst queues up behind it.
+        Platform.runLater(() -> {
+            try {
+                release.await(2, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        for (int i = 0; i < commandCount; i++) {
+            int id = i;
+            handler.enqueueCommand(() -> {
+                assertTrue(Platform.isFxApplicationThread());
+                executionOrder.add(id);
+                allExecuted.countDown();
+            });
+        }
+        release.countDown();
+
+        assertTrue(allExecuted.await(5, TimeUnit.SECONDS), "All batched commands must complete");
+        for (int i = 0; i < commandCount; i++) {
+            assertEquals(i, executionOrder.get(i), "Batching must not reorder commands");
+        }
+        BatchSizeHistogram histogram = handler.getBatchSizeHistogram();
+        assertTrue(histogram.total() < commandCount, "Bursts should be dispatched in batches");
+    }
+
+    @Test
+    @DisplayName("A failing command does not abort the rest of its batch")
+    void batchModeIsolatesFailures() throws Exception {
+        handler.stop();
+        handler = new CommandHandler(DispatchTuning.batched(16));
+
+        CountDownLatch executed = new CountDownLatch(1);
+        handler.enqueueCommand(() -> {
+            throw new IllegalStateException("boom");
+        });
+        handler.enqueueCommand(executed::countDown);
+
+        assertTrue(executed.await(2, TimeUnit.SECONDS), "Command after a failing one must still run");
+    }
+
+    @Test
+    @DisplayName("A headless handler runs commands on its worker without the FX thread")
+    void directExecutorRunsOnWorker() throws Exception {
+        handler.stop();
+        handler = new CommandHandler(DispatchTuning.batched(16), ModelExecutor.direct());
+
+        CountDownLatch executed = new CountDownLatch(1);
+        AtomicReference<String> executingThreadName = new AtomicReference<>(null);
+        AtomicBoolean ranOnFxThread = new AtomicBoolean(true);
+        handler.enqueueCommand(() -> {
+            ranOnFxThread.set(Platform.isFxApplicationThread());
+            executingThreadName.set(Thread.currentThread().getName());
+            executed.countDown();
+        });
+
+        assertTrue(executed.await(2, TimeUnit.SECONDS), "Command should have executed within timeout");
+        assertFalse(ranOnFxThread.get(), "Headless commands must not need the FX thread");
+        assertEquals("CommandHandler-Worker", executingThreadName.get());
+    }
+
+    @Test
+    @DisplayName("Each handler applies its commands to its own session model")
+    void handlersAreBoundToTheirSessionModel() throws Exception {
+        GameStatusModel first = new GameStatusModel();
+        GameStatusModel second = new GameStatusModel();
+        CommandHandler other = new CommandHandler(DispatchTuning.defaults(), ModelExecutor.direct(), second);
+        handler.stop();
+        handler = new CommandHandler(DispatchTuning.defaults(), ModelExecutor.direct(), first);
+        try {
+            CountDownLatch executed = new CountDownLatch(1);
+            handler.enqueueCommand(new ReadyCommand());
+            handler.enqueueCommand(executed::countDown);
+
+            assertTrue(executed.await(2, TimeUnit.SECONDS), "Commands should have executed within timeout");
+            assertTrue(first.isReady(), "The bound model must receive the update");
+            assertFalse(second.isReady(), "Other sessions must not see the update");
+        } finally {
+            other.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("A full queue refuses offers and calls back once it has drained")
+    void offerRefusesWhenFullAndCallsBack() throws Exception {
+        handler.stop();
+        handler = new CommandHandler(new DispatchTuning(DispatchMode.SINGLE, 1, false, 4, WaitStrategy.PARK),
+                ModelExecutor.direct());
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch blocking = new CountDownLatch(1);
+        handler.enqueueCommand(() -> {
+            blocking.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(blocking.await(2, TimeUnit.SECONDS), "The worker should be busy with the first command");
+        Command noop = () -> {
+        };
+        for (int i = 0; i < 4; i++) {
+            assertTrue(handler.offerCommand(noop, null));
+        }
+        CountDownLatch space = new CountDownLatch(1);
+        assertFalse(handler.offerCommand(noop, space::countDown), "A full queue must refuse without blocking");
+
+        release.countDown();
+        assertTrue(space.await(2, TimeUnit.SECONDS), "The refused producer should be called back");
+        assertTrue(handler.offerCommand(noop, null));
+    }
 }
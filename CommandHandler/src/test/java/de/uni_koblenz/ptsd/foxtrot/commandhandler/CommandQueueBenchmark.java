@@ -0,0 +1,263 @@
+package de.uni_koblenz.ptsd.foxtrot.commandhandler;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+
+import de.uni_koblenz.ptsd.foxtrot.commandhandler.commands.Command;
+
+/**
+ * Compares the {@link MpscRingBuffer} used by {@link CommandHandler} with the
+ * former {@link LinkedBlockingQueue} at 1, 4 and 16 producer threads.
+ * <p>
+ * One invocation pushes {@value #MESSAGES} commands through the queue, spread
+ * over the producers, while a single consumer takes and executes them.
+ * {@code transfer} reports commands per microsecond. {@code latency} stamps
+ * every command when it is put and records the time until the consumer
+ * executes it; the p50/p90/p99/p99.9 of these per-command latencies over all
+ * measurement iterations are printed at the end of each trial. Its throughput
+ * includes the cost of the two clock reads per command.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommandQueueBenchmark {
+
+    static final int MESSAGES = 64 * 1024;
+    private static final Command NOOP = () -> {
+    };
+
+    /** Queue under test. */
+    interface Channel {
+        void put(Command command) throws InterruptedException;
+
+        Command take() throws InterruptedException;
+    }
+
+    /**
+     * Log-linear histogram of nanosecond latencies: exact below 16, above that
+     * 16 sub-buckets per power of two, so quantiles are within about 6%.
+     */
+    static final class LatencyHistogram {
+        private static final int SUB = 16;
+
+        private final long[] counts = new long[64 * SUB];
+        private long total;
+
+        void record(long nanos) {
+            long value = Math.max(0, nanos);
+            int index;
+            if (value < SUB) {
+                index = (int) value;
+            } else {
+                int exponent = 63 - Long.numberOfLeadingZeros(value);
+                index = (exponent - 3) * SUB + (int) ((value >>> (exponent - 4)) & (SUB - 1));
+            }
+            this.counts[index]++;
+            this.total++;
+        }
+
+        void addAll(LatencyHistogram other) {
+            for (int i = 0; i < this.counts.length; i++) {
+                this.counts[i] += other.counts[i];
+            }
+            this.total += other.total;
+        }
+
+        void clear() {
+            Arrays.fill(this.counts, 0L);
+            this.total = 0;
+        }
+
+        /** Returns the lower bound of the bucket holding the {@code quantile}. */
+        long quantile(double quantile) {
+            long rank = (long) Math.ceil(quantile * this.total);
+            long seen = 0;
+            for (int i = 0; i < this.counts.length; i++) {
+                seen += this.counts[i];
+                if (seen >= rank && seen > 0) {
+                    if (i < SUB) {
+                        return i;
+                    }
+                    int exponent = i / SUB + 3;
+                    return (long) (SUB + i % SUB) << (exponent - 4);
+                }
+            }
+            return 0;
+        }
+    }
+
+    /** Command that records the time since {@code sent[id]} when it is executed. */
+    private final class Stamped implements Command {
+        private final int id;
+
+        Stamped(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public void execute() {
+            CommandQueueBenchmark.this.iteration.record(System.nanoTime() - CommandQueueBenchmark.this.sent[this.id]);
+        }
+    }
+
+    @Param({ "1", "4", "16" })
+    public int producers;
+
+    @Param({ "RING_SPIN", "RING_YIELD", "RING_PARK", "LINKED" })
+    public String queue;
+
+    private ExecutorService pool;
+    private Channel channel;
+
+    private final long[] sent = new long[MESSAGES];
+    private final Command[] stamped = new Command[MESSAGES];
+    private final LatencyHistogram iteration = new LatencyHistogram();
+    private final LatencyHistogram measured = new LatencyHistogram();
+
+    @Setup(Level.Trial)
+    public void startPool() {
+        this.pool = Executors.newFixedThreadPool(this.producers);
+        for (int i = 0; i < MESSAGES; i++) {
+            this.stamped[i] = new Stamped(i);
+        }
+        this.measured.clear();
+    }
+
+    @Setup(Level.Iteration)
+    public void createQueue() {
+        this.iteration.clear();
+        if ("LINKED".equals(this.queue)) {
+            LinkedBlockingQueue<Command> linked = new LinkedBlockingQueue<>();
+            this.channel = new Channel() {
+                @Override
+                public void put(Command command) throws InterruptedException {
+                    linked.put(command);
+                }
+
+                @Override
+                public Command take() throws InterruptedException {
+                    return linked.take();
+                }
+            };
+            return;
+        }
+        WaitStrategy strategy = WaitStrategy.valueOf(this.queue.substring("RING_".length()));
+        MpscRingBuffer<Command> ring = new MpscRingBuffer<>(DispatchTuning.DEFAULT_QUEUE_CAPACITY, strategy);
+        this.channel = new Channel() {
+            @Override
+            public void put(Command command) {
+                int attempt = 0;
+                while (!ring.offer(command)) {
+                    strategy.backOff(attempt++);
+                }
+            }
+
+            @Override
+            public Command take() throws InterruptedException {
+                return ring.take();
+            }
+        };
+    }
+
+    @TearDown(Level.Iteration)
+    public void collectLatencies(IterationParams params) {
+        if (params.getType() == IterationType.MEASUREMENT) {
+            this.measured.addAll(this.iteration);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopPool() {
+        this.pool.shutdownNow();
+        if (this.measured.total > 0) {
+            System.out.printf("%n[CommandQueueBenchmark] %s, %d producers: enqueue-to-execute p50=%dns p90=%dns"
+                    + " p99=%dns p99.9=%dns over %d commands%n", this.queue, this.producers,
+                    this.measured.quantile(0.5), this.measured.quantile(0.9), this.measured.quantile(0.99),
+                    this.measured.quantile(0.999), this.measured.total);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public int transfer() throws Exception {
+        int perProducer = MESSAGES / this.producers;
+        CountDownLatch start = new CountDownLatch(1);
+        Channel target = this.channel;
+        for (int p = 0; p < this.producers; p++) {
+            this.pool.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < perProducer; i++) {
+                        target.put(NOOP);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        int received = 0;
+        for (int i = perProducer * this.producers; i > 0; i--) {
+            if (target.take() != null) {
+                received++;
+            }
+        }
+        return received;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public int latency() throws Exception {
+        int perProducer = MESSAGES / this.producers;
+        CountDownLatch start = new CountDownLatch(1);
+        Channel target = this.channel;
+        long[] stamps = this.sent;
+        Command[] commands = this.stamped;
+        for (int p = 0; p < this.producers; p++) {
+            int first = p * perProducer;
+            this.pool.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = first; i < first + perProducer; i++) {
+                        stamps[i] = System.nanoTime();
+                        target.put(commands[i]);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        int executed = 0;
+        for (int i = perProducer * this.producers; i > 0; i--) {
+            target.take().execute();
+            executed++;
+        }
+        return executed;
+    }
+}
@@ -0,0 +1,101 @@
+package de.uni_koblenz.ptsd.foxtrot.commandhandler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class MpscRingBufferTest {
+
+    @Test
+    @DisplayName("Capacity is rounded up to a power of two and offer fails when full")
+    void rejectsWhenFull() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(3, WaitStrategy.SPIN);
+        assertEquals(4, buffer.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(99), "A full buffer must reject further elements");
+        assertEquals(0, buffer.poll());
+        assertTrue(buffer.offer(4), "A consumed slot must become available again");
+    }
+
+    @Test
+    @DisplayName("drainTo moves at most the requested number of elements in FIFO order")
+    void drainToHonoursLimit() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(16, WaitStrategy.SPIN);
+        for (int i = 0; i < 10; i++) {
+            buffer.offer(i);
+        }
+        List<Integer> target = new ArrayList<>();
+        assertEquals(4, buffer.drainTo(target, 4));
+        assertEquals(List.of(0, 1, 2, 3), target);
+        assertEquals(6, buffer.size());
+    }
+
+    @Test
+    @DisplayName("Concurrent producers lose nothing and keep their own order")
+    void concurrentProducersKeepPerProducerOrder() throws Exception {
+        for (WaitStrategy strategy : WaitStrategy.values()) {
+            transferWithProducers(strategy);
+        }
+    }
+
+    private static void transferWithProducers(WaitStrategy strategy) throws Exception {
+        int producers = 4;
+        int perProducer = 50_000;
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(256, strategy);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            Thread thread = new Thread(() -> {
+                for (long i = 0; i < perProducer; i++) {
+                    long[] element = { producer, i };
+                    int attempt = 0;
+                    while (!buffer.offer(element)) {
+                        strategy.backOff(attempt++);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        long[] next = new long[producers];
+        for (int i = 0; i < producers * perProducer; i++) {
+            long[] element = buffer.take();
+            assertEquals(next[(int) element[0]]++, element[1], "Elements of one producer must stay in order");
+        }
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    @DisplayName("A parked consumer is woken by a producer and by interruption")
+    void parkedConsumerWakesUp() throws Exception {
+        MpscRingBuffer<String> buffer = new MpscRingBuffer<>(8, WaitStrategy.PARK);
+        Thread producer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            buffer.offer("late");
+        });
+        producer.start();
+        assertEquals("late", buffer.take());
+
+        Thread.currentThread().interrupt();
+        assertThrows(InterruptedException.class, buffer::take);
+    }
+}
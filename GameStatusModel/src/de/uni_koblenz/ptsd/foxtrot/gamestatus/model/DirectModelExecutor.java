@@ -0,0 +1,26 @@
+package de.uni_koblenz.ptsd.foxtrot.gamestatus.model;
+
+/**
+ * {@link ModelExecutor} that runs every task on the calling thread.
+ * <p>
+ * Callers are responsible for applying updates from one thread at a time;
+ * the command handler does so by executing all commands on its worker.
+ * </p>
+ */
+final class DirectModelExecutor implements ModelExecutor {
+
+    static final DirectModelExecutor INSTANCE = new DirectModelExecutor();
+
+    private DirectModelExecutor() {
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        task.run();
+    }
+
+    @Override
+    public boolean isModelThread() {
+        return true;
+    }
+}
@@ -0,0 +1,335 @@
+package de.uni_koblenz.ptsd.foxtrot.gamestatus.model;
+
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.CellType;
+
+/**
+ * Shortest walking distances between all pairs of walkable cells of a
+ * {@link Maze}.
+ * <p>
+ * The table stores, for every pair of {@link CellType#PATH} cells, the number
+ * of steps of a shortest 4-connected walk between them, or {@code -1} if one
+ * cannot be reached from the other. Turning is not counted; clients that also
+ * charge for turns can use the distances as exact step counts and as a lower
+ * bound of their own costs.
+ * </p>
+ *
+ * <p>
+ * The distances of {@code n} walkable cells are kept in one {@code short[n * n]},
+ * so the table needs about {@code 2 * n * n} bytes. A table loaded by a
+ * {@link MazeCache} reads them straight from the read-only file mapping instead,
+ * so they stay off the heap and share their pages with every other table mapped
+ * from the same file (see {@link #getMemoryBytes()}).
+ * It is built by a breadth-first search from every walkable cell; the searches
+ * are independent and run in parallel on the {@link ForkJoinPool#commonPool()
+ * common fork/join pool}. Because a distance must fit into a {@code short},
+ * at most {@link #MAX_CELLS} walkable cells are supported.
+ * </p>
+ *
+ * <p>
+ * A table is immutable once built and may be read from any thread. It belongs
+ * to the maze it was built for (see {@link #getMaze()}) and must not be used
+ * for another one.
+ * </p>
+ */
+public final class DistanceTable {
+
+    /** Largest number of walkable cells a table can hold. */
+    public static final int MAX_CELLS = Short.MAX_VALUE;
+
+    /** Sources handled by one fork/join leaf task. */
+    private static final int SOURCES_PER_TASK = 16;
+
+    private final Maze maze;
+    private final int width;
+    private final int height;
+    /** Walkable index per grid cell {@code y * width + x}; {@code -1} for blocked cells. */
+    private final int[] index;
+    private final int cells;
+    /** Distance from walkable index {@code i} to {@code j} at {@code i * cells + j}; read with absolute gets only. */
+    private final ShortBuffer distances;
+    private final long buildNanos;
+    private final boolean loaded;
+
+    private DistanceTable(Maze maze, int[] index, int cells, ShortBuffer distances, long buildNanos, boolean loaded) {
+        this.maze = maze;
+        this.width = maze.getWidth();
+        this.height = maze.getHeight();
+        this.index = index;
+        this.cells = cells;
+        this.distances = distances;
+        this.buildNanos = buildNanos;
+        this.loaded = loaded;
+    }
+
+    /**
+     * Counts the walkable cells of a maze, i.e. the size parameter {@code n} of
+     * a table for it.
+     *
+     * @param maze the maze
+     * @return the number of {@link CellType#PATH} cells
+     */
+    public static int countWalkable(Maze maze) {
+        return maze.getWalkableCount();
+    }
+
+    /**
+     * Builds the table for {@code maze}, running the searches in parallel and
+     * waiting for them.
+     *
+     * @param maze the maze
+     * @return the finished table
+     * @throws IllegalArgumentException if the maze has more than {@link #MAX_CELLS} walkable cells
+     */
+    public static DistanceTable build(Maze maze) {
+        long start = System.nanoTime();
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+        int[] index = indexCells(maze);
+        int cells = cellsOf(index);
+
+        // Neighbor lists by walkable index, four slots per cell in the order N, E, S, W.
+        int[] neighbors = new int[cells * 4];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int i = index[y * width + x];
+                if (i < 0) {
+                    continue;
+                }
+                neighbors[i * 4] = y > 0 ? index[(y - 1) * width + x] : -1;
+                neighbors[i * 4 + 1] = x < width - 1 ? index[y * width + x + 1] : -1;
+                neighbors[i * 4 + 2] = y < height - 1 ? index[(y + 1) * width + x] : -1;
+                neighbors[i * 4 + 3] = x > 0 ? index[y * width + x - 1] : -1;
+            }
+        }
+
+        short[] distances = new short[cells * cells];
+        ForkJoinPool.commonPool().invoke(new SearchTask(neighbors, cells, distances, 0, cells));
+        return new DistanceTable(maze, index, cells, ShortBuffer.wrap(distances), System.nanoTime() - start, false);
+    }
+
+    /**
+     * Recreates a table from distances that were built for the same maze
+     * before, e.g. by a {@link MazeCache}.
+     *
+     * @param maze       the maze
+     * @param distances  the distance rows as returned by {@link #distances()}, e.g. a
+     *                   read-only view of a mapped file; used without copying
+     * @param loadNanos  how long obtaining the distances took
+     * @return the table
+     * @throws IllegalArgumentException if the distances do not fit the maze
+     */
+    static DistanceTable restore(Maze maze, ShortBuffer distances, long loadNanos) {
+        int[] index = indexCells(maze);
+        int cells = cellsOf(index);
+        if ((long) cells * cells != distances.remaining()) {
+            throw new IllegalArgumentException("Expected " + cells + " x " + cells + " distances, got "
+                    + distances.remaining());
+        }
+        return new DistanceTable(maze, index, cells, distances.slice(), loadNanos, true);
+    }
+
+    /**
+     * Returns a table with the same distances for another instance of the same
+     * layout, e.g. the maze of another session. The distances are shared.
+     *
+     * @param sameLayout a maze with the same {@linkplain MazeCache#fingerprint(Maze) fingerprint}
+     * @return this table if it already belongs to {@code sameLayout}, otherwise a table for it
+     * @throws IllegalArgumentException if the size of {@code sameLayout} differs
+     */
+    DistanceTable forMaze(Maze sameLayout) {
+        if (sameLayout == this.maze) {
+            return this;
+        }
+        if (sameLayout.getWidth() != this.width || sameLayout.getHeight() != this.height) {
+            throw new IllegalArgumentException("Maze has another size than the table");
+        }
+        return new DistanceTable(sameLayout, this.index, this.cells, this.distances, this.buildNanos, this.loaded);
+    }
+
+    /**
+     * Numbers the walkable cells of {@code maze} row by row.
+     *
+     * @return the walkable index per grid cell {@code y * width + x}, {@code -1} for blocked cells
+     * @throws IllegalArgumentException if there are more than {@link #MAX_CELLS} walkable cells
+     */
+    private static int[] indexCells(Maze maze) {
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+        int[] index = new int[width * height];
+        int cells = 0;
+        for (int cell = 0; cell < index.length; cell++) {
+            index[cell] = maze.isWalkableUnchecked(cell) ? cells++ : -1;
+        }
+        if (cells > MAX_CELLS) {
+            throw new IllegalArgumentException("Maze has " + cells + " walkable cells, at most " + MAX_CELLS
+                    + " are supported");
+        }
+        return index;
+    }
+
+    /** Number of walkable cells of an index built by {@link #indexCells(Maze)}. */
+    private static int cellsOf(int[] index) {
+        int cells = 0;
+        for (int i : index) {
+            if (i >= 0) {
+                cells++;
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Builds the table for {@code maze} on the common fork/join pool without
+     * blocking the caller.
+     *
+     * @param maze the maze
+     * @return a future completed with the table, or exceptionally if it cannot be built
+     */
+    public static CompletableFuture<DistanceTable> buildAsync(Maze maze) {
+        return CompletableFuture.supplyAsync(() -> build(maze), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns the maze this table was built for.
+     *
+     * @return the maze
+     */
+    public Maze getMaze() {
+        return this.maze;
+    }
+
+    /**
+     * Returns the number of steps of a shortest walk between two cells.
+     *
+     * @param fromX x-coordinate of the first cell
+     * @param fromY y-coordinate of the first cell
+     * @param toX   x-coordinate of the second cell
+     * @param toY   y-coordinate of the second cell
+     * @return the distance in steps, or {@code -1} if either cell lies outside the
+     *         maze, is not walkable, or the cells are not connected
+     */
+    public int steps(int fromX, int fromY, int toX, int toY) {
+        int from = this.indexOf(fromX, fromY);
+        int to = this.indexOf(toX, toY);
+        if (from < 0 || to < 0) {
+            return -1;
+        }
+        return this.distances.get(from * this.cells + to);
+    }
+
+    private int indexOf(int x, int y) {
+        if (x < 0 || y < 0 || x >= this.width || y >= this.height) {
+            return -1;
+        }
+        return this.index[y * this.width + x];
+    }
+
+    /**
+     * Returns the number of walkable cells covered by this table.
+     *
+     * @return the walkable cell count
+     */
+    public int getCellCount() {
+        return this.cells;
+    }
+
+    /**
+     * Returns how long building this table took, or loading it if it was read
+     * from a {@link MazeCache}.
+     *
+     * @return the wall-clock build or load time in nanoseconds
+     */
+    public long getBuildNanos() {
+        return this.buildNanos;
+    }
+
+    /**
+     * Returns whether this table was loaded from a {@link MazeCache} instead
+     * of being built.
+     *
+     * @return {@code true} for a cached table
+     */
+    public boolean isLoaded() {
+        return this.loaded;
+    }
+
+    /** The distance rows, for {@link MazeCache}; read with absolute gets only. */
+    ShortBuffer distances() {
+        return this.distances;
+    }
+
+    /**
+     * Returns the approximate heap memory held by this table. The distances of
+     * a table mapped from a {@link MazeCache} file are not on the heap and are
+     * not counted.
+     *
+     * @return the size of its heap arrays in bytes
+     */
+    public long getMemoryBytes() {
+        return (this.distances.isDirect() ? 0L : 2L * this.distances.capacity()) + 4L * this.index.length;
+    }
+
+    /**
+     * Runs the breadth-first searches for a range of source cells, splitting the
+     * range until it is small enough.
+     */
+    private static final class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] neighbors;
+        private final int cells;
+        private final short[] distances;
+        private final int from;
+        private final int to;
+
+        SearchTask(int[] neighbors, int cells, short[] distances, int from, int to) {
+            this.neighbors = neighbors;
+            this.cells = cells;
+            this.distances = distances;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from > SOURCES_PER_TASK) {
+                int mid = (this.from + this.to) >>> 1;
+                invokeAll(new SearchTask(this.neighbors, this.cells, this.distances, this.from, mid),
+                        new SearchTask(this.neighbors, this.cells, this.distances, mid, this.to));
+                return;
+            }
+            int[] queue = new int[this.cells];
+            for (int source = this.from; source < this.to; source++) {
+                this.search(source, queue);
+            }
+        }
+
+        /** Fills the row of {@code source}; each task writes only its own rows. */
+        private void search(int source, int[] queue) {
+            short[] dist = this.distances;
+            int row = source * this.cells;
+            Arrays.fill(dist, row, row + this.cells, (short) -1);
+            dist[row + source] = 0;
+            queue[0] = source;
+            int head = 0;
+            int tail = 1;
+            while (head < tail) {
+                int current = queue[head++];
+                short next = (short) (dist[row + current] + 1);
+                for (int k = current * 4; k < current * 4 + 4; k++) {
+                    int neighbor = this.neighbors[k];
+                    if (neighbor >= 0 && dist[row + neighbor] < 0) {
+                        dist[row + neighbor] = next;
+                        queue[tail++] = neighbor;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package de.uni_koblenz.ptsd.foxtrot.gamestatus.model;
+
+import javafx.application.Platform;
+
+/**
+ * {@link ModelExecutor} that applies updates on the JavaFX Application Thread.
+ */
+final class FxModelExecutor implements ModelExecutor {
+
+    static final FxModelExecutor INSTANCE = new FxModelExecutor();
+
+    private FxModelExecutor() {
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        Platform.runLater(task);
+    }
+
+    @Override
+    public boolean isModelThread() {
+        return Platform.isFxApplicationThread();
+    }
+}
@@ -26,9 +26,11 @@ import javafx.collections.ObservableMap;
  * </p>
  *
  * <p>
- * This class is implemented as a <b>singleton</b>. Use {@link #getInstance()} to access
- * the single shared model instance. This ensures that all subsystems (UI,
- * CommandHandler, Protocol) operate on the same data representation.
+ * Each game session owns one model. {@link #getInstance()} returns the shared
+ * default model used by the GUI client, so that all of its subsystems (UI,
+ * CommandHandler, Protocol) operate on the same data representation. Hosts that
+ * run several sessions in one JVM create a model per session with
+ * {@link #GameStatusModel()} and bind it to that session's {@code CommandHandler}.
  * </p>
  *
  * <p>
@@ -45,7 +47,7 @@ import javafx.collections.ObservableMap;
  */
 public class GameStatusModel {
 	
-	// The single shared instance of this model (singleton).
+	// The shared default instance returned by getInstance().
     private static GameStatusModel model;
     
     // The maze structure of the current game.
@@ -69,15 +71,32 @@ public class GameStatusModel {
     // Flag indicating whether the client is ready to send/receive game commands.
     private final BooleanProperty ready = new SimpleBooleanProperty(false);
 
-    // Private constructor to enforce singleton pattern.
-    private GameStatusModel() {
+    // All-pairs distances of the current maze; built in the background, read by robots.
+    private volatile DistanceTable distanceTable;
+
+    // Largest number of walkable cells for which a distance table is built.
+    private volatile int distanceTableCellBudget = DEFAULT_DISTANCE_TABLE_CELL_BUDGET;
+
+    // Where distance tables of known mazes are loaded from; null disables the cache.
+    private volatile MazeCache mazeCache;
+
+    /**
+     * Default for {@link #getDistanceTableCellBudget()}: 4096 walkable cells,
+     * i.e. a table of about 32 MiB.
+     */
+    public static final int DEFAULT_DISTANCE_TABLE_CELL_BUDGET = 4096;
+
+    /**
+     * Creates an empty model for one game session.
+     */
+    public GameStatusModel() {
     }
 
     /**
-     * Returns the singleton instance of the {@code GameStatusModel}.
+     * Returns the shared default instance of the {@code GameStatusModel}.
      * If none exists yet, a new instance is created.
      *
-     * @return the single {@code GameStatusModel} instance
+     * @return the default {@code GameStatusModel} instance
      */
     public static synchronized GameStatusModel getInstance() {
         if (model == null) {
@@ -97,6 +116,7 @@ public class GameStatusModel {
         this.players.clear();
         this.baits.clear();
         this.maze.set(null);
+        this.distanceTable = null;
         this.state.set(State.DISCONNECTED);
         this.ready.set(false);
         this.clientID.set(null);
@@ -131,6 +151,79 @@ public class GameStatusModel {
         this.maze.set(maze);
     }
 
+    /**
+     * Returns the all-pairs distance table of the current maze.
+     * <p>
+     * The table is built in the background after a new maze arrived, so it is
+     * {@code null} for a while after every maze change, and always if the maze
+     * has more walkable cells than {@link #getDistanceTableCellBudget()}. Callers
+     * then have to search on demand.
+     * </p>
+     *
+     * @return the table of the current maze, or {@code null} if none is available
+     */
+    public DistanceTable getDistanceTable() {
+        DistanceTable table = this.distanceTable;
+        return (table != null && table.getMaze() == this.getMaze()) ? table : null;
+    }
+
+    /**
+     * Installs a distance table. It is ignored unless it belongs to the current
+     * maze, so a table that finishes after the maze was replaced is dropped.
+     * May be called from any thread.
+     *
+     * @param table the table, or {@code null} to remove the current one
+     */
+    public void setDistanceTable(DistanceTable table) {
+        if (table == null || table.getMaze() == this.getMaze()) {
+            this.distanceTable = table;
+        }
+    }
+
+    /**
+     * Returns the largest number of walkable cells for which a distance table
+     * is built.
+     *
+     * @return the cell budget
+     */
+    public int getDistanceTableCellBudget() {
+        return this.distanceTableCellBudget;
+    }
+
+    /**
+     * Sets the largest number of walkable cells for which a distance table is
+     * built; a table needs about {@code 2 * cells * cells} bytes. Applies from
+     * the next maze on.
+     *
+     * @param cells the cell budget; {@code 0} disables the table
+     */
+    public void setDistanceTableCellBudget(int cells) {
+        if (cells < 0) {
+            throw new IllegalArgumentException("cells must not be negative");
+        }
+        this.distanceTableCellBudget = Math.min(cells, DistanceTable.MAX_CELLS);
+    }
+
+    /**
+     * Returns the cache from which the distance table of a known maze is
+     * loaded instead of being built.
+     *
+     * @return the cache, or {@code null} if tables are always built
+     */
+    public MazeCache getMazeCache() {
+        return this.mazeCache;
+    }
+
+    /**
+     * Sets the cache from which the distance table of a known maze is loaded
+     * and to which new tables are written. Applies from the next maze on.
+     *
+     * @param cache the cache, or {@code null} to always build tables
+     */
+    public void setMazeCache(MazeCache cache) {
+        this.mazeCache = cache;
+    }
+
     /**
      * Property accessor for the players map.
      *
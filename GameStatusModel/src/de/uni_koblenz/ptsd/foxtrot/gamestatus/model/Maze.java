@@ -19,6 +19,15 @@ import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.CellType;
  * as defined in {@link CellType}.
  * </p>
  *
+ * <p>
+ * Cells are stored row by row in a flat {@code byte[]} of {@link CellType}
+ * ordinals, together with a {@code long[]} bitset of the walkable
+ * ({@link CellType#PATH}) cells. Both are indexed by {@code y * width + x}.
+ * Planners that have already checked the bounds use the unchecked accessors
+ * {@link #isWalkableUnchecked(int)} and {@link #getTypeAtUnchecked(int)} on
+ * that index.
+ * </p>
+ *
  * <p><b>Note:</b> This JavaDoc was written with the assistance of ChatGPT.</p>
  *
  * 
@@ -26,20 +35,31 @@ import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.CellType;
 public class Maze {
 	
 	// The width of the maze (number of columns).
-    private int width;
+    private final int width;
     
     // The height of the maze (number of rows).
-    private int height;
+    private final int height;
     
-    // Two-dimensional grid of cell types, indexed by [y][x].
-    private CellType[][] cellType;
+    // CellType ordinal per cell, indexed by y * width + x; NO_TYPE for a missing entry.
+    private final byte[] cells;
+
+    // Walkable (PATH) cells as a bitset over y * width + x.
+    private final long[] walkable;
+
+    // Number of walkable cells.
+    private final int walkableCount;
+
+    private static final CellType[] TYPES = CellType.values();
+    private static final byte NO_TYPE = -1;
 
     /**
      * Creates a new {@code Maze} with the specified dimensions and cell structure.
      *
      * @param width     the number of columns (must be greater than 0)
      * @param height    the number of rows (must be greater than 0)
-     * @param cellType  a two-dimensional array of {@link CellType} values representing the maze
+     * @param cellType  a two-dimensional array of {@link CellType} values representing the maze,
+     *                  indexed by {@code [y][x]}; it is copied, and missing rows or entries
+     *                  read as {@code null}
      * @throws IllegalArgumentException if {@code width <= 0} or {@code height <= 0}
      */
     public Maze(int width, int height, CellType[][] cellType) {
@@ -48,7 +68,22 @@ public class Maze {
         }
         this.width = width;
         this.height = height;
-        this.cellType = cellType;
+        this.cells = new byte[width * height];
+        this.walkable = new long[(width * height + 63) >>> 6];
+        int count = 0;
+        for (int y = 0; y < height; y++) {
+            CellType[] row = (cellType != null && y < cellType.length) ? cellType[y] : null;
+            for (int x = 0; x < width; x++) {
+                CellType type = (row != null && x < row.length) ? row[x] : null;
+                int cell = y * width + x;
+                this.cells[cell] = (type != null) ? (byte) type.ordinal() : NO_TYPE;
+                if (type == CellType.PATH) {
+                    this.walkable[cell >>> 6] |= 1L << cell;
+                    count++;
+                }
+            }
+        }
+        this.walkableCount = count;
     }
 
     /**
@@ -63,7 +98,56 @@ public class Maze {
         if (x < 0 || x >= this.width || y < 0 || y >= this.height) {
             throw new IllegalArgumentException();
         }
-        return this.cellType[y][x];
+        return this.getTypeAtUnchecked(y * this.width + x);
+    }
+
+    /**
+     * Returns the type of the cell with index {@code y * width + x} without
+     * checking the bounds.
+     *
+     * @param cell the cell index ({@code 0 ≤ cell < width * height})
+     * @return the {@link CellType} of the cell
+     */
+    public CellType getTypeAtUnchecked(int cell) {
+        byte type = this.cells[cell];
+        return type == NO_TYPE ? null : TYPES[type];
+    }
+
+    /**
+     * Returns whether the cell at the given coordinates can be walked on,
+     * i.e. is a {@link CellType#PATH}.
+     *
+     * @param x the horizontal coordinate
+     * @param y the vertical coordinate
+     * @return {@code true} for a walkable cell, {@code false} for any other cell
+     *         and for coordinates outside the maze
+     */
+    public boolean isWalkable(int x, int y) {
+        if (x < 0 || x >= this.width || y < 0 || y >= this.height) {
+            return false;
+        }
+        return this.isWalkableUnchecked(y * this.width + x);
+    }
+
+    /**
+     * Returns whether the cell with index {@code y * width + x} can be walked
+     * on, without checking the bounds. This is a single bit test and meant for
+     * the inner loops of planners.
+     *
+     * @param cell the cell index ({@code 0 ≤ cell < width * height})
+     * @return {@code true} for a walkable cell
+     */
+    public boolean isWalkableUnchecked(int cell) {
+        return (this.walkable[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Returns the number of walkable cells.
+     *
+     * @return the number of {@link CellType#PATH} cells
+     */
+    public int getWalkableCount() {
+        return this.walkableCount;
     }
 
     /**
@@ -85,16 +169,28 @@ public class Maze {
     }
 
     /**
-     * Returns the underlying 2D array of {@link CellType} values.
+     * Returns the cell types as a 2D array.
      * <p>
      * The first index corresponds to the row (y-coordinate), the second
-     * index to the column (x-coordinate).
+     * index to the column (x-coordinate). The array is rebuilt from the
+     * packed cell store on every call, so changing it does not change the maze.
      * </p>
      *
      * @return the two-dimensional array of cell types
      */
     public CellType[][] getCellType() {
-        return this.cellType;
+        CellType[][] grid = new CellType[this.height][this.width];
+        for (int y = 0; y < this.height; y++) {
+            for (int x = 0; x < this.width; x++) {
+                grid[y][x] = this.getTypeAtUnchecked(y * this.width + x);
+            }
+        }
+        return grid;
+    }
+
+    /** The packed cell store, for fingerprinting; must not be modified. */
+    byte[] cells() {
+        return this.cells;
     }
 
 }
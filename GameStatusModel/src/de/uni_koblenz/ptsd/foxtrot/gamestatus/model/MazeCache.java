@@ -0,0 +1,336 @@
+package de.uni_koblenz.ptsd.foxtrot.gamestatus.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.CellType;
+
+/**
+ * On-disk cache of data derived from a {@link Maze}, keyed by the maze's
+ * {@linkplain #fingerprint(Maze) fingerprint}.
+ * <p>
+ * Servers reuse the same few mazes across games, so the {@link DistanceTable}
+ * of a maze that was seen before is read back from a file instead of being
+ * rebuilt after every {@code MAZE} message. Every maze gets one file
+ * {@code <fingerprint>.dist} in the cache directory, holding a small header
+ * and the raw distance rows. A loaded table reads its distances straight from
+ * the read-only memory mapping of the file, without copying them to the heap,
+ * so all sessions and processes that load the same maze share its pages.
+ * </p>
+ *
+ * <p>
+ * Files are written to a temporary name and then moved into place, so
+ * several clients may share one directory; a file that is missing, truncated
+ * or does not match the maze counts as a miss. The directory is bounded: after
+ * every store the least recently used files are deleted until the files take
+ * at most {@link #getMaxBytes()} bytes. A load counts as a use.
+ * </p>
+ *
+ * <p>
+ * A cache instance may be used from any thread. Concurrent
+ * {@link #loadOrBuildAsync(Maze)} calls for the same layout share one load or
+ * build, so sessions that receive the same maze at the same time do not each
+ * build its table.
+ * </p>
+ */
+public final class MazeCache {
+
+    private static final int MAGIC = 0x46584454; // "FXDT"
+    private static final int VERSION = 1;
+    /** Magic, version, width, height and walkable cell count. */
+    private static final int HEADER_BYTES = 5 * Integer.BYTES;
+    private static final int WRITE_CHUNK_BYTES = 64 * 1024;
+    private static final String SUFFIX = ".dist";
+
+    /** Default bound of the cache directory: eight tables of the default cell budget. */
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    private final Path directory;
+    private final long maxBytes;
+    /** Loads and builds that are running, by fingerprint. */
+    private final ConcurrentHashMap<String, CompletableFuture<DistanceTable>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a cache in {@code directory} bounded by {@link #DEFAULT_MAX_BYTES}.
+     * The directory is created when the first file is stored.
+     *
+     * @param directory the cache directory
+     */
+    public MazeCache(Path directory) {
+        this(directory, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Creates a cache in {@code directory} whose files take at most
+     * {@code maxBytes} bytes. The most recently stored file is kept even if it
+     * alone exceeds the bound.
+     *
+     * @param directory the cache directory
+     * @param maxBytes  the bound of the total file size
+     */
+    public MazeCache(Path directory, long maxBytes) {
+        if (directory == null) {
+            throw new IllegalArgumentException("directory must not be null");
+        }
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes must not be negative");
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the default cache directory, {@code .foxtrot/maze-cache} in the
+     * user's home directory.
+     *
+     * @return the default directory
+     */
+    public static Path defaultDirectory() {
+        return Path.of(System.getProperty("user.home"), ".foxtrot", "maze-cache");
+    }
+
+    /**
+     * Returns the directory this cache reads from and writes to.
+     *
+     * @return the cache directory
+     */
+    public Path getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Returns the bound of the total size of the cache files.
+     *
+     * @return the bound in bytes
+     */
+    public long getMaxBytes() {
+        return this.maxBytes;
+    }
+
+    /**
+     * Computes the fingerprint of a maze: the hex-encoded SHA-256 hash of its
+     * size and its {@link CellType} grid. Two mazes with the same fingerprint
+     * have the same layout.
+     *
+     * @param maze the maze
+     * @return the fingerprint, 64 hex digits
+     */
+    public static String fingerprint(Maze maze) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        ByteBuffer size = ByteBuffer.allocate(2 * Integer.BYTES).putInt(maze.getWidth()).putInt(maze.getHeight());
+        digest.update(size.array());
+        digest.update(maze.cells());
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Reads the distance table of {@code maze} from the cache.
+     *
+     * @param maze the maze
+     * @return the table, or {@code null} if there is no usable file for the maze
+     * @throws IOException if the file exists but cannot be read
+     */
+    public DistanceTable load(Maze maze) throws IOException {
+        return this.load(maze, this.fileFor(fingerprint(maze)));
+    }
+
+    private DistanceTable load(Maze maze, Path file) throws IOException {
+        long start = System.nanoTime();
+        ShortBuffer distances;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                return null;
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (mapped.getInt() != MAGIC || mapped.getInt() != VERSION || mapped.getInt() != maze.getWidth()
+                    || mapped.getInt() != maze.getHeight()) {
+                return null;
+            }
+            int cells = mapped.getInt();
+            if (cells < 0 || cells > DistanceTable.MAX_CELLS
+                    || size != HEADER_BYTES + 2L * cells * cells) {
+                return null;
+            }
+            // The mapping stays valid after the channel is closed.
+            distances = mapped.asShortBuffer();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        DistanceTable table;
+        try {
+            table = DistanceTable.restore(maze, distances, System.nanoTime() - start);
+        } catch (IllegalArgumentException e) {
+            return null; // written for a different maze under the same name
+        }
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Only affects which file is evicted first.
+        }
+        return table;
+    }
+
+    /**
+     * Writes a distance table to the cache, replacing an older file for the
+     * same maze.
+     *
+     * @param table the table
+     * @throws IOException if the file cannot be written
+     */
+    public void store(DistanceTable table) throws IOException {
+        this.store(table, this.fileFor(fingerprint(table.getMaze())));
+    }
+
+    private void store(DistanceTable table, Path file) throws IOException {
+        Files.createDirectories(this.directory);
+        Path temp = Files.createTempFile(this.directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocate(WRITE_CHUNK_BYTES);
+                buffer.putInt(MAGIC).putInt(VERSION).putInt(table.getMaze().getWidth())
+                        .putInt(table.getMaze().getHeight()).putInt(table.getCellCount());
+                ShortBuffer distances = table.distances();
+                for (int i = 0, n = distances.capacity(); i < n; i++) {
+                    if (!buffer.hasRemaining()) {
+                        writeFully(channel, buffer);
+                    }
+                    buffer.putShort(distances.get(i));
+                }
+                writeFully(channel, buffer);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        this.evict(file);
+    }
+
+    /**
+     * Deletes the least recently used cache files, except {@code keep}, until
+     * the files take at most {@link #maxBytes} bytes. Files that cannot be
+     * deleted, e.g. because another client holds them open, are skipped.
+     */
+    private void evict(Path keep) {
+        record Entry(Path file, long size, FileTime used) {}
+        List<Entry> entries = new ArrayList<>();
+        long total = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    continue; // evicted by another client meanwhile
+                }
+                entries.add(new Entry(file, attributes.size(), attributes.lastModifiedTime()));
+                total += attributes.size();
+            }
+        } catch (IOException e) {
+            System.err.println("[MazeCache] Evicting from " + this.directory + " failed: " + e);
+            return;
+        }
+        entries.sort(Comparator.comparing(Entry::used));
+        for (Entry entry : entries) {
+            if (total <= this.maxBytes) {
+                break;
+            }
+            if (entry.file().equals(keep)) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(entry.file());
+                total -= entry.size();
+            } catch (IOException e) {
+                // In use elsewhere; try the next one.
+            }
+        }
+    }
+
+    /**
+     * Loads the distance table of {@code maze} from the cache, or builds and
+     * stores it on a miss. I/O errors are reported on {@code System.err} and
+     * otherwise treated like a miss, so a broken cache never prevents the
+     * table.
+     *
+     * @param maze the maze
+     * @return the table
+     * @throws IllegalArgumentException if the maze has more than {@link DistanceTable#MAX_CELLS} walkable cells
+     */
+    public DistanceTable loadOrBuild(Maze maze) {
+        return this.loadOrBuild(maze, this.fileFor(fingerprint(maze)));
+    }
+
+    private DistanceTable loadOrBuild(Maze maze, Path file) {
+        try {
+            DistanceTable cached = this.load(maze, file);
+            if (cached != null) {
+                return cached;
+            }
+        } catch (IOException e) {
+            System.err.println("[MazeCache] Reading " + file + " failed: " + e);
+        }
+        DistanceTable table = DistanceTable.build(maze);
+        try {
+            this.store(table, file);
+        } catch (IOException e) {
+            System.err.println("[MazeCache] Writing " + file + " failed: " + e);
+        }
+        return table;
+    }
+
+    /**
+     * Runs {@link #loadOrBuild(Maze)} on the common fork/join pool without
+     * blocking the caller. While a load or build for the same layout is
+     * running, callers share it and receive the table for their own maze.
+     *
+     * @param maze the maze
+     * @return a future completed with the table, or exceptionally if it cannot be built
+     */
+    public CompletableFuture<DistanceTable> loadOrBuildAsync(Maze maze) {
+        String fingerprint = fingerprint(maze);
+        CompletableFuture<DistanceTable> shared = this.inFlight.computeIfAbsent(fingerprint,
+                key -> CompletableFuture.supplyAsync(() -> this.loadOrBuild(maze, this.fileFor(key)),
+                        ForkJoinPool.commonPool()));
+        shared.whenComplete((table, error) -> this.inFlight.remove(fingerprint, shared));
+        return shared.thenApply(table -> table.forMaze(maze));
+    }
+
+    private Path fileFor(String fingerprint) {
+        return this.directory.resolve(fingerprint + SUFFIX);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
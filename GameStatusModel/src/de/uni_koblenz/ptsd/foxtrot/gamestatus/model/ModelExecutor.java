@@ -0,0 +1,98 @@
+package de.uni_koblenz.ptsd.foxtrot.gamestatus.model;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Decides on which thread updates to the {@link GameStatusModel} are applied.
+ * <p>
+ * The model itself only uses {@code javafx.base} properties, which work without
+ * the JavaFX toolkit. What ties a client to the toolkit is the thread that
+ * mutates the model. Components that write to the model (the command handler,
+ * the protocol and the robot runner) therefore hand their updates to a
+ * {@code ModelExecutor} instead of calling {@code Platform.runLater} directly.
+ * </p>
+ *
+ * <ul>
+ *   <li>{@link #fx()} applies updates on the JavaFX Application Thread. This is what
+ *       the GUI uses so that bound controls are updated safely.</li>
+ *   <li>{@link #direct()} applies updates on the calling thread, e.g. commands run
+ *       directly on the command handler's worker thread. It is only safe when no other
+ *       component (such as a robot runner) updates the same model.</li>
+ *   <li>{@link #singleThread(String)} applies updates on one dedicated plain thread,
+ *       the headless counterpart of the FX thread. Its owner {@linkplain #close() closes}
+ *       it when the session ends.</li>
+ * </ul>
+ */
+public interface ModelExecutor extends Executor, AutoCloseable {
+
+    /**
+     * Returns whether the current thread may update the model directly.
+     *
+     * @return {@code true} on the model thread
+     */
+    boolean isModelThread();
+
+    /**
+     * Runs the task right away when called on the model thread, otherwise hands
+     * it over with {@link #execute(Runnable)}.
+     *
+     * @param task the update to apply
+     */
+    default void runOnModelThread(Runnable task) {
+        if (isModelThread()) {
+            task.run();
+        } else {
+            execute(task);
+        }
+    }
+
+    /**
+     * Releases the thread behind this executor. Tasks submitted before are still
+     * run, tasks submitted afterwards are discarded. The shared {@link #fx()} and
+     * {@link #direct()} executors own no thread, so this does nothing for them.
+     */
+    @Override
+    default void close() {
+    }
+
+    /**
+     * Returns the executor backed by the JavaFX Application Thread.
+     *
+     * @return the FX executor
+     */
+    static ModelExecutor fx() {
+        return FxModelExecutor.INSTANCE;
+    }
+
+    /**
+     * Returns an executor that runs every task on the calling thread.
+     *
+     * @return the direct executor
+     */
+    static ModelExecutor direct() {
+        return DirectModelExecutor.INSTANCE;
+    }
+
+    /**
+     * Starts a daemon thread that runs all tasks in submission order until the
+     * executor is {@linkplain #close() closed}.
+     *
+     * @param name the name of the model thread
+     * @return a new single-thread executor
+     */
+    static ModelExecutor singleThread(String name) {
+        return new SingleThreadModelExecutor(runnable -> new Thread(runnable, name));
+    }
+
+    /**
+     * Starts the model thread with {@code threadFactory}, e.g. to run it on a
+     * virtual thread; otherwise like {@link #singleThread(String)}.
+     *
+     * @param threadFactory creates the model thread
+     * @return a new single-thread executor
+     */
+    static ModelExecutor singleThread(ThreadFactory threadFactory) {
+        return new SingleThreadModelExecutor(threadFactory);
+    }
+}
@@ -0,0 +1,67 @@
+package de.uni_koblenz.ptsd.foxtrot.gamestatus.model;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * {@link ModelExecutor} backed by one daemon thread that runs all tasks in
+ * submission order. A failing task is reported and does not stop the thread.
+ * {@link #close()} lets the thread finish the tasks queued so far and end.
+ */
+final class SingleThreadModelExecutor implements ModelExecutor {
+
+    /** Queued by {@link #close()} after the last task; ends the loop. */
+    private static final Runnable STOP = () -> {
+    };
+
+    private final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    private volatile boolean closed;
+
+    SingleThreadModelExecutor(ThreadFactory threadFactory) {
+        this.thread = threadFactory.newThread(this::loop);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!this.closed) {
+            this.tasks.add(task);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!this.closed) {
+            this.closed = true;
+            this.tasks.add(STOP);
+        }
+    }
+
+    @Override
+    public boolean isModelThread() {
+        return Thread.currentThread() == this.thread;
+    }
+
+    private void loop() {
+        while (true) {
+            Runnable task;
+            try {
+                task = this.tasks.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (task == STOP) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.err.println("[ModelExecutor] Task failed: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -2,8 +2,15 @@ package de.uni_koblenz.ptsd.foxtrot.gamestatus.tests;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.CompletableFuture;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.*;
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.*;
@@ -87,6 +94,36 @@ public class GameStatusModelTest {
         assertEquals(maze, model.getMaze());
     }
 
+    /**
+     * Verifies that the packed cell store of a {@link Maze} answers like the
+     * grid it was created from.
+     */
+    @Test
+    void testMazeCellStore() {
+        CellType[][] cells = {
+            { CellType.PATH, CellType.WALL, CellType.PATH },
+            { CellType.WATER, CellType.UNKNOWN, CellType.PATH }
+        };
+        Maze maze = new Maze(3, 2, cells);
+        for (int y = 0; y < 2; y++) {
+            for (int x = 0; x < 3; x++) {
+                assertEquals(cells[y][x], maze.getTypeAt(x, y));
+                assertEquals(cells[y][x], maze.getTypeAtUnchecked(y * 3 + x));
+                assertEquals(cells[y][x] == CellType.PATH, maze.isWalkable(x, y));
+                assertEquals(cells[y][x] == CellType.PATH, maze.isWalkableUnchecked(y * 3 + x));
+            }
+        }
+        assertEquals(3, maze.getWalkableCount());
+        assertFalse(maze.isWalkable(-1, 0));
+        assertFalse(maze.isWalkable(3, 1));
+        assertThrows(IllegalArgumentException.class, () -> maze.getTypeAt(0, 2));
+
+        CellType[][] copy = maze.getCellType();
+        assertArrayEquals(cells, copy);
+        copy[0][1] = CellType.PATH;
+        assertEquals(CellType.WALL, maze.getTypeAt(1, 0), "The returned grid must be a copy");
+    }
+
     /**
      * Tests adding and replacing players in the {@link GameStatusModel}.
      */
@@ -154,4 +191,117 @@ public class GameStatusModelTest {
         model.setReady(false);
         assertFalse(model.isReady());
     }
-}
\ No newline at end of file
+
+    /**
+     * Verifies that the {@link DistanceTable} holds walking distances and that the
+     * model only hands out the table of its current maze.
+     */
+    @Test
+    void testDistanceTable() {
+        Maze maze = new Maze(3, 2, new CellType[][] {
+            { CellType.PATH, CellType.WALL, CellType.PATH },
+            { CellType.PATH, CellType.PATH, CellType.PATH }
+        });
+        DistanceTable table = DistanceTable.build(maze);
+        assertEquals(5, table.getCellCount());
+        assertEquals(4, table.steps(0, 0, 2, 0));
+        assertEquals(0, table.steps(1, 1, 1, 1));
+        assertEquals(-1, table.steps(1, 0, 2, 0));
+
+        model.setMaze(new Maze(1, 1, new CellType[][] { { CellType.PATH } }));
+        model.setDistanceTable(table);
+        assertNull(model.getDistanceTable(), "A table of another maze must be ignored");
+
+        model.setMaze(maze);
+        model.setDistanceTable(table);
+        assertSame(table, model.getDistanceTable());
+        model.setMaze(new Maze(1, 1, new CellType[][] { { CellType.PATH } }));
+        assertNull(model.getDistanceTable(), "The table must not outlive its maze");
+    }
+
+    /**
+     * Verifies that a {@link MazeCache} returns the stored table for a maze with
+     * the same layout and misses for any other layout.
+     */
+    @Test
+    void testMazeCache(@TempDir Path directory) throws IOException {
+        CellType[][] cells = {
+            { CellType.PATH, CellType.WALL, CellType.PATH },
+            { CellType.PATH, CellType.PATH, CellType.PATH }
+        };
+        Maze maze = new Maze(3, 2, cells);
+        MazeCache cache = new MazeCache(directory);
+        assertNull(cache.load(maze));
+
+        DistanceTable built = cache.loadOrBuild(maze);
+        assertFalse(built.isLoaded());
+        assertEquals(1, Files.list(directory).count());
+
+        Maze sameLayout = new Maze(3, 2, new CellType[][] { cells[0].clone(), cells[1].clone() });
+        assertEquals(MazeCache.fingerprint(maze), MazeCache.fingerprint(sameLayout));
+        DistanceTable loaded = cache.loadOrBuild(sameLayout);
+        assertTrue(loaded.isLoaded());
+        assertSame(sameLayout, loaded.getMaze());
+        assertEquals(4, loaded.steps(0, 0, 2, 0));
+        assertEquals(-1, loaded.steps(1, 0, 2, 0));
+
+        Maze other = new Maze(3, 2, new CellType[][] {
+            { CellType.PATH, CellType.PATH, CellType.PATH },
+            { CellType.PATH, CellType.PATH, CellType.PATH }
+        });
+        assertNotEquals(MazeCache.fingerprint(maze), MazeCache.fingerprint(other));
+        assertNull(cache.load(other));
+    }
+
+    /**
+     * Verifies that a bounded {@link MazeCache} deletes the least recently used
+     * file when a new one does not fit.
+     */
+    @Test
+    void testMazeCacheEviction(@TempDir Path directory) throws IOException {
+        Maze first = new Maze(3, 2, new CellType[][] {
+            { CellType.PATH, CellType.WALL, CellType.PATH },
+            { CellType.PATH, CellType.PATH, CellType.PATH }
+        });
+        Maze second = new Maze(3, 2, new CellType[][] {
+            { CellType.PATH, CellType.PATH, CellType.PATH },
+            { CellType.PATH, CellType.WALL, CellType.PATH }
+        });
+        // One 3x2 file holds a 20 byte header and 5 x 5 distances of 2 bytes.
+        MazeCache cache = new MazeCache(directory, 100);
+        cache.loadOrBuild(first);
+        Path firstFile = directory.resolve(MazeCache.fingerprint(first) + ".dist");
+        Files.setLastModifiedTime(firstFile, FileTime.fromMillis(0));
+
+        cache.loadOrBuild(second);
+        assertFalse(Files.exists(firstFile), "The least recently used file must be evicted");
+        assertNotNull(cache.load(second));
+        assertNull(cache.load(first));
+    }
+
+    /**
+     * Verifies that concurrent loads of the same layout each receive a table
+     * for their own maze and that a loaded table keeps its distances off the heap.
+     */
+    @Test
+    void testMazeCacheSharesLoads(@TempDir Path directory) throws IOException {
+        CellType[][] cells = {
+            { CellType.PATH, CellType.WALL, CellType.PATH },
+            { CellType.PATH, CellType.PATH, CellType.PATH }
+        };
+        Maze maze = new Maze(3, 2, cells);
+        Maze sameLayout = new Maze(3, 2, new CellType[][] { cells[0].clone(), cells[1].clone() });
+        MazeCache cache = new MazeCache(directory);
+
+        CompletableFuture<DistanceTable> first = cache.loadOrBuildAsync(maze);
+        CompletableFuture<DistanceTable> second = cache.loadOrBuildAsync(sameLayout);
+        assertSame(maze, first.join().getMaze());
+        assertSame(sameLayout, second.join().getMaze());
+        assertEquals(4, second.join().steps(0, 0, 2, 0));
+        assertEquals(1, Files.list(directory).count());
+
+        DistanceTable loaded = cache.load(maze);
+        assertTrue(loaded.isLoaded());
+        assertEquals(4L * 3 * 2, loaded.getMemoryBytes(), "Mapped distances must not count as heap memory");
+    }
+}
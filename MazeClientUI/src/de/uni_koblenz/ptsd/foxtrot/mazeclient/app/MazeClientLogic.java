@@ -5,8 +5,11 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import de.uni_koblenz.ptsd.foxtrot.commandhandler.CommandHandler;
+import de.uni_koblenz.ptsd.foxtrot.commandhandler.DispatchTuning;
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.State;
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.GameStatusModel;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.MazeCache;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.ModelExecutor;
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Player;
 import de.uni_koblenz.ptsd.foxtrot.protocol.MazeGameProtocol;
 import de.uni_koblenz.ptsd.foxtrot.robot.strategy.RobotRunner;
@@ -17,6 +20,7 @@ import javafx.collections.MapChangeListener;
 
 public class MazeClientLogic {
     private static final Logger LOG = Logger.getLogger(MazeClientLogic.class.getName());
+    private static final int COMMAND_BATCH_SIZE = 512;
 
     private final GameStatusModel model;
     private MazeGameProtocol protocol;
@@ -37,6 +41,7 @@ public class MazeClientLogic {
 
     private MazeClientLogic() {
         this.model = GameStatusModel.getInstance();
+        this.model.setMazeCache(new MazeCache(MazeCache.defaultDirectory()));
         this.model.getPlayers().addListener((MapChangeListener<Integer, Player>) change -> this.ensureRobotRunner());
         this.model.clientIDProperty().addListener((obs, oldVal, newVal) -> this.ensureRobotRunner());
     }
@@ -53,7 +58,8 @@ public class MazeClientLogic {
             this.disconnect();
         }
 
-        CommandHandler handler = new CommandHandler();
+        CommandHandler handler = new CommandHandler(DispatchTuning.batchedCoalescing(COMMAND_BATCH_SIZE),
+                ModelExecutor.fx(), this.model);
         this.protocol = new MazeGameProtocol(handler);
         this.protocol.connect(host, port);
         MazeGameProtocol newProtocol = new MazeGameProtocol(handler);
@@ -1,28 +1,41 @@
 package de.uni_koblenz.ptsd.foxtrot.protocol;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.net.Socket;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import de.uni_koblenz.ptsd.foxtrot.commandhandler.CommandHandler;
 import de.uni_koblenz.ptsd.foxtrot.commandhandler.commands.Command;
+import de.uni_koblenz.ptsd.foxtrot.commandhandler.commands.InfoCommand;
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.GameStatusModel;
-import javafx.application.Platform;
 
 
 /**
  * The {@code MazeGameProtocol} class implements the communication
  * between the MazeGame client and the MazeGame server.
  * <p>
- * It manages the socket connection, reads incoming messages in a
- * dedicated thread, parses them into {@link Command} objects, and
- * forwards them to the {@link CommandHandler}. It also provides
- * convenience methods to send protocol-compliant messages to the
- * server.
+ * It manages the socket connection, reads incoming messages on the
+ * shared non-blocking selector thread, parses them into {@link Command}
+ * objects, and forwards them to the {@link CommandHandler}. It also
+ * provides convenience methods to send protocol-compliant messages to
+ * the server.
+ * </p>
+ *
+ * <p>
+ * The socket is a non-blocking {@link SocketChannel}. All connections in
+ * the JVM share one selector thread and one direct read buffer, and lines
+ * are framed on CRLF directly from that buffer, so many clients can run
+ * in one process without a reader thread each.
+ * </p>
+ *
+ * <p>
+ * The selector thread never waits for the {@link CommandHandler}. When its
+ * queue is full, the refused command is kept and this connection stops
+ * reading until the handler has drained its queue, while all other
+ * connections keep being served.
  * </p>
  * 
  * <p>
@@ -35,12 +48,22 @@ public class MazeGameProtocol implements AutoCloseable {
     private final CommandHandler handler;
     private final MessageParser parser = new MessageParser();
 
-    private Socket socket;
-    private BufferedReader in;
-    private BufferedWriter out;
-    private Thread readerThread;
+    private final List<Runnable> readyListeners = new CopyOnWriteArrayList<>();
+    /** Queued for every {@code RDY.}; sets the ready flag, then notifies the listeners. */
+    private final Command readySignal = new ReadySignal(null);
+
+    private volatile NioConnection connection;
     private volatile boolean running = true;
 
+    /** Command refused by the full handler queue; only touched by the selector thread. */
+    private Command parked;
+    private final Runnable resume = () -> {
+        NioConnection current = this.connection;
+        if (current != null) {
+            current.requestResume();
+        }
+    };
+
     /**
      * Creates a new {@code MazeGameProtocol} instance.
      *
@@ -51,59 +74,180 @@ public class MazeGameProtocol implements AutoCloseable {
     }
 
     /**
-     * Establishes a TCP connection to the MazeGame server and starts
-     * a background thread to read and process incoming messages.
+     * Establishes a TCP connection to the MazeGame server and registers
+     * it with the shared selector thread, which reads and processes
+     * incoming messages from then on.
      *
      * @param host the hostname or IP address of the server
      * @param port the port number of the server
      * @throws IOException if the connection cannot be established
      */
     public void connect(String host, int port) throws IOException {
-        this.socket = new Socket(host, port);
-        this.in = new BufferedReader(new InputStreamReader(this.socket.getInputStream(), StandardCharsets.UTF_8));
-        this.out = new BufferedWriter(new OutputStreamWriter(this.socket.getOutputStream(), StandardCharsets.UTF_8));
+        SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port));
+        try {
+            channel.configureBlocking(false);
+            SelectorLoop loop = SelectorLoop.shared();
+            this.connection = new NioConnection(channel, new NioConnection.LineSink() {
+                @Override
+                public boolean onLine(byte[] line, int length) {
+                    return MazeGameProtocol.this.onLine(line, length);
+                }
 
-        this.readerThread = new Thread(() -> {
-            String line;
-            try {
-                while (this.running && (line = this.in.readLine()) != null) {
-                    if (line.startsWith("MAZE;")) {
-                        String[] header = line.split(";");
-                        int width = Integer.parseInt(header[1]);
-                        int height = Integer.parseInt(header[2]);
-                        String[] rows = new String[height];
-                        for (int y = 0; y < height; y++) {
-                            rows[y] = this.in.readLine();
-                        }
-                        Command command = this.parser.parseMaze(width, height, rows);
-                        if (command != null) {
-                            this.handler.enqueueCommand(command);
-                        }
-                    } else if (line.equals("RDY.")) {
-                        Platform.runLater(() -> GameStatusModel.getInstance().setReady(true));
-                    } else {
-                        Command command = this.parser.parse(line);
-                        if (command != null) {
-                            this.handler.enqueueCommand(command);
-                        }
-                    }
+                @Override
+                public boolean onResume() {
+                    return MazeGameProtocol.this.offerParked();
                 }
-            } catch (IOException e) {
-                System.err.println("[MazeGameProtocol] Connection lost: " + e.getMessage());
-            } catch (Exception e) {
-                System.err.println("[MazeGameProtocol] Unexpected error while reading messages: " + e.getMessage());
-                e.printStackTrace();
+
+                @Override
+                public void onDisconnect(IOException cause) {
+                    MazeGameProtocol.this.onDisconnect(cause);
+                }
+            }, loop);
+            loop.register(this.connection);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Handles one framed line. Runs on the selector thread.
+     *
+     * @param line   the line bytes (only valid during this call)
+     * @param length the number of valid bytes
+     * @return {@code false} if the handler queue is full and reading must pause
+     */
+    private boolean onLine(byte[] line, int length) {
+        if (!this.running) {
+            return true;
+        }
+        try {
+            if (this.parser.isCollectingMaze()) {
+                return this.dispatch(this.parser.acceptMazeRow(line, length));
+            } else if (isReady(line, length)) {
+                return this.dispatch(this.readySignal);
+            } else if (!this.parser.beginMaze(line, length)) {
+                return this.dispatch(this.parser.parse(line, length));
             }
-        }, "MazeGameProtocol Reader");
-        this.readerThread.setDaemon(true);
-        this.readerThread.start();
+        } catch (Exception e) {
+            System.err.println("[MazeGameProtocol] Unexpected error while reading messages: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return true;
+    }
+
+    /**
+     * Hands a parsed command to the handler without blocking.
+     *
+     * @return {@code false} if the handler refused it; it is then parked
+     */
+    private boolean dispatch(Command command) {
+        if (command == null) {
+            return true;
+        }
+        if (command instanceof InfoCommand info && info.getInfoCode() == 453) {
+            // STEP not possible: the server expects the next action right away.
+            command = new ReadySignal(info);
+        }
+        if (this.handler.offerCommand(command, this.resume)) {
+            return true;
+        }
+        this.parked = command;
+        return false;
+    }
+
+    /**
+     * Offers the parked command again. Runs on the selector thread.
+     *
+     * @return whether nothing is parked any more
+     */
+    private boolean offerParked() {
+        if (this.parked != null && !this.handler.offerCommand(this.parked, this.resume)) {
+            return false;
+        }
+        this.parked = null;
+        return true;
+    }
+
+    /**
+     * Registers a listener that is notified as soon as the server allows the
+     * next action ({@code RDY.}, or {@code INFO;453} after a rejected step).
+     * <p>
+     * Listeners run on the model thread, in order with the other commands:
+     * the model already reflects every message received before the signal,
+     * including the ready flag. They must return quickly and must not block;
+     * typically they only wake up a waiting thread.
+     * </p>
+     *
+     * @param listener the listener to add
+     */
+    public void addReadyListener(Runnable listener) {
+        this.readyListeners.add(listener);
+    }
+
+    /**
+     * Removes a listener registered with {@link #addReadyListener(Runnable)}.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeReadyListener(Runnable listener) {
+        this.readyListeners.remove(listener);
+    }
+
+    private void fireReady() {
+        for (Runnable listener : this.readyListeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                System.err.println("[MazeGameProtocol] Ready listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Applies a ready signal to the model and then notifies the ready
+     * listeners, both on the model thread.
+     */
+    private final class ReadySignal implements Command {
+        /** The command carrying the signal, or {@code null} for {@code RDY.}. */
+        private final Command update;
+
+        ReadySignal(Command update) {
+            this.update = update;
+        }
+
+        @Override
+        public void execute() {
+            execute(MazeGameProtocol.this.handler.getModel());
+        }
+
+        @Override
+        public void execute(GameStatusModel model) {
+            if (this.update != null) {
+                this.update.execute(model);
+            } else {
+                model.setReady(true);
+            }
+            MazeGameProtocol.this.fireReady();
+        }
+    }
+
+    private void onDisconnect(IOException cause) {
+        if (this.running) {
+            System.err.println("[MazeGameProtocol] Connection lost: "
+                    + (cause != null ? cause.getMessage() : "end of stream"));
+        }
+    }
+
+    private static boolean isReady(byte[] line, int length) {
+        return length == 4 && line[0] == 'R' && line[1] == 'D' && line[2] == 'Y' && line[3] == '.';
     }
 
     /**
      * Sends a {@code HELO} message to log in with the given nickname.
      *
      * @param nickname the nickname of the player
-     * @throws IOException if writing to the socket fails
+     * @throws IOException if the connection is closed
      */
     public void sendHello(String nickname) throws IOException {
         this.send("HELO;" + nickname);
@@ -112,7 +256,7 @@ public class MazeGameProtocol implements AutoCloseable {
     /**
      * Sends a {@code MAZ?} message to request the maze data.
      *
-     * @throws IOException if writing to the socket fails
+     * @throws IOException if the connection is closed
      */
     public void sendMazeQuery() throws IOException {
         this.send("MAZ?");
@@ -121,7 +265,7 @@ public class MazeGameProtocol implements AutoCloseable {
     /**
      * Sends a {@code STEP} message to request moving one step forward.
      *
-     * @throws IOException if writing to the socket fails
+     * @throws IOException if the connection is closed
      */
     public void sendStep() throws IOException {
         this.send("STEP");
@@ -131,7 +275,7 @@ public class MazeGameProtocol implements AutoCloseable {
      * Sends a {@code TURN} message to request turning left or right.
      *
      * @param direction 'l' for left or 'r' for right
-     * @throws IOException if writing to the socket fails
+     * @throws IOException if the connection is closed
      * @throws IllegalArgumentException if the direction is invalid
      */
     public void sendTurn(char direction) throws IOException {
@@ -144,38 +288,94 @@ public class MazeGameProtocol implements AutoCloseable {
     /**
      * Sends a {@code BYE!} message to disconnect from the server.
      *
-     * @throws IOException if writing to the socket fails
+     * @throws IOException if the connection is closed
      */
     public void sendBye() throws IOException {
         this.send("BYE!");
     }
 
     /**
-     * Sends a raw message string to the server, appending CRLF.
+     * Queues a raw message string for the server, appending CRLF.
+     * <p>
+     * The call returns immediately; the selector thread writes all queued
+     * messages of this connection in one batch.
+     * </p>
      *
      * @param message the protocol message to send
-     * @throws IOException if writing to the socket fails
+     * @throws IOException if the connection is not open
      */
     public void send(String message) throws IOException {
-        this.out.write(message);
-        this.out.write("\r\n");
-        this.out.flush();
+        NioConnection current = this.connection;
+        if (current == null) {
+            throw new IOException("Not connected");
+        }
+        current.enqueue((message + "\r\n").getBytes(StandardCharsets.UTF_8));
     }
 
     /**
-     * Closes the protocol by shutting down the reader thread
-     * and closing the underlying socket connection.
+     * Returns the number of messages queued but not yet handed to the socket.
      *
-     * @throws IOException if closing the socket fails
+     * @return the outbound queue depth, {@code 0} when not connected
+     */
+    public int getOutboundQueueDepth() {
+        NioConnection current = this.connection;
+        return current != null ? current.outboundDepth() : 0;
+    }
+
+    /**
+     * Returns the time between the first message of the most recent batch
+     * being queued and that batch being fully written to the socket.
+     *
+     * @return the last flush latency in nanoseconds
+     */
+    public long getLastFlushLatencyNanos() {
+        NioConnection current = this.connection;
+        return current != null ? current.lastFlushLatencyNanos() : 0L;
+    }
+
+    /**
+     * Returns the highest flush latency observed on this connection.
+     *
+     * @return the maximum flush latency in nanoseconds
+     */
+    public long getMaxFlushLatencyNanos() {
+        NioConnection current = this.connection;
+        return current != null ? current.maxFlushLatencyNanos() : 0L;
+    }
+
+    /**
+     * Returns how many batched writes have completed on this connection.
+     *
+     * @return the number of completed flushes
+     */
+    public long getFlushCount() {
+        NioConnection current = this.connection;
+        return current != null ? current.flushCount() : 0L;
+    }
+
+    /**
+     * Returns how many messages have been written on this connection.
+     * Together with {@link #getFlushCount()} this gives the average batch size.
+     *
+     * @return the number of written messages
+     */
+    public long getMessagesWritten() {
+        NioConnection current = this.connection;
+        return current != null ? current.messagesWritten() : 0L;
+    }
+
+    /**
+     * Closes the protocol. Messages queued before this call (such as
+     * {@code BYE!}) are still written, then the selector thread closes the
+     * underlying socket channel.
+     *
+     * @throws IOException if closing the channel fails
      */
     @Override
     public void close() throws IOException {
         this.running = false;
-        if (this.readerThread != null) {
-            this.readerThread.interrupt();
-        }
-        if (this.socket != null) {
-            this.socket.close();
+        if (this.connection != null) {
+            this.connection.closeGracefully();
         }
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package de.uni_koblenz.ptsd.foxtrot.protocol;
 
+import java.nio.charset.StandardCharsets;
+
 import de.uni_koblenz.ptsd.foxtrot.commandhandler.commands.BaitPosCommand;
 import de.uni_koblenz.ptsd.foxtrot.commandhandler.commands.Command;
 import de.uni_koblenz.ptsd.foxtrot.commandhandler.commands.InfoCommand;
@@ -29,6 +31,16 @@ import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.PlayerEvent;
  * specification. Each message string is parsed into a concrete
  * command that can be executed to update the {@link GameStatusModel}.
  * </p>
+ *
+ * <p>
+ * Besides {@link #parse(String)}, the parser offers a byte-level path
+ * ({@link #parse(byte[], int)} and the {@code MAZE} row methods) that
+ * decodes messages straight from the transport's line buffer. It avoids
+ * {@code String.split}, substring-based integer parsing and upper-cased
+ * enum lookups, so the only object created per message is the resulting
+ * {@link Command}. The byte-level path keeps a read cursor and the
+ * pending maze in fields, so an instance must only be used by one thread.
+ * </p>
  * 
  * <p>
  * <b>Note:</b> This JavaDoc was written with the assistance of ChatGPT.
@@ -37,6 +49,16 @@ import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.PlayerEvent;
  */
 public class MessageParser {
 
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    // Read position of the byte-level path inside the current line.
+    private int cursor;
+
+    // Pending multi-line MAZE message of the byte-level path.
+    private CellType[][] mazeCells;
+    private int mazeWidth;
+    private int mazeRowCount;
+
     /**
      * Parses a single-line protocol message into a {@link Command}.
      *
@@ -48,11 +70,9 @@ public class MessageParser {
         if (line == null || line.isBlank()) {
             return null;
         }
-        String[] parts = line.split(";");
-        String tmp = parts[0];
-
         try {
-            return switch (tmp) {
+            String[] parts = line.split(";");
+            return switch (parts[0]) {
                 case "BPOS" -> new BaitPosCommand(
                         Integer.parseInt(parts[1]),
                         Integer.parseInt(parts[2]),
@@ -87,6 +107,344 @@ public class MessageParser {
         }
     }
 
+    /**
+     * Parses a single-line protocol message directly from a byte buffer.
+     * <p>
+     * Equivalent to {@link #parse(String)}, but the message type, numbers
+     * and enum values are decoded in place. Fields holding non-ASCII bytes
+     * are decoded as text and parsed like the string path does, so both
+     * paths accept exactly the same messages. A {@code MAZE} header is not
+     * accepted here; use {@link #beginMaze(byte[], int)} for it.
+     * </p>
+     *
+     * @param line   buffer holding the ASCII message without CR/LF
+     * @param length number of valid bytes in {@code line}
+     * @return a {@link Command} instance, or {@code null} if the
+     *         message is invalid or not recognized
+     */
+    public Command parse(byte[] line, int length) {
+        if (length == 0 || isBlank(line, length)) {
+            return null;
+        }
+        if (length < 4 || (length > 4 && line[4] != ';')) {
+            System.err.println("[MessageParser] Unknown message: " + text(line, length));
+            return null;
+        }
+        this.cursor = 5;
+        byte a = line[0];
+        byte b = line[1];
+        byte c = line[2];
+        byte d = line[3];
+        try {
+            if (a == 'P' && b == 'P' && c == 'O' && d == 'S') {
+                int id = this.nextInt(line, length);
+                int x = this.nextInt(line, length);
+                int y = this.nextInt(line, length);
+                Direction direction = this.nextDirection(line, length);
+                return new PlayerPosCommand(id, x, y, direction, this.nextPlayerEvent(line, length));
+            }
+            if (a == 'B' && b == 'P' && c == 'O' && d == 'S') {
+                int x = this.nextInt(line, length);
+                int y = this.nextInt(line, length);
+                BaitType type = this.nextBaitType(line, length);
+                return new BaitPosCommand(x, y, type, this.nextBaitEvent(line, length));
+            }
+            if (a == 'P' && b == 'S' && c == 'C' && d == 'O') {
+                int id = this.nextInt(line, length);
+                return new PlayerScoreCommand(id, this.nextInt(line, length));
+            }
+            if (a == 'R' && b == 'D' && c == 'Y' && d == '.') {
+                return new ReadyCommand();
+            }
+            if (a == 'J' && b == 'O' && c == 'I' && d == 'N') {
+                int id = this.nextInt(line, length);
+                return new JoinCommand(id, this.nextText(line, length));
+            }
+            if (a == 'L' && b == 'E' && c == 'A' && d == 'V') {
+                return new LeaveCommand(this.nextInt(line, length));
+            }
+            if (a == 'I' && b == 'N' && c == 'F' && d == 'O') {
+                return new InfoCommand(this.nextInt(line, length));
+            }
+            if (a == 'Q' && b == 'U' && c == 'I' && d == 'T') {
+                return new QuitCommand();
+            }
+            if (a == 'M' && b == 'S' && c == 'R' && d == 'V') {
+                return new ServerVersionCommand(this.nextInt(line, length));
+            }
+            if (a == 'T' && b == 'E' && c == 'R' && d == 'M') {
+                return new TerminateCommand();
+            }
+            if (a == 'W' && b == 'E' && c == 'L' && d == 'C') {
+                return new WelcomeCommand(this.nextInt(line, length));
+            }
+            if (a == 'M' && b == 'A' && c == 'Z' && d == 'E') {
+                throw new IllegalStateException("MAZE header must be handled in MazeGameProtocol");
+            }
+            System.err.println("[MessageParser] Unknown message: " + text(line, length));
+            return null;
+        } catch (Exception e) {
+            System.err.println("[MessageParser] Failed to parse message: " + text(line, length) + " ("
+                    + e.getMessage() + ")");
+            return null;
+        }
+    }
+
+    /**
+     * Starts collecting a multi-line {@code MAZE} message if {@code line}
+     * is its header ({@code MAZE;width;height}).
+     *
+     * @param line   buffer holding the message without CR/LF
+     * @param length number of valid bytes in {@code line}
+     * @return {@code true} if the line was a valid maze header and the
+     *         following lines must be passed to {@link #acceptMazeRow(byte[], int)}
+     */
+    public boolean beginMaze(byte[] line, int length) {
+        if (length < 5 || line[0] != 'M' || line[1] != 'A' || line[2] != 'Z' || line[3] != 'E' || line[4] != ';') {
+            return false;
+        }
+        this.cursor = 5;
+        try {
+            int width = this.nextInt(line, length);
+            int height = this.nextInt(line, length);
+            if (width <= 0 || height <= 0) {
+                throw new IllegalArgumentException("Invalid maze size " + width + "x" + height);
+            }
+            this.mazeCells = new CellType[height][width];
+            this.mazeWidth = width;
+            this.mazeRowCount = 0;
+            return true;
+        } catch (Exception e) {
+            System.err.println("[MessageParser] Failed to parse message: " + text(line, length) + " ("
+                    + e.getMessage() + ")");
+            this.mazeCells = null;
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether a {@code MAZE} message is being collected.
+     *
+     * @return {@code true} between {@link #beginMaze(byte[], int)} and the last row
+     */
+    public boolean isCollectingMaze() {
+        return this.mazeCells != null;
+    }
+
+    /**
+     * Decodes the next row of the pending {@code MAZE} message.
+     *
+     * @param row    buffer holding the row without CR/LF
+     * @param length number of valid bytes in {@code row}
+     * @return the {@link MazeCommand} once the last row has been read,
+     *         otherwise {@code null}
+     * @throws IllegalStateException if no {@code MAZE} message is being collected
+     */
+    public Command acceptMazeRow(byte[] row, int length) {
+        if (this.mazeCells == null) {
+            throw new IllegalStateException("No MAZE message is being collected");
+        }
+        try {
+            CellType[] cells = this.mazeCells[this.mazeRowCount++];
+            for (int x = 0; x < this.mazeWidth; x++) {
+                cells[x] = (x < length) ? this.charToCell((char) row[x]) : CellType.UNKNOWN;
+            }
+        } catch (RuntimeException e) {
+            // Drop the pending maze so the next line is parsed as a message again.
+            this.mazeCells = null;
+            throw e;
+        }
+        if (this.mazeRowCount < this.mazeCells.length) {
+            return null;
+        }
+        CellType[][] complete = this.mazeCells;
+        this.mazeCells = null;
+        return new MazeCommand(this.mazeWidth, complete.length, complete);
+    }
+
+    private int nextInt(byte[] line, int length) {
+        int start = this.cursor;
+        int end = this.fieldEnd(line, length);
+        this.cursor = end + 1;
+        if (!isAscii(line, start, end)) {
+            return Integer.parseInt(new String(line, start, end - start, StandardCharsets.UTF_8));
+        }
+        int i = start;
+        boolean negative = i < end && line[i] == '-';
+        if (negative || (i < end && line[i] == '+')) {
+            i++;
+        }
+        if (i == end) {
+            throw new NumberFormatException("Missing number at column " + start);
+        }
+        // Accumulate negatively like Integer.parseInt so MIN_VALUE fits.
+        long limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = line[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Invalid number at column " + i);
+            }
+            value = value * 10 - digit;
+            if (value < limit) {
+                throw new NumberFormatException("Number out of range at column " + start);
+            }
+        }
+        return (int) (negative ? value : -value);
+    }
+
+    /**
+     * Reads a text field. Like {@code String.split}, an empty field only
+     * counts as present if a non-empty field follows it.
+     */
+    private String nextText(byte[] line, int length) {
+        int start = this.cursor;
+        int end = this.fieldEnd(line, length);
+        this.cursor = end + 1;
+        if (start == end) {
+            for (int i = end; i < length; i++) {
+                if (line[i] != ';') {
+                    return "";
+                }
+            }
+            throw new IllegalArgumentException("Missing text at column " + start);
+        }
+        return new String(line, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    private int fieldEnd(byte[] line, int length) {
+        int i = this.cursor;
+        while (i < length && line[i] != ';') {
+            i++;
+        }
+        return i;
+    }
+
+    private Direction nextDirection(byte[] line, int length) {
+        int start = this.cursor;
+        int end = this.fieldEnd(line, length);
+        this.cursor = end + 1;
+        if (!isAscii(line, start, end)) {
+            return Direction.valueOf(new String(line, start, end - start, StandardCharsets.UTF_8).toUpperCase());
+        }
+        if (end - start == 1) {
+            switch (line[start] | 0x20) {
+            case 'n':
+                return DIRECTIONS[0];
+            case 'e':
+                return DIRECTIONS[1];
+            case 's':
+                return DIRECTIONS[2];
+            case 'w':
+                return DIRECTIONS[3];
+            default:
+                break;
+            }
+        }
+        throw new IllegalArgumentException("Invalid direction at column " + start);
+    }
+
+    private PlayerEvent nextPlayerEvent(byte[] line, int length) {
+        int start = this.cursor;
+        int end = this.fieldEnd(line, length);
+        this.cursor = end + 1;
+        if (!isAscii(line, start, end)) {
+            return PlayerEvent.valueOf(new String(line, start, end - start, StandardCharsets.UTF_8).toUpperCase());
+        }
+        if (matches(line, start, end, "tel")) {
+            return PlayerEvent.TEL;
+        }
+        if (matches(line, start, end, "app")) {
+            return PlayerEvent.APP;
+        }
+        if (matches(line, start, end, "van")) {
+            return PlayerEvent.VAN;
+        }
+        if (matches(line, start, end, "mov")) {
+            return PlayerEvent.MOV;
+        }
+        if (matches(line, start, end, "trn")) {
+            return PlayerEvent.TRN;
+        }
+        throw new IllegalArgumentException("Invalid player event at column " + start);
+    }
+
+    private BaitType nextBaitType(byte[] line, int length) {
+        int start = this.cursor;
+        int end = this.fieldEnd(line, length);
+        this.cursor = end + 1;
+        if (!isAscii(line, start, end)) {
+            return BaitType.valueOf(new String(line, start, end - start, StandardCharsets.UTF_8).toUpperCase());
+        }
+        if (matches(line, start, end, "gem")) {
+            return BaitType.GEM;
+        }
+        if (matches(line, start, end, "coffee")) {
+            return BaitType.COFFEE;
+        }
+        if (matches(line, start, end, "food")) {
+            return BaitType.FOOD;
+        }
+        if (matches(line, start, end, "trap")) {
+            return BaitType.TRAP;
+        }
+        throw new IllegalArgumentException("Invalid bait type at column " + start);
+    }
+
+    private BaitEvent nextBaitEvent(byte[] line, int length) {
+        int start = this.cursor;
+        int end = this.fieldEnd(line, length);
+        this.cursor = end + 1;
+        if (!isAscii(line, start, end)) {
+            return BaitEvent.valueOf(new String(line, start, end - start, StandardCharsets.UTF_8).toUpperCase());
+        }
+        if (matches(line, start, end, "app")) {
+            return BaitEvent.APP;
+        }
+        if (matches(line, start, end, "van")) {
+            return BaitEvent.VAN;
+        }
+        throw new IllegalArgumentException("Invalid bait event at column " + start);
+    }
+
+    /**
+     * Case-insensitive comparison of {@code line[start, end)} with a lower-case
+     * ASCII keyword.
+     */
+    private static boolean matches(byte[] line, int start, int end, String keyword) {
+        if (end - start != keyword.length()) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            if ((line[start + i] | 0x20) != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAscii(byte[] line, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (line[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBlank(byte[] line, int length) {
+        for (int i = 0; i < length; i++) {
+            if (line[i] > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String text(byte[] line, int length) {
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
     /**
      * Parses a multi-line {@code MAZE} message into a {@link MazeCommand}.
      *
@@ -0,0 +1,337 @@
+package de.uni_koblenz.ptsd.foxtrot.protocol;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A single non-blocking server connection serviced by the shared
+ * {@link SelectorLoop}.
+ * <p>
+ * Incoming bytes are framed into CRLF-terminated lines. The line bytes are
+ * kept in a growable array that is reused for every line, so no per-line
+ * objects are created by the transport itself. Each complete line is handed
+ * to the {@link LineSink} without its line terminator.
+ * </p>
+ *
+ * <p>
+ * A sink that cannot take more lines, because its command queue is full,
+ * refuses a line. The connection then stops reading: the bytes already read
+ * but not framed are kept, {@code OP_READ} is cleared, and TCP flow control
+ * holds back the server instead of the selector thread blocking. Once the
+ * sink asks for it through {@link #requestResume()}, the kept bytes are
+ * framed and reading continues.
+ * </p>
+ *
+ * <p>
+ * Outgoing messages are queued by {@link #enqueue(byte[])}, which never
+ * touches the socket. The selector thread later drains everything that is
+ * pending into one buffer and writes it with a single call, so messages
+ * from several callers share one system call. If the socket cannot take
+ * the whole buffer, the rest is written when the channel becomes writable.
+ * </p>
+ */
+final class NioConnection {
+
+    /**
+     * Receiver of framed lines and of the disconnect notification.
+     * Both callbacks run on the selector thread and must not block.
+     */
+    interface LineSink {
+
+        /**
+         * Called for every complete line.
+         *
+         * @param line   buffer holding the line bytes; only valid during the call
+         * @param length number of valid bytes, excluding CR/LF
+         * @return {@code false} if the line was taken but no further lines can
+         *         be accepted for now; the connection then pauses until
+         *         {@link NioConnection#requestResume()}
+         */
+        boolean onLine(byte[] line, int length);
+
+        /**
+         * Called before a paused connection delivers lines again.
+         *
+         * @return whether lines can be accepted again; if not, the sink calls
+         *         {@link NioConnection#requestResume()} again later
+         */
+        boolean onResume();
+
+        /**
+         * Called once when the connection is closed by the peer or fails.
+         *
+         * @param cause the I/O error, or {@code null} on a clean end of stream
+         */
+        void onDisconnect(IOException cause);
+    }
+
+    private static final int WRITE_BUFFER_SIZE = 8 * 1024;
+    private static final ByteBuffer NOTHING = ByteBuffer.allocate(0);
+
+    private final SocketChannel channel;
+    private final LineSink sink;
+    private final SelectorLoop loop;
+
+    private byte[] line = new byte[256];
+    private int lineLength;
+    /** Whether the sink refused a line; only touched by the selector thread. */
+    private boolean paused;
+    /** Bytes read but not framed while paused, in read mode. */
+    private ByteBuffer unframed = NOTHING;
+
+    // Outbound side: filled by any thread, drained by the selector thread.
+    private final Queue<byte[]> outbound = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger outboundDepth = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile boolean closeRequested;
+    private volatile long batchStartNanos;
+
+    // Only touched by the selector thread.
+    private SelectionKey key;
+    private ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+    private boolean writePending;
+    private long pendingBatchStartNanos;
+
+    // Flush statistics, written by the selector thread.
+    private volatile long lastFlushLatencyNanos;
+    private volatile long maxFlushLatencyNanos;
+    private volatile long flushCount;
+    private volatile long messagesWritten;
+
+    NioConnection(SocketChannel channel, LineSink sink, SelectorLoop loop) {
+        this.channel = channel;
+        this.sink = sink;
+        this.loop = loop;
+        this.writeBuffer.flip();
+    }
+
+    SocketChannel channel() {
+        return this.channel;
+    }
+
+    LineSink sink() {
+        return this.sink;
+    }
+
+    /**
+     * Reads everything currently available into {@code buffer} and frames it.
+     *
+     * @param buffer the selector's reusable read buffer
+     * @return {@code false} if the peer closed the stream
+     * @throws IOException if reading fails
+     */
+    boolean read(ByteBuffer buffer) throws IOException {
+        while (!this.paused) {
+            buffer.clear();
+            int n = this.channel.read(buffer);
+            if (n < 0) {
+                return false;
+            }
+            if (n == 0) {
+                return true;
+            }
+            buffer.flip();
+            if (!this.frame(buffer)) {
+                this.updateInterest();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Frames the bytes of {@code buffer} into lines. If the sink refuses a
+     * line, the rest of the buffer is kept and the connection pauses.
+     *
+     * @return {@code false} if the connection paused
+     */
+    private boolean frame(ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if (b == '\n') {
+                int length = this.lineLength;
+                if (length > 0 && this.line[length - 1] == '\r') {
+                    length--;
+                }
+                this.lineLength = 0;
+                if (!this.sink.onLine(this.line, length)) {
+                    this.paused = true;
+                    this.unframed = buffer.hasRemaining()
+                            ? ByteBuffer.allocate(buffer.remaining()).put(buffer).flip()
+                            : NOTHING;
+                    return false;
+                }
+            } else {
+                if (this.lineLength == this.line.length) {
+                    byte[] grown = new byte[this.line.length * 2];
+                    System.arraycopy(this.line, 0, grown, 0, this.lineLength);
+                    this.line = grown;
+                }
+                this.line[this.lineLength++] = b;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Asks the selector thread to resume a paused connection. May be called
+     * from any thread.
+     */
+    void requestResume() {
+        this.loop.scheduleResume(this);
+    }
+
+    /**
+     * Resumes a paused connection if the sink accepts lines again: frames the
+     * kept bytes and reads from the socket again. Runs on the selector thread.
+     */
+    void resume() {
+        if (!this.paused || this.key == null || !this.key.isValid() || !this.sink.onResume()) {
+            return;
+        }
+        this.paused = false;
+        ByteBuffer kept = this.unframed;
+        this.unframed = NOTHING;
+        this.frame(kept);
+        this.updateInterest();
+    }
+
+    private void updateInterest() {
+        this.key.interestOps((this.paused ? 0 : SelectionKey.OP_READ)
+                | (this.writePending ? SelectionKey.OP_WRITE : 0));
+    }
+
+    /**
+     * Queues one encoded message for the selector thread. Never blocks.
+     *
+     * @param data the message bytes including the line terminator
+     * @throws IOException if the connection has been closed
+     */
+    void enqueue(byte[] data) throws IOException {
+        if (this.closeRequested || !this.channel.isOpen()) {
+            throw new IOException("Connection closed");
+        }
+        this.outbound.add(data);
+        this.outboundDepth.incrementAndGet();
+        this.scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (this.flushScheduled.compareAndSet(false, true)) {
+            this.batchStartNanos = System.nanoTime();
+            this.loop.scheduleFlush(this);
+        }
+    }
+
+    void attach(SelectionKey key) {
+        this.key = key;
+    }
+
+    /**
+     * Drains all queued messages into the write buffer and writes it with a
+     * single call. Runs on the selector thread, either after
+     * {@link #enqueue(byte[])} scheduled it or when the channel became
+     * writable again.
+     * <p>
+     * The scheduled flag is cleared on every call, also while a partial write
+     * is pending, so that messages queued from now on schedule another flush.
+     * </p>
+     *
+     * @throws IOException if writing fails
+     */
+    void flush() throws IOException {
+        this.flushScheduled.set(false);
+        if (this.key == null || !this.key.isValid()) {
+            return;
+        }
+        if (!this.writePending) {
+            this.pendingBatchStartNanos = this.batchStartNanos;
+            this.fillWriteBuffer();
+            if (!this.writeBuffer.hasRemaining()) {
+                if (this.closeRequested) {
+                    this.close();
+                }
+                return;
+            }
+        }
+        this.channel.write(this.writeBuffer);
+        if (this.writeBuffer.hasRemaining()) {
+            this.writePending = true;
+            this.updateInterest();
+            return;
+        }
+        if (this.writePending) {
+            this.writePending = false;
+            this.updateInterest();
+        }
+        long latency = System.nanoTime() - this.pendingBatchStartNanos;
+        this.lastFlushLatencyNanos = latency;
+        if (latency > this.maxFlushLatencyNanos) {
+            this.maxFlushLatencyNanos = latency;
+        }
+        this.flushCount++;
+        if (!this.outbound.isEmpty()) {
+            this.scheduleFlush();
+        } else if (this.closeRequested) {
+            this.close();
+        }
+    }
+
+    private void fillWriteBuffer() {
+        ByteBuffer buffer = this.writeBuffer;
+        buffer.clear();
+        byte[] next;
+        while ((next = this.outbound.peek()) != null) {
+            if (next.length > buffer.remaining()) {
+                if (buffer.position() > 0) {
+                    break;
+                }
+                buffer = ByteBuffer.allocateDirect(Math.max(next.length, buffer.capacity() * 2));
+                this.writeBuffer = buffer;
+            }
+            this.outbound.poll();
+            this.outboundDepth.decrementAndGet();
+            buffer.put(next);
+            this.messagesWritten++;
+        }
+        buffer.flip();
+    }
+
+    int outboundDepth() {
+        return this.outboundDepth.get();
+    }
+
+    long lastFlushLatencyNanos() {
+        return this.lastFlushLatencyNanos;
+    }
+
+    long maxFlushLatencyNanos() {
+        return this.maxFlushLatencyNanos;
+    }
+
+    long flushCount() {
+        return this.flushCount;
+    }
+
+    long messagesWritten() {
+        return this.messagesWritten;
+    }
+
+    /**
+     * Requests a graceful close: messages queued before this call are still
+     * flushed by the selector thread, then the channel is closed.
+     */
+    void closeGracefully() {
+        this.closeRequested = true;
+        this.loop.scheduleFlush(this);
+    }
+
+    void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,179 @@
+package de.uni_koblenz.ptsd.foxtrot.protocol;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Single selector thread that services the sockets of all
+ * {@link MazeGameProtocol} instances in the JVM.
+ * <p>
+ * Instead of one blocking reader thread per connection, every connection is
+ * registered with one {@link Selector}. Reads go through a single direct
+ * {@link ByteBuffer} owned by the loop, which is safe because only the loop
+ * thread ever touches it.
+ * </p>
+ *
+ * <p>
+ * The loop is also the dedicated writer for all connections: senders only
+ * queue their bytes and schedule a flush, and the loop writes each
+ * connection's pending messages in one batch per wake-up.
+ * </p>
+ */
+final class SelectorLoop implements Runnable {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private static SelectorLoop shared;
+
+    private final Selector selector;
+    private final Queue<NioConnection> pendingRegistrations = new ConcurrentLinkedQueue<>();
+    private final Queue<NioConnection> pendingFlushes = new ConcurrentLinkedQueue<>();
+    private final Queue<NioConnection> pendingResumes = new ConcurrentLinkedQueue<>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+
+    private SelectorLoop() throws IOException {
+        this.selector = Selector.open();
+    }
+
+    /**
+     * Returns the process-wide loop, starting its thread on first use.
+     *
+     * @return the shared selector loop
+     * @throws IOException if the selector cannot be opened
+     */
+    static synchronized SelectorLoop shared() throws IOException {
+        if (shared == null) {
+            SelectorLoop loop = new SelectorLoop();
+            Thread thread = new Thread(loop, "MazeGameProtocol Selector");
+            thread.setDaemon(true);
+            thread.start();
+            shared = loop;
+        }
+        return shared;
+    }
+
+    /**
+     * Hands a connected, non-blocking channel over to the loop.
+     *
+     * @param connection the connection to service
+     */
+    void register(NioConnection connection) {
+        this.pendingRegistrations.add(connection);
+        this.selector.wakeup();
+    }
+
+    /**
+     * Asks the loop to flush the connection's outbound queue on its next wake-up.
+     *
+     * @param connection the connection with pending output
+     */
+    void scheduleFlush(NioConnection connection) {
+        this.pendingFlushes.add(connection);
+        this.selector.wakeup();
+    }
+
+    /**
+     * Asks the loop to resume reading a paused connection on its next wake-up.
+     *
+     * @param connection the paused connection
+     */
+    void scheduleResume(NioConnection connection) {
+        this.pendingResumes.add(connection);
+        this.selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            try {
+                this.selector.select();
+                this.processRegistrations();
+                this.processFlushes();
+                this.processResumes();
+                Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    this.service(key);
+                }
+            } catch (IOException e) {
+                System.err.println("[MazeGameProtocol] Selector failure: " + e.getMessage());
+            } catch (Exception e) {
+                System.err.println("[MazeGameProtocol] Unexpected error while reading messages: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void processRegistrations() {
+        NioConnection connection;
+        while ((connection = this.pendingRegistrations.poll()) != null) {
+            try {
+                connection.attach(connection.channel().register(this.selector, SelectionKey.OP_READ, connection));
+                connection.flush();
+            } catch (ClosedChannelException e) {
+                connection.sink().onDisconnect(e);
+            } catch (IOException e) {
+                this.disconnect(connection.channel().keyFor(this.selector), connection, e);
+            }
+        }
+    }
+
+    private void processFlushes() {
+        NioConnection connection;
+        while ((connection = this.pendingFlushes.poll()) != null) {
+            SelectionKey key = connection.channel().keyFor(this.selector);
+            if (key == null) {
+                // Not registered yet; the registration flushes it.
+                continue;
+            }
+            try {
+                connection.flush();
+            } catch (IOException e) {
+                this.disconnect(key, connection, e);
+            }
+        }
+    }
+
+    private void processResumes() {
+        NioConnection connection;
+        while ((connection = this.pendingResumes.poll()) != null) {
+            connection.resume();
+        }
+    }
+
+    private void service(SelectionKey key) {
+        NioConnection connection = (NioConnection) key.attachment();
+        if (!key.isValid()) {
+            return;
+        }
+        try {
+            if (key.isReadable() && !connection.read(this.readBuffer)) {
+                this.disconnect(key, connection, null);
+                return;
+            }
+            if (key.isValid() && key.isWritable()) {
+                connection.flush();
+            }
+        } catch (IOException e) {
+            this.disconnect(key, connection, e);
+        }
+    }
+
+    private void disconnect(SelectionKey key, NioConnection connection, IOException cause) {
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            connection.close();
+        } catch (IOException ignored) {
+        }
+        connection.sink().onDisconnect(cause);
+    }
+}
@@ -0,0 +1,67 @@
+package de.uni_koblenz.ptsd.foxtrot.protocol;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.uni_koblenz.ptsd.foxtrot.commandhandler.CommandHandler;
+import de.uni_koblenz.ptsd.foxtrot.commandhandler.DispatchTuning;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.GameStatusModel;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.ModelExecutor;
+
+class MazeGameProtocolTest {
+
+    @Test
+    @DisplayName("Ready listeners run on the model thread after the model is ready")
+    void readyListenersSeeUpdatedModel() throws Exception {
+        GameStatusModel model = new GameStatusModel();
+        ModelExecutor executor = ModelExecutor.singleThread("MazeGameProtocolTest-Model");
+        CommandHandler handler = new CommandHandler(DispatchTuning.defaults(), executor, model);
+        List<String> seen = new CopyOnWriteArrayList<>();
+        CountDownLatch signals = new CountDownLatch(2);
+
+        try (ServerSocketChannel server = ServerSocketChannel.open();
+                MazeGameProtocol protocol = new MazeGameProtocol(handler)) {
+            server.bind(new InetSocketAddress("127.0.0.1", 0));
+            protocol.addReadyListener(() -> {
+                seen.add(executor.isModelThread() + "/" + model.isReady());
+                executor.execute(() -> model.setReady(false));
+                signals.countDown();
+            });
+            InetSocketAddress address = (InetSocketAddress) server.getLocalAddress();
+            protocol.connect(address.getHostString(), address.getPort());
+            try (Socket peer = server.accept().socket()) {
+                OutputStream out = peer.getOutputStream();
+                out.write("RDY.\r\n".getBytes());
+                out.flush();
+                assertTrue(awaitFirst(signals), "RDY. must notify the listeners");
+                out.write("INFO;453\r\n".getBytes());
+                out.flush();
+                assertTrue(signals.await(5, TimeUnit.SECONDS), "INFO;453 must notify the listeners");
+            }
+        } finally {
+            handler.stop();
+            executor.close();
+        }
+        assertEquals(List.of("true/true", "true/true"), seen);
+    }
+
+    private static boolean awaitFirst(CountDownLatch signals) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (signals.getCount() > 1 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        return signals.getCount() <= 1;
+    }
+}
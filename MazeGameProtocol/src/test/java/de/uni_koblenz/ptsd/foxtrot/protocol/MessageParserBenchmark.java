@@ -0,0 +1,62 @@
+package de.uni_koblenz.ptsd.foxtrot.protocol;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.uni_koblenz.ptsd.foxtrot.commandhandler.commands.Command;
+
+/**
+ * Compares the string-based {@link MessageParser#parse(String)} with the
+ * byte-level {@link MessageParser#parse(byte[], int)} on the messages a busy
+ * server sends most often.
+ * <p>
+ * Run with {@code -prof gc} to see the allocation rate per operation.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageParserBenchmark {
+
+    @Param({ "PPOS;12;34;17;e;mov", "BPOS;3;9;coffee;app", "PSCO;12;356", "RDY." })
+    public String message;
+
+    private final MessageParser parser = new MessageParser();
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        this.bytes = this.message.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public Command parseString() {
+        return this.parser.parse(this.message);
+    }
+
+    @Benchmark
+    public Command parseBytes() {
+        return this.parser.parse(this.bytes, this.bytes.length);
+    }
+
+    @Benchmark
+    public Command decodeAndParseString() {
+        // What the transport had to do before: build a String for every line first.
+        return this.parser.parse(new String(this.bytes, 0, this.bytes.length, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,159 @@
+package de.uni_koblenz.ptsd.foxtrot.protocol;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.uni_koblenz.ptsd.foxtrot.commandhandler.commands.Command;
+import de.uni_koblenz.ptsd.foxtrot.commandhandler.commands.InfoCommand;
+import de.uni_koblenz.ptsd.foxtrot.commandhandler.commands.MazeCommand;
+
+class MessageParserTest {
+
+    private static final List<String> VALID = List.of(
+            "PPOS;1;5;7;n;mov", "PPOS;12;0;0;E;TEL", "PPOS;-3;2;9;s;app", "PPOS;4;1;1;w;van", "PPOS;4;1;1;W;Trn",
+            "BPOS;3;4;gem;app", "BPOS;3;4;COFFEE;van", "BPOS;0;0;food;app", "BPOS;9;9;Trap;van",
+            "PSCO;2;150", "PSCO;2;-10", "RDY.", "RDY.;ignored", "JOIN;3;alice", "JOIN;3;;bob", "JOIN;3;näme",
+            "LEAV;7", "INFO;453", "INFO;+453", "INFO;-2147483648", "INFO;2147483647", "QUIT", "MSRV;2", "TERM",
+            "WELC;42", "WELC;42;extra;fields");
+
+    private static final List<String> MALFORMED = List.of(
+            "", " ", ";", ";;;;", "RDY", "RDY.x", "QUITTER", "TERM.", "INFOX;453", "info;453", "FOO;1",
+            "MAZE;5;5", "INFO", "INFO;", "INFO;;", "INFO;x", "INFO;-", "INFO;+", "INFO;--1", "INFO; 1",
+            "INFO;2147483648", "INFO;-2147483649", "INFO;99999999999999999999", "INFO;١٢",
+            "JOIN;3", "JOIN;3;", "JOIN;3;;", "JOIN;x;bob", "LEAV;1.5", "PSCO;1", "PSCO;1;", "PSCO;;2",
+            "PPOS;1;2;3;n", "PPOS;1;2;3;x;mov", "PPOS;1;2;3;nn;mov", "PPOS;1;2;3;n;jmp", "PPOS;1;2;3;;mov",
+            "PPOS;1;2;3;ſ;mov", "BPOS;1;2;gem", "BPOS;1;2;gems;app", "BPOS;1;2;gem;vanish",
+            "BPOS;1;2;coﬀee;app", "BPOS;a;2;gem;app");
+
+    @Test
+    @DisplayName("Byte and string parsing agree on every message type")
+    void byteParseMatchesStringParseOnValidMessages() {
+        MessageParser parser = new MessageParser();
+        for (String line : VALID) {
+            String expected = describe(parser.parse(line));
+            assertFalse(expected.equals("null"), "string path must accept " + line);
+            assertEquals(expected, describe(parseBytes(parser, line)), line);
+        }
+    }
+
+    @Test
+    @DisplayName("Byte and string parsing reject the same malformed messages")
+    void byteParseMatchesStringParseOnMalformedMessages() {
+        MessageParser parser = new MessageParser();
+        for (String line : MALFORMED) {
+            assertEquals(describe(parser.parse(line)), describe(parseBytes(parser, line)), line);
+        }
+    }
+
+    @Test
+    @DisplayName("Byte and string parsing agree on mutated messages")
+    void byteParseMatchesStringParseOnMutations() {
+        MessageParser parser = new MessageParser();
+        Random random = new Random(7);
+        String alphabet = ";-+0123456789nNeEsSwWaApPvV.x ä";
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder line = new StringBuilder(VALID.get(random.nextInt(VALID.size())));
+            for (int edits = 1 + random.nextInt(3); edits > 0; edits--) {
+                int at = random.nextInt(line.length() + 1);
+                switch (random.nextInt(3)) {
+                case 0 -> line.insert(at, alphabet.charAt(random.nextInt(alphabet.length())));
+                case 1 -> {
+                    if (at < line.length()) {
+                        line.deleteCharAt(at);
+                    }
+                }
+                default -> {
+                    if (at < line.length()) {
+                        line.setCharAt(at, alphabet.charAt(random.nextInt(alphabet.length())));
+                    }
+                }
+                }
+            }
+            String text = line.toString();
+            assertEquals(describe(parser.parse(text)), describe(parseBytes(parser, text)), text);
+        }
+    }
+
+    @Test
+    @DisplayName("A MAZE header with a non-positive size is rejected")
+    void beginMazeRejectsEmptyMaze() {
+        MessageParser parser = new MessageParser();
+        for (String header : List.of("MAZE;5;0", "MAZE;0;5", "MAZE;-1;5")) {
+            byte[] line = header.getBytes(StandardCharsets.US_ASCII);
+            assertFalse(parser.beginMaze(line, line.length), header);
+            assertFalse(parser.isCollectingMaze(), header);
+        }
+        byte[] info = "INFO;453".getBytes(StandardCharsets.US_ASCII);
+        assertTrue(parser.parse(info, info.length) instanceof InfoCommand);
+    }
+
+    @Test
+    @DisplayName("Maze rows are collected into a MazeCommand")
+    void acceptMazeRowCompletesMaze() {
+        MessageParser parser = new MessageParser();
+        byte[] header = "MAZE;3;2".getBytes(StandardCharsets.US_ASCII);
+        assertTrue(parser.beginMaze(header, header.length));
+        byte[] first = "#.~".getBytes(StandardCharsets.US_ASCII);
+        assertNull(parser.acceptMazeRow(first, first.length));
+        byte[] second = "..".getBytes(StandardCharsets.US_ASCII);
+        Command maze = parser.acceptMazeRow(second, second.length);
+        assertNotNull(maze);
+        assertTrue(maze instanceof MazeCommand);
+        assertFalse(parser.isCollectingMaze());
+    }
+
+    @Test
+    @DisplayName("A failing maze row does not leave the parser collecting")
+    void acceptMazeRowResetsOnError() {
+        MessageParser parser = new MessageParser();
+        byte[] header = "MAZE;3;2".getBytes(StandardCharsets.US_ASCII);
+        assertTrue(parser.beginMaze(header, header.length));
+        assertThrows(RuntimeException.class, () -> parser.acceptMazeRow(null, 3));
+        assertFalse(parser.isCollectingMaze());
+        assertThrows(IllegalStateException.class, () -> parser.acceptMazeRow(new byte[3], 3));
+    }
+
+    private static Command parseBytes(MessageParser parser, String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        byte[] buffer = new byte[bytes.length + 8];
+        System.arraycopy(bytes, 0, buffer, 0, bytes.length);
+        return parser.parse(buffer, bytes.length);
+    }
+
+    /**
+     * Renders a command as its class and field values, since the commands
+     * do not implement {@code equals}.
+     */
+    private static String describe(Command command) {
+        if (command == null) {
+            return "null";
+        }
+        List<String> fields = new ArrayList<>();
+        for (Field field : command.getClass().getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            try {
+                field.setAccessible(true);
+                fields.add(field.getName() + "=" + field.get(command));
+            } catch (ReflectiveOperationException e) {
+                throw new AssertionError(e);
+            }
+        }
+        return command.getClass().getSimpleName() + fields;
+    }
+}
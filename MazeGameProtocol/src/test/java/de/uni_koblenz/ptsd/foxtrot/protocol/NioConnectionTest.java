@@ -0,0 +1,140 @@
+package de.uni_koblenz.ptsd.foxtrot.protocol;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class NioConnectionTest {
+
+    private static final NioConnection.LineSink IGNORE = new NioConnection.LineSink() {
+        @Override
+        public boolean onLine(byte[] line, int length) {
+            return true;
+        }
+
+        @Override
+        public boolean onResume() {
+            return true;
+        }
+
+        @Override
+        public void onDisconnect(IOException cause) {
+        }
+    };
+
+    @Test
+    @DisplayName("Messages queued during a partial write are flushed once it completes")
+    void enqueueDuringPartialWrite() throws Exception {
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.setOption(StandardSocketOptions.SO_RCVBUF, 4096);
+            server.bind(new InetSocketAddress("127.0.0.1", 0));
+            SocketChannel client = SocketChannel.open();
+            client.setOption(StandardSocketOptions.SO_SNDBUF, 4096);
+            client.connect(server.getLocalAddress());
+            client.configureBlocking(false);
+            try (SocketChannel peer = server.accept(); client) {
+                NioConnection connection = new NioConnection(client, IGNORE, SelectorLoop.shared());
+                SelectorLoop.shared().register(connection);
+
+                // Far more than the socket buffers hold while the peer does not read.
+                byte[] large = new byte[4 * 1024 * 1024];
+                Arrays.fill(large, (byte) 'x');
+                connection.enqueue(large);
+                long deadline = System.nanoTime() + 5_000_000_000L;
+                while (connection.outboundDepth() > 0 && System.nanoTime() < deadline) {
+                    Thread.sleep(1);
+                }
+                assertEquals(0, connection.flushCount(), "The large message must still be partially written");
+
+                byte[] tail = "tail\r\n".getBytes();
+                connection.enqueue(tail);
+                // Let the flush scheduled by the enqueue run while the write is pending.
+                Thread.sleep(100);
+                connection.enqueue(tail);
+
+                peer.socket().setSoTimeout(10_000);
+                byte[] received = readExactly(peer.socket().getInputStream(), large.length + 2 * tail.length);
+                String end = new String(received, large.length, 2 * tail.length);
+                assertEquals("tail\r\ntail\r\n", end);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A refused line pauses reading until the sink asks to resume")
+    void refusedLinePausesReading() throws Exception {
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        boolean[] accepting = { false };
+        NioConnection.LineSink sink = new NioConnection.LineSink() {
+            @Override
+            public boolean onLine(byte[] line, int length) {
+                lines.add(new String(line, 0, length));
+                return accepting[0];
+            }
+
+            @Override
+            public boolean onResume() {
+                accepting[0] = true;
+                return true;
+            }
+
+            @Override
+            public void onDisconnect(IOException cause) {
+            }
+        };
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress("127.0.0.1", 0));
+            SocketChannel client = SocketChannel.open(server.getLocalAddress());
+            client.configureBlocking(false);
+            try (SocketChannel peer = server.accept(); client) {
+                NioConnection connection = new NioConnection(client, sink, SelectorLoop.shared());
+                SelectorLoop.shared().register(connection);
+                peer.socket().getOutputStream().write("a\r\nb\r\nc\r\n".getBytes());
+
+                awaitLines(lines, 1);
+                Thread.sleep(100);
+                assertEquals(List.of("a"), lines, "No line may be delivered while paused");
+
+                connection.requestResume();
+                peer.socket().getOutputStream().write("d\r\n".getBytes());
+                awaitLines(lines, 4);
+                assertEquals(List.of("a", "b", "c", "d"), lines);
+            }
+        }
+    }
+
+    private static void awaitLines(List<String> lines, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (lines.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(lines.size() >= count, "Expected " + count + " lines, got " + lines);
+    }
+
+    private static byte[] readExactly(InputStream in, int length) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length);
+        byte[] chunk = new byte[64 * 1024];
+        while (out.size() < length) {
+            int n = in.read(chunk, 0, Math.min(chunk.length, length - out.size()));
+            if (n < 0) {
+                break;
+            }
+            out.write(chunk, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
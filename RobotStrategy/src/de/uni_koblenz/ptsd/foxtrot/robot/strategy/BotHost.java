@@ -0,0 +1,329 @@
+package de.uni_koblenz.ptsd.foxtrot.robot.strategy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import de.uni_koblenz.ptsd.foxtrot.commandhandler.CommandHandler;
+import de.uni_koblenz.ptsd.foxtrot.commandhandler.DispatchTuning;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.GameStatusModel;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.MazeCache;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.ModelExecutor;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Player;
+import de.uni_koblenz.ptsd.foxtrot.protocol.MazeGameProtocol;
+import de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl.StrategyFactory;
+
+/**
+ * Headless entry point that runs many bot sessions in one JVM, e.g. to
+ * load-test a server from a single machine.
+ * <p>
+ * Every session owns its own {@link GameStatusModel}, {@link CommandHandler},
+ * {@link MazeGameProtocol} and {@link RobotRunner}, and its own model thread
+ * ({@link ModelExecutor#singleThread(ThreadFactory)}) on which the handler's
+ * commands and the runner's updates are applied, so the JavaFX toolkit is
+ * never started. The model thread, the handler worker, the runner and the
+ * session start-up all run on virtual threads; socket reads are serviced by
+ * the protocol's shared selector thread. All sessions share one
+ * {@link MazeCache} in the {@linkplain MazeCache#defaultDirectory() default
+ * directory}: sessions that receive the same maze together share one build of
+ * its distance table, and a maze stored by an earlier run is mapped from its
+ * file, whose pages all sessions share.
+ * </p>
+ *
+ * <h2>Usage</h2>
+ * <pre>{@code
+ * java ... BotHost <host> <port> <nicknamePattern> <count> <mode> [seconds]
+ * java ... BotHost localhost 51234 bot%03d 200 SMART_BALANCED 60
+ * }</pre>
+ * <p>
+ * The nickname pattern is passed to {@link String#format(String, Object...)}
+ * with the session index. The host prints the aggregate number of actions per
+ * second once per second until it is stopped or the optional duration ends.
+ * </p>
+ */
+public final class BotHost {
+    private static final Logger LOG = Logger.getLogger(BotHost.class.getName());
+    // Strong reference so the level set in main() is not lost to GC.
+    private static final Logger RUNNER_LOG = Logger.getLogger(RobotRunner.class.getName());
+
+    private static final int COMMAND_BATCH_SIZE = 512;
+    private static final long LOGIN_TIMEOUT_MS = 30_000;
+    private static final long LOGIN_POLL_MS = 20;
+
+    private final String host;
+    private final int port;
+    private final String nicknamePattern;
+    private final int count;
+    private final StrategyMode mode;
+    private final List<Session> sessions = new ArrayList<>();
+    private final MazeCache mazeCache = new MazeCache(MazeCache.defaultDirectory());
+    private final ThreadFactory sessionThreads = Thread.ofVirtual().name("BotHost-Session-", 0).factory();
+    private final ThreadFactory modelThreads = Thread.ofVirtual().name("BotHost-Model-", 0).factory();
+    private final ThreadFactory workerThreads = Thread.ofVirtual().name("CommandHandler-Worker-", 0).factory();
+    private final ThreadFactory runnerThreads = Thread.ofVirtual().name("RobotRunner-", 0).factory();
+
+    /**
+     * Creates a host for {@code count} sessions; nothing is started yet.
+     *
+     * @param host            the server host
+     * @param port            the server port
+     * @param nicknamePattern format pattern applied to the session index
+     * @param count           number of sessions to start
+     * @param mode            strategy every bot plays with; must not be {@link StrategyMode#OFF}
+     */
+    public BotHost(String host, int port, String nicknamePattern, int count, StrategyMode mode) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        if (mode == null || mode == StrategyMode.OFF) {
+            throw new IllegalArgumentException("A strategy mode other than OFF is required");
+        }
+        this.host = host;
+        this.port = port;
+        this.nicknamePattern = nicknamePattern;
+        this.count = count;
+        this.mode = mode;
+    }
+
+    /**
+     * Starts all sessions. Each one connects and logs in on its own virtual
+     * thread, so this method returns immediately.
+     */
+    public synchronized void start() {
+        for (int i = 0; i < this.count; i++) {
+            Session session = new Session(String.format(this.nicknamePattern, i));
+            this.sessions.add(session);
+            this.sessionThreads.newThread(session).start();
+        }
+        LOG.info(() -> "Started " + this.count + " sessions against " + this.host + ":" + this.port);
+    }
+
+    /**
+     * Disconnects all sessions.
+     */
+    public synchronized void stop() {
+        for (Session session : this.sessions) {
+            session.stop();
+        }
+    }
+
+    /**
+     * Returns the number of actions sent by all sessions so far.
+     *
+     * @return the aggregate action count
+     */
+    public synchronized long getActionCount() {
+        long total = 0;
+        for (Session session : this.sessions) {
+            total += session.actionCount();
+        }
+        return total;
+    }
+
+    /**
+     * Returns the mean time from a ready signal to the next action, averaged
+     * over all sessions that have sent at least one action.
+     *
+     * @return the mean ready-to-send latency in nanoseconds
+     */
+    public synchronized long getMeanReadyToSendNanos() {
+        long sum = 0;
+        int sessionsWithActions = 0;
+        for (Session session : this.sessions) {
+            RobotRunner runner = session.runner;
+            if (runner != null && runner.getActionCount() > 0) {
+                sum += runner.getMeanReadyToSendNanos();
+                sessionsWithActions++;
+            }
+        }
+        return sessionsWithActions == 0 ? 0 : sum / sessionsWithActions;
+    }
+
+    /**
+     * Returns the number of sessions whose robot is currently playing.
+     *
+     * @return the number of running robots
+     */
+    public synchronized int getRunningCount() {
+        int running = 0;
+        for (Session session : this.sessions) {
+            if (session.isRunning()) {
+                running++;
+            }
+        }
+        return running;
+    }
+
+    /**
+     * One bot: model, command handler, protocol and robot runner.
+     */
+    private final class Session implements Runnable {
+        private final String nickname;
+        private final GameStatusModel model = new GameStatusModel();
+        private volatile CommandHandler handler;
+        private volatile MazeGameProtocol protocol;
+        private volatile RobotRunner runner;
+        private volatile boolean stopped;
+
+        Session(String nickname) {
+            this.nickname = nickname;
+            this.model.setMazeCache(mazeCache);
+        }
+
+        @Override
+        public void run() {
+            try {
+                this.handler = new CommandHandler(DispatchTuning.batchedCoalescing(COMMAND_BATCH_SIZE),
+                        ModelExecutor.singleThread(modelThreads), this.model, workerThreads);
+                this.protocol = new MazeGameProtocol(this.handler);
+                this.protocol.connect(host, port);
+                this.protocol.sendHello(this.nickname);
+                this.protocol.sendMazeQuery();
+
+                Player me = this.awaitSelf();
+                if (me == null) {
+                    LOG.warning(() -> this.nickname + ": not logged in after " + LOGIN_TIMEOUT_MS + " ms");
+                    this.stop();
+                    return;
+                }
+                // The strategies' per-tick diagnostics of hundreds of bots would flood stdout.
+                Strategy strategy = StrategyFactory.create(mode, false);
+                synchronized (this) {
+                    if (this.stopped) {
+                        return;
+                    }
+                    this.runner = new RobotRunner(this.model, me, this.protocol, strategy,
+                            this.handler.getModelExecutor(), runnerThreads);
+                    this.runner.start();
+                }
+            } catch (IOException e) {
+                LOG.warning(() -> this.nickname + ": " + e.getMessage());
+                this.stop();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                this.stop();
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, this.nickname + ": session failed", e);
+                this.stop();
+            }
+        }
+
+        /**
+         * Polls the model until the server has welcomed this session and
+         * announced its player. The model is only read on its own thread.
+         */
+        private Player awaitSelf() throws InterruptedException {
+            ModelExecutor executor = this.handler.getModelExecutor();
+            long deadline = System.currentTimeMillis() + LOGIN_TIMEOUT_MS;
+            while (!this.stopped && System.currentTimeMillis() < deadline) {
+                CompletableFuture<Player> lookup = new CompletableFuture<>();
+                executor.execute(() -> {
+                    try {
+                        lookup.complete(this.findSelf());
+                    } catch (RuntimeException e) {
+                        lookup.completeExceptionally(e);
+                    }
+                });
+                try {
+                    Player player = lookup.get(Math.max(1, deadline - System.currentTimeMillis()),
+                            TimeUnit.MILLISECONDS);
+                    if (player != null) {
+                        return player;
+                    }
+                } catch (TimeoutException e) {
+                    return null;
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Reading the model failed", e.getCause());
+                }
+                Thread.sleep(LOGIN_POLL_MS);
+            }
+            return null;
+        }
+
+        // Runs on the model thread.
+        private Player findSelf() {
+            Integer id = this.model.clientIDProperty().getValue();
+            if (id == null || this.model.getPlayers() == null) {
+                return null;
+            }
+            return this.model.getPlayers().get(id);
+        }
+
+        synchronized void stop() {
+            this.stopped = true;
+            if (this.runner != null) {
+                this.runner.stop();
+            }
+            if (this.protocol != null) {
+                try {
+                    this.protocol.sendBye();
+                } catch (IOException ignored) {
+                }
+                try {
+                    this.protocol.close();
+                } catch (IOException e) {
+                    LOG.log(Level.FINE, "Closing " + this.nickname + " failed", e);
+                }
+            }
+            if (this.handler != null) {
+                this.handler.stop();
+                this.handler.getModelExecutor().close();
+            }
+        }
+
+        long actionCount() {
+            RobotRunner current = this.runner;
+            return current != null ? current.getActionCount() : 0;
+        }
+
+        boolean isRunning() {
+            RobotRunner current = this.runner;
+            return current != null && current.isRunning();
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 5) {
+            System.err.println("Usage: BotHost <host> <port> <nicknamePattern> <count> <mode> [seconds]");
+            System.exit(2);
+        }
+        String host = args[0];
+        int port = Integer.parseInt(args[1]);
+        String pattern = args[2];
+        int count = Integer.parseInt(args[3]);
+        StrategyMode mode = StrategyMode.valueOf(args[4]);
+        long seconds = args.length > 5 ? Long.parseLong(args[5]) : 0;
+
+        // Per-action logging of hundreds of runners would dominate the run.
+        RUNNER_LOG.setLevel(Level.WARNING);
+
+        BotHost botHost = new BotHost(host, port, pattern, count, mode);
+        Runtime.getRuntime().addShutdownHook(new Thread(botHost::stop, "BotHost-Shutdown"));
+        botHost.start();
+
+        long startNanos = System.nanoTime();
+        long lastNanos = startNanos;
+        long lastActions = 0;
+        while (seconds <= 0 || System.nanoTime() - startNanos < TimeUnit.SECONDS.toNanos(seconds)) {
+            Thread.sleep(1000);
+            long now = System.nanoTime();
+            long actions = botHost.getActionCount();
+            double perSecond = (actions - lastActions) * 1e9 / (now - lastNanos);
+            System.out.printf("[BotHost] running=%d/%d actions/s=%.1f total=%d ready->send=%.1f us%n",
+                    botHost.getRunningCount(), count, perSecond, actions, botHost.getMeanReadyToSendNanos() / 1e3);
+            lastNanos = now;
+            lastActions = actions;
+        }
+        long total = botHost.getActionCount();
+        double elapsed = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("[BotHost] done: %d actions in %.1f s (%.1f actions/s)%n", total, elapsed, total / elapsed);
+        System.exit(0);
+    }
+}
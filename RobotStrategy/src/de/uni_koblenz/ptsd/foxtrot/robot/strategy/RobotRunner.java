@@ -1,13 +1,15 @@
 package de.uni_koblenz.ptsd.foxtrot.robot.strategy;
 
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import javafx.application.Platform;
-import javafx.beans.value.ChangeListener;
-
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.GameStatusModel;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.ModelExecutor;
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Player;
 import de.uni_koblenz.ptsd.foxtrot.protocol.MazeGameProtocol;
 
@@ -15,12 +17,22 @@ import de.uni_koblenz.ptsd.foxtrot.protocol.MazeGameProtocol;
  * Orchestrates periodic decision making for the robot using a {@code Strategy}
  * and dispatches resulting {@code Action}s to the game protocol.
  * <p>
- * This runner is designed to be executed on a background thread. UI-facing work
- * is marshalled onto the JavaFX Application Thread via {@link javafx.application.Platform}.
+ * This runner is designed to be executed on a background thread. Model updates
+ * are marshalled onto the model thread via a {@link ModelExecutor}: the JavaFX
+ * Application Thread in the GUI, or a plain thread when running headless.
  * </p>
  * <h2>Threading</h2>
  * The runner itself is thread-safe. It avoids blocking the FX thread and uses
  * atomics/listeners to react to model changes.
+ *
+ * <h2>Ready signal</h2>
+ * The runner parks until the protocol reports that the server accepts the next
+ * action ({@link MazeGameProtocol#addReadyListener(Runnable)}). The listener
+ * runs on the model thread once the preceding updates have been applied and
+ * unparks the runner directly, so the next action is decided on the current
+ * model and sent right away instead of after a fixed delay.
+ * An optional pacing floor ({@link #setMinActionIntervalMs(long)}) limits the
+ * action rate. The time from the ready signal to the next send is recorded.
  */
 
 public final class RobotRunner implements Runnable {
@@ -29,24 +41,57 @@ public final class RobotRunner implements Runnable {
     private final GameStatusModel model;
     private final Player me;
     private final MazeGameProtocol protocol;
+    private final ModelExecutor executor;
+    private final ThreadFactory threadFactory;
+    private final AtomicLong actionsSent = new AtomicLong();
 
     private volatile Strategy strategy;
     private final AtomicBoolean running = new AtomicBoolean(false);
     private final AtomicBoolean readyPermitted = new AtomicBoolean(false);
     private final AtomicBoolean readyListenerRegistered = new AtomicBoolean(false);
-    private final ChangeListener<Boolean> readyListener;
-    private Thread thread;
+    private final Runnable readyListener = this::onReady;
+    private volatile Thread thread;
 
     private long actionDelayMs = 80;
+    private volatile long minActionIntervalNanos;
+    private long lastSendNanos;
+
+    // Ready-to-send latency: readyNanos is written by the model thread.
+    private volatile long readyNanos;
+    private volatile long lastReadyToSendNanos;
+    private volatile long maxReadyToSendNanos;
+    private final AtomicLong totalReadyToSendNanos = new AtomicLong();
     private Action lastLoggedAction;
     private long lastActionLogNanos;
 
     public RobotRunner(GameStatusModel model, Player me, MazeGameProtocol protocol, Strategy strategy) {
+        this(model, me, protocol, strategy, ModelExecutor.fx());
+    }
+
+    /**
+     * Creates a runner that applies its model updates with the given executor.
+     *
+     * @param executor the executor the command handler uses for this model
+     */
+    public RobotRunner(GameStatusModel model, Player me, MazeGameProtocol protocol, Strategy strategy,
+            ModelExecutor executor) {
+        this(model, me, protocol, strategy, executor, null);
+    }
+
+    /**
+     * Creates a runner whose decision loop runs on a thread from the given factory.
+     *
+     * @param executor      the executor the command handler uses for this model
+     * @param threadFactory creates the runner thread; {@code null} selects a platform daemon thread
+     */
+    public RobotRunner(GameStatusModel model, Player me, MazeGameProtocol protocol, Strategy strategy,
+            ModelExecutor executor, ThreadFactory threadFactory) {
+        this.executor = executor;
+        this.threadFactory = threadFactory;
         this.model = model;
         this.me = me;
         this.protocol = protocol;
         this.strategy = strategy;
-        this.readyListener = (obs, oldVal, newVal) -> this.readyPermitted.set(Boolean.TRUE.equals(newVal));
         registerReadyListener();
     }
 
@@ -61,8 +106,12 @@ public final class RobotRunner implements Runnable {
             LOG.log(Level.FINE, "Strategy reset failed before start", ex);
         }
         running.set(true);
-        thread = new Thread(this, "RobotRunner");
-        thread.setDaemon(true);
+        if (threadFactory != null) {
+            thread = threadFactory.newThread(this);
+        } else {
+            thread = new Thread(this, "RobotRunner");
+            thread.setDaemon(true);
+        }
         LOG.info(() -> "Robot runner thread starting with strategy " + strategy.getClass().getSimpleName()
                 + " for player " + me.getID());
         thread.start();
@@ -96,6 +145,53 @@ public final class RobotRunner implements Runnable {
         return running.get();
     }
 
+    /**
+     * Sets the minimum time between two actions. By default there is none and
+     * the next action is sent as soon as the server is ready.
+     *
+     * @param millis the pacing floor in milliseconds; {@code 0} disables it
+     */
+    public void setMinActionIntervalMs(long millis) {
+        this.minActionIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+    }
+
+    /**
+     * Returns the time between the most recent ready signal and the action sent in response.
+     *
+     * @return the latest ready-to-send latency in nanoseconds
+     */
+    public long getLastReadyToSendNanos() {
+        return lastReadyToSendNanos;
+    }
+
+    /**
+     * Returns the largest ready-to-send latency observed so far.
+     *
+     * @return the maximum latency in nanoseconds
+     */
+    public long getMaxReadyToSendNanos() {
+        return maxReadyToSendNanos;
+    }
+
+    /**
+     * Returns the mean ready-to-send latency over all actions sent.
+     *
+     * @return the mean latency in nanoseconds, or {@code 0} before the first action
+     */
+    public long getMeanReadyToSendNanos() {
+        long count = actionsSent.get();
+        return count == 0 ? 0 : totalReadyToSendNanos.get() / count;
+    }
+
+    /**
+     * Returns how many actions this runner has sent to the server.
+     *
+     * @return the number of STEP and TURN messages sent
+     */
+    public long getActionCount() {
+        return actionsSent.get();
+    }
+
     @Override
 
     public void run() {
@@ -107,7 +203,11 @@ public final class RobotRunner implements Runnable {
                 }
 
                 if (!readyPermitted.get()) {
-                    Thread.sleep(actionDelayMs);
+                    // Woken by onReady(); the timeout only bounds a missed signal.
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(actionDelayMs));
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
                     continue;
                 }
 
@@ -136,24 +236,23 @@ public final class RobotRunner implements Runnable {
                     continue;
                 }
 
+                pace();
                 switch (action) {
                     case STEP -> {
-                        protocol.sendStep();
                         consumeReady();
+                        protocol.sendStep();
                     }
                     case TURN_LEFT -> {
-                        protocol.sendTurn('l');
                         consumeReady();
+                        protocol.sendTurn('l');
                     }
                     case TURN_RIGHT -> {
-                        protocol.sendTurn('r');
                         consumeReady();
+                        protocol.sendTurn('r');
                     }
                     default -> {
                     }
                 }
-
-                Thread.sleep(actionDelayMs);
             }
         } catch (InterruptedException ignored) {
         } catch (Exception ex) {
@@ -162,45 +261,61 @@ public final class RobotRunner implements Runnable {
         }
     }
 
+    /** Waits until the pacing floor since the previous action has passed. */
+    private void pace() throws InterruptedException {
+        long floor = minActionIntervalNanos;
+        if (floor > 0 && lastSendNanos != 0) {
+            long wait = lastSendNanos + floor - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+        }
+    }
+
+    /**
+     * Called on the model thread when the server is ready for the next action
+     * and the model has caught up with it.
+     */
+    private void onReady() {
+        readyNanos = System.nanoTime();
+        readyPermitted.set(true);
+        Thread t = thread;
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    /**
+     * Marks the ready permit as used right before an action is sent, so that a
+     * {@code RDY.} for this action cannot be cleared by mistake afterwards.
+     */
     private void consumeReady() {
         readyPermitted.set(false);
-        Runnable task = () -> model.setReady(false);
-        if (Platform.isFxApplicationThread()) {
-            task.run();
-        } else {
-            Platform.runLater(task);
+        long now = System.nanoTime();
+        lastSendNanos = now;
+        long latency = now - readyNanos;
+        lastReadyToSendNanos = latency;
+        if (latency > maxReadyToSendNanos) {
+            maxReadyToSendNanos = latency;
         }
+        totalReadyToSendNanos.addAndGet(latency);
+        actionsSent.incrementAndGet();
+        executor.runOnModelThread(() -> model.setReady(false));
     }
 
     private void registerReadyListener() {
-        Runnable task = () -> {
-            readyPermitted.set(model.isReady());
-            if (!readyListenerRegistered.getAndSet(true)) {
-                model.readyProperty().addListener(readyListener);
-            }
-        };
-        if (Platform.isFxApplicationThread()) {
-            task.run();
-        } else {
-            Platform.runLater(task);
+        if (!readyListenerRegistered.getAndSet(true)) {
+            protocol.addReadyListener(readyListener);
+        }
+        if (model.isReady()) {
+            readyNanos = System.nanoTime();
+            readyPermitted.set(true);
         }
     }
 
     private void unregisterReadyListener() {
-        Runnable task = () -> {
-            if (readyListenerRegistered.getAndSet(false)) {
-                model.readyProperty().removeListener(readyListener);
-            }
-        };
-        if (Platform.isFxApplicationThread()) {
-            task.run();
-        } else {
-            Platform.runLater(task);
+        if (readyListenerRegistered.getAndSet(false)) {
+            protocol.removeReadyListener(readyListener);
         }
     }
 }
-
-
-
-
-
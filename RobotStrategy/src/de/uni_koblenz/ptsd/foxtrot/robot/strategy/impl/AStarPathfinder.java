@@ -1,12 +1,15 @@
 package de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.CellType;
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.Direction;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.DistanceTable;
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Maze;
 import de.uni_koblenz.ptsd.foxtrot.robot.strategy.Action;
 import de.uni_koblenz.ptsd.foxtrot.robot.strategy.GridPos;
@@ -14,18 +17,43 @@ import de.uni_koblenz.ptsd.foxtrot.robot.strategy.GridPos;
 /**
  * Grid-based path planner with a simple cost model for a mobile robot.
  *
- * <p>This planner computes a path on a 4-connected grid (N, E, S, W). It uses a
- * breadth-first search (BFS) on the grid to obtain the shortest path in number
- * of steps. The step sequence is then converted into concrete {@link Action}s,
- * inserting left/right turns as needed based on the robot's current facing.
+ * <p>This planner computes a path on a 4-connected grid (N, E, S, W). It runs
+ * A* over robot poses {@code (x, y, facing)}: from every pose the robot may turn
+ * left, turn right, or step forward into a walkable cell. Turns and steps are
+ * weighted with the cost model, so the returned {@link Action}s are a cheapest
+ * plan, not merely one with the fewest steps. This matters because every turn
+ * costs a server round-trip, just like a step.
  *
  * <p>The cost model assigns {@link #COST_STEP} to each forward step and
  * {@link #COST_TURN} to each 90° turn. The {@link #estimateCost(Pose, GridPos)}
  * method provides an admissible and fast estimate (Manhattan distance plus a
- * minimal number of turns) that can be used as a heuristic by callers.
+ * minimal number of turns). The grid search raises it with the ALT bound of
+ * {@link #LANDMARKS} {@link Landmarks} where that is larger: the triangle
+ * inequality over exact step counts from a few landmark cells sees the walls
+ * Manhattan distance ignores, so far fewer poses are expanded in winding mazes.
+ * The landmarks are picked on the first grid search after a new maze arrived.
  *
- * <p>Note: Although the name suggests A*, this implementation currently uses
- * BFS for path extraction and applies the cost model afterwards.
+ * <p>Queries whose goal is at least {@link #LONG_RANGE_DISTANCE} cells away
+ * (Manhattan) are answered on the maze's {@link JunctionGraph} instead, which
+ * replaces every one-cell-wide corridor by a single edge; see
+ * {@link #planOnGraph(JunctionGraph, Pose, GridPos, double)}. The graph is
+ * built in the background once {@link #prepare(Maze)} or the first such query
+ * sees a new maze; until it is done, those queries are searched on the grid.
+ * Plans and costs are the same as those of the grid search
+ * {@link #planGrid(Maze, Pose, GridPos, double)}.
+ *
+ * <p>The previous planner, a BFS on cells that inserts turns afterwards, is kept
+ * as {@link #planBfs(Maze, Pose, GridPos)} for comparison in tests and benchmarks.
+ *
+ * <p>Both searches keep their visited set, parents and queue in the calling
+ * thread's {@link SearchWorkspace}, so repeated planning does not allocate per
+ * search; only the returned {@link Result} is created.
+ *
+ * <p>To evaluate many goals from one pose, {@link #distanceField(Maze, Pose)}
+ * searches once without a goal and returns a {@link DistanceField} from which
+ * the cost and plan to each goal are read. Conversely,
+ * {@link #reverseDistanceField(Maze, GridPos)} searches backwards from one goal
+ * and returns a {@link ReverseDistanceField} with the cost from every pose.
  */
 final class AStarPathfinder {
 
@@ -56,27 +84,51 @@ final class AStarPathfinder {
 
     /** 4-neighborhood step deltas in order N, E, S, W. */
     private static final int[][] DELTAS = new int[][] { { 0, -1 }, { 1, 0 }, { 0, 1 }, { -1, 0 } };
-    /** Directions in the same order as {@link #DELTAS}. */
-    private static final Direction[] DIRECTIONS = new Direction[] {
-            Direction.N, Direction.E, Direction.S, Direction.W };
 
-    /**
-     * Internal BFS node used to reconstruct the shortest step sequence.
-     * Each node stores its grid position, the parent node, and the direction
-     * of the step taken from the parent to this node.
+    /*
+     * The search works in integer half-units so that both costs are exact:
+     * a step costs 2, a turn costs 1.
      */
-    private static final class Node {
-        final int x;
-        final int y;
-        final Node parent;
-        final Direction step;
+    private static final int UNITS_STEP = 2;
+    private static final int UNITS_TURN = 1;
+    private static final double UNIT = COST_TURN;
 
-        Node(int x, int y, Node parent, Direction step) {
-            this.x = x;
-            this.y = y;
-            this.parent = parent;
-            this.step = step;
-        }
+    /** Manhattan distance from which {@link #plan(Maze, Pose, GridPos, double)} uses the junction graph. */
+    static final int LONG_RANGE_DISTANCE = 16;
+
+    /** Number of nodes expanded by the most recent search. */
+    private int lastExpansions;
+
+    /** Junction graph of {@link #graphMaze}, built in the background; rebuilt when another maze arrives. */
+    private CompletableFuture<JunctionGraph> graph;
+    private Maze graphMaze;
+
+    /** Number of landmarks picked per maze for the ALT heuristic of the grid search. */
+    static final int LANDMARKS = 8;
+
+    /** Whether the grid search uses the ALT heuristic; without, Manhattan distance only. */
+    private final boolean useLandmarks;
+    /** Landmarks of the maze planned on last; picked anew when another maze arrives. */
+    private Landmarks landmarks;
+    /** Landmarks bounding the running grid search, or {@code null} if it uses Manhattan distance only. */
+    private Landmarks searchLandmarks;
+    /** Landmark distances of the running grid search's goal. */
+    private final int[] goalDistances = new int[LANDMARKS];
+
+    /** Creates a planner whose grid search uses the ALT heuristic. */
+    AStarPathfinder() {
+        this(true);
+    }
+
+    /**
+     * Creates a planner.
+     *
+     * @param useLandmarks whether the grid search uses the ALT heuristic; if
+     *                     {@code false} it uses Manhattan distance only, as a
+     *                     baseline for tests and benchmarks
+     */
+    AStarPathfinder(boolean useLandmarks) {
+        this.useLandmarks = useLandmarks;
     }
 
     /**
@@ -95,11 +147,16 @@ final class AStarPathfinder {
     /**
      * Plans a path from {@code start} to {@code goal} honoring a cost cap.
      *
-     * <p>A BFS produces the shortest sequence of forward steps (if any). The method
-     * then inserts the minimal set of turns to follow that sequence starting from
-     * {@code start.facing()}. If the resulting total {@linkplain #costOf(List) cost}
-     * exceeds {@code costCap}, the returned result has {@code success = false} and
-     * an empty action list (the {@code cost} still reflects the found plan).
+     * <p>A* over poses yields a plan of minimal total {@linkplain #costOf(List) cost},
+     * counting both steps and turns from {@code start.facing()}. The goal is reached
+     * in any facing. If the cost exceeds {@code costCap}, the returned result has
+     * {@code success = false} and an empty action list (the {@code cost} still
+     * reflects the found plan). As before, a start on the goal cell yields
+     * {@link Result#EMPTY}.
+     *
+     * <p>Long-range queries are searched on the maze's {@link JunctionGraph} if
+     * it is built and {@linkplain JunctionGraph#contracts() contracts} the maze,
+     * all others on the grid.
      *
      * @param maze    the environment grid
      * @param start   start pose
@@ -108,17 +165,644 @@ final class AStarPathfinder {
      * @return planning {@link Result}
      */
     Result plan(Maze maze, Pose start, GridPos goal, double costCap) {
+        if (maze != null && start != null && goal != null
+                && Math.abs(goal.x() - start.x()) + Math.abs(goal.y() - start.y()) >= LONG_RANGE_DISTANCE) {
+            JunctionGraph junctions = builtJunctionGraph(maze);
+            if (junctions != null && junctions.contracts()) {
+                return planOnGraph(junctions, start, goal, costCap);
+            }
+        }
+        return planGrid(maze, start, goal, costCap);
+    }
+
+    /**
+     * Plans with A* over the poses of every grid cell, regardless of the
+     * distance. This is what {@link #plan(Maze, Pose, GridPos, double)} does for
+     * short-range queries.
+     *
+     * @param maze    the environment grid
+     * @param start   start pose
+     * @param goal    goal cell
+     * @param costCap upper bound on acceptable total cost
+     * @return planning {@link Result}
+     */
+    Result planGrid(Maze maze, Pose start, GridPos goal, double costCap) {
+        SearchWorkspace ws = SearchWorkspace.current();
+        int goalState = search(maze, start, goal, ws);
+        if (goalState < 0) {
+            return Result.EMPTY;
+        }
+        return toResult(ws, goalState, costCap);
+    }
+
+    /**
+     * Runs the A* search and leaves costs and parents in {@code ws}. Allocates
+     * nothing once the workspace has grown to the maze size.
+     *
+     * @return the pose index {@code (y * width + x) * 4 + facing} at which the goal
+     *         was reached, or {@code -1} if there is no plan
+     */
+    int search(Maze maze, Pose start, GridPos goal, SearchWorkspace ws) {
+        lastExpansions = 0;
+        if (maze == null || start == null || goal == null) {
+            return -1;
+        }
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+        if (!inBounds(start.x(), start.y(), width, height) || !inBounds(goal.x(), goal.y(), width, height)
+                || (start.x() == goal.x() && start.y() == goal.y()) || !isWalkable(goal.x(), goal.y(), maze)) {
+            return -1;
+        }
+
+        int goalX = goal.x();
+        int goalY = goal.y();
+        Landmarks alt = useLandmarks ? landmarks(maze) : null;
+        searchLandmarks = (alt != null && alt.load(goalY * width + goalX, goalDistances)) ? alt : null;
+        ws.begin(width * height * 4);
+
+        int startDir = index((start.facing() != null) ? start.facing() : Direction.N);
+        int startState = (start.y() * width + start.x()) * 4 + startDir;
+        ws.visit(startState, 0, -1);
+        ws.push(estimate(startState, start.x(), start.y(), goalX, goalY), startState);
+
+        int expansions = 0;
+        while (!ws.heapEmpty()) {
+            long top = ws.pop();
+            int state = (int) top;
+            int cell = state >> 2;
+            int dir = state & 3;
+            int x = cell % width;
+            int y = cell / width;
+            int cost = ws.cost(state);
+            if ((int) (top >>> 32) > cost + estimate(state, x, y, goalX, goalY)) {
+                continue; // stale entry, a cheaper path to this pose was found later
+            }
+            expansions++;
+            if (x == goalX && y == goalY) {
+                lastExpansions = expansions;
+                return state;
+            }
+
+            int base = cell * 4;
+            relax(ws, state, base + ((dir + 1) & 3), cost + UNITS_TURN, x, y, goalX, goalY);
+            relax(ws, state, base + ((dir + 3) & 3), cost + UNITS_TURN, x, y, goalX, goalY);
+            int nx = x + DELTAS[dir][0];
+            int ny = y + DELTAS[dir][1];
+            if (inBounds(nx, ny, width, height) && isWalkable(nx, ny, maze)) {
+                relax(ws, state, (ny * width + nx) * 4 + dir, cost + UNITS_STEP, nx, ny, goalX, goalY);
+            }
+        }
+        lastExpansions = expansions;
+        return -1;
+    }
+
+    private void relax(SearchWorkspace ws, int from, int to, int cost, int x, int y, int goalX, int goalY) {
+        if (cost < ws.cost(to)) {
+            ws.visit(to, cost, from);
+            ws.push(cost + estimate(to, x, y, goalX, goalY), to);
+        }
+    }
+
+    /**
+     * Heuristic of the grid search for pose {@code state} at {@code (x, y)}: the
+     * larger of {@link #heuristic(int, int, int, int, int)} and the landmark
+     * bound on the steps. Both are consistent, so their maximum is as well.
+     */
+    private int estimate(int state, int x, int y, int goalX, int goalY) {
+        int manhattan = heuristic(x, y, state & 3, goalX, goalY);
+        Landmarks alt = searchLandmarks;
+        return (alt == null) ? manhattan : Math.max(manhattan, alt.bound(state >> 2, goalDistances) * UNITS_STEP);
+    }
+
+    /**
+     * Returns the landmarks of {@code maze}, picking them if the maze differs
+     * from the one planned on last.
+     *
+     * @param maze the maze
+     * @return its landmarks
+     */
+    Landmarks landmarks(Maze maze) {
+        Landmarks current = this.landmarks;
+        if (current == null || current.maze() != maze) {
+            current = Landmarks.build(maze, LANDMARKS);
+            this.landmarks = current;
+        }
+        return current;
+    }
+
+    /**
+     * Starts building the junction graph of {@code maze} on the common fork/join
+     * pool if the maze differs from the one planned on last. Called when a maze
+     * arrives, so long-range plans need not wait for the graph.
+     *
+     * @param maze the maze
+     */
+    void prepare(Maze maze) {
+        if (maze != this.graphMaze) {
+            this.graphMaze = maze;
+            this.graph = CompletableFuture.supplyAsync(() -> new JunctionGraph(maze), ForkJoinPool.commonPool());
+        }
+    }
+
+    /**
+     * Returns the junction graph of {@code maze}, waiting for its build if it is
+     * still running.
+     *
+     * @param maze the maze
+     * @return its junction graph
+     */
+    JunctionGraph junctionGraph(Maze maze) {
+        prepare(maze);
+        return this.graph.join();
+    }
+
+    /**
+     * Returns the junction graph of {@code maze} if its build is done, otherwise
+     * {@code null}; starts the build if the maze is new.
+     */
+    private JunctionGraph builtJunctionGraph(Maze maze) {
+        prepare(maze);
+        CompletableFuture<JunctionGraph> current = this.graph;
+        return (current.isDone() && !current.isCompletedExceptionally()) ? current.join() : null;
+    }
+
+    /**
+     * Plans a path from {@code start} to {@code goal} with A* on a junction graph.
+     *
+     * <p>The search runs over {@code (node, facing)} states with the same costs
+     * and heuristic as {@link #planGrid(Maze, Pose, GridPos, double)}: a node may
+     * turn in place or leave along the corridor it faces, which costs the
+     * corridor's steps and bends at once. A start inside a corridor is connected
+     * to the two nodes at its ends, a goal inside a corridor to the two ports
+     * leading to it; a start and goal on the same corridor are also connected
+     * directly. The chosen path is then expanded back to actions by walking its
+     * corridors. A start on a blocked cell is planned on the grid.
+     *
+     * @param graph   junction graph of the maze
+     * @param start   start pose
+     * @param goal    goal cell
+     * @param costCap upper bound on acceptable total cost
+     * @return planning {@link Result}, with the same cost as the grid search
+     */
+    Result planOnGraph(JunctionGraph graph, Pose start, GridPos goal, double costCap) {
+        lastExpansions = 0;
+        Maze maze = graph.maze();
+        if (start == null || goal == null) {
+            return Result.EMPTY;
+        }
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+        if (!inBounds(start.x(), start.y(), width, height) || !inBounds(goal.x(), goal.y(), width, height)
+                || (start.x() == goal.x() && start.y() == goal.y()) || !isWalkable(goal.x(), goal.y(), maze)) {
+            return Result.EMPTY;
+        }
+        if (!isWalkable(start.x(), start.y(), maze)) {
+            return planGrid(maze, start, goal, costCap);
+        }
+
+        int goalX = goal.x();
+        int goalY = goal.y();
+        int startCell = start.y() * width + start.x();
+        int goalCell = goalY * width + goalX;
+        int startDir = index((start.facing() != null) ? start.facing() : Direction.N);
+        int goalNode = graph.nodeAt(goalCell);
+        // The goal is a virtual state after all node states.
+        int goalState = graph.nodeCount() * 4;
+        SearchWorkspace ws = SearchWorkspace.current();
+        ws.begin(goalState + 1);
+
+        // A goal inside a corridor is reached from the ports at both of its ends.
+        int goalPortA = -1;
+        int goalCostA = 0;
+        int goalPortB = -1;
+        int goalCostB = 0;
+        if (goalNode < 0) {
+            for (int d = 0; d < 4; d++) {
+                if (graph.neighbor(goalCell, d) < 0) {
+                    continue;
+                }
+                long walk = graph.walk(goalCell, d, -1);
+                int port = graph.nodeAt(JunctionGraph.endCell(walk)) * 4 + ((JunctionGraph.endFacing(walk) + 2) & 3);
+                if (goalPortA < 0) {
+                    goalPortA = port;
+                    goalCostA = JunctionGraph.cost(walk);
+                } else {
+                    goalPortB = port;
+                    goalCostB = JunctionGraph.cost(walk);
+                }
+            }
+        }
+
+        // A start inside a corridor reaches the nodes at both of its ends, or the goal on the way.
+        int startNode = graph.nodeAt(startCell);
+        if (startNode >= 0) {
+            int state = startNode * 4 + startDir;
+            ws.visit(state, 0, -1);
+            ws.push(heuristic(start.x(), start.y(), startDir, goalX, goalY), state);
+        } else {
+            for (int d = 0; d < 4; d++) {
+                if (graph.neighbor(startCell, d) < 0) {
+                    continue;
+                }
+                int delta = (d - startDir) & 3;
+                long walk = graph.walk(startCell, d, goalCell);
+                int cost = Math.min(delta, 4 - delta) * UNITS_TURN + JunctionGraph.cost(walk);
+                int end = JunctionGraph.endCell(walk);
+                int state = (end == goalCell) ? goalState : graph.nodeAt(end) * 4 + JunctionGraph.endFacing(walk);
+                relaxGraph(graph, ws, -2 - d, state, cost, goalState, goalX, goalY);
+            }
+        }
+
+        int expansions = 0;
+        int reached = -1;
+        while (!ws.heapEmpty()) {
+            long top = ws.pop();
+            int state = (int) top;
+            int cost = ws.cost(state);
+            if (state == goalState) {
+                reached = state;
+                break;
+            }
+            int node = state >> 2;
+            int dir = state & 3;
+            int cell = graph.cellOf(node);
+            int x = cell % width;
+            int y = cell / width;
+            if ((int) (top >>> 32) > cost + heuristic(x, y, dir, goalX, goalY)) {
+                continue; // stale entry
+            }
+            expansions++;
+            if (node == goalNode) {
+                reached = state;
+                break;
+            }
+            int base = node * 4;
+            relaxGraph(graph, ws, state, base + ((dir + 1) & 3), cost + UNITS_TURN, goalState, goalX, goalY);
+            relaxGraph(graph, ws, state, base + ((dir + 3) & 3), cost + UNITS_TURN, goalState, goalX, goalY);
+            // The state index is also the port index of the corridor ahead.
+            int target = graph.target(state);
+            if (target >= 0) {
+                relaxGraph(graph, ws, state, target * 4 + graph.arrival(state), cost + graph.cost(state), goalState,
+                        goalX, goalY);
+            }
+            if (state == goalPortA) {
+                relaxGraph(graph, ws, state, goalState, cost + goalCostA, goalState, goalX, goalY);
+            } else if (state == goalPortB) {
+                relaxGraph(graph, ws, state, goalState, cost + goalCostB, goalState, goalX, goalY);
+            }
+        }
+        lastExpansions = expansions;
+        if (reached < 0) {
+            return Result.EMPTY;
+        }
+
+        double cost = ws.cost(reached) * UNIT;
+        if (cost > costCap) {
+            return new Result(List.of(), cost, false);
+        }
+        return new Result(List.copyOf(expand(graph, ws, reached, startCell, startDir, goalCell, goalState)), cost,
+                true);
+    }
+
+    private static void relaxGraph(JunctionGraph graph, SearchWorkspace ws, int from, int to, int cost, int goalState,
+            int goalX, int goalY) {
+        if (cost < ws.cost(to)) {
+            ws.visit(to, cost, from);
+            int estimate = 0;
+            if (to != goalState) {
+                int cell = graph.cellOf(to >> 2);
+                int width = graph.maze().getWidth();
+                estimate = heuristic(cell % width, cell / width, to & 3, goalX, goalY);
+            }
+            ws.push(cost + estimate, to);
+        }
+    }
+
+    /**
+     * Expands the state chain of a graph search into actions. Parents below
+     * {@code -1} encode a start inside a corridor that first walks in direction
+     * {@code -2 - parent}.
+     */
+    private static List<Action> expand(JunctionGraph graph, SearchWorkspace ws, int reached, int startCell, int startDir,
+            int goalCell, int goalState) {
+        int length = 0;
+        for (int state = reached; state >= 0; state = ws.parent(state)) {
+            length++;
+        }
+        int[] chain = new int[length];
+        for (int state = reached, i = length - 1; state >= 0; state = ws.parent(state), i--) {
+            chain[i] = state;
+        }
+
+        ArrayList<Action> actions = new ArrayList<>();
+        int facing = startDir;
+        int code = ws.parent(chain[0]);
+        if (code <= -2) {
+            facing = walkActions(graph, startCell, -2 - code, goalCell, facing, actions);
+        }
+        for (int i = 1; i < length; i++) {
+            int previous = chain[i - 1];
+            int state = chain[i];
+            int from = graph.cellOf(previous >> 2);
+            if (state == goalState) {
+                facing = walkActions(graph, from, previous & 3, goalCell, facing, actions);
+            } else if ((previous >> 2) == (state >> 2)) {
+                actions.add(actionBetween(previous, state));
+                facing = state & 3;
+            } else {
+                facing = walkActions(graph, from, previous & 3, -1, facing, actions);
+            }
+        }
+        return actions;
+    }
+
+    /**
+     * Appends the actions for {@link JunctionGraph#walk(int, int, int)} from
+     * {@code cell} in direction {@code dir}, turning first if needed.
+     *
+     * @return the facing on arrival
+     */
+    private static int walkActions(JunctionGraph graph, int cell, int dir, int stopCell, int facing,
+            List<Action> actions) {
+        turn(facing, dir, actions);
+        actions.add(Action.STEP);
+        facing = dir;
+        int current = graph.neighbor(cell, dir);
+        while (current != stopCell && graph.nodeAt(current) < 0) {
+            int next = graph.onward(current, facing);
+            turn(facing, next, actions);
+            actions.add(Action.STEP);
+            facing = next;
+            current = graph.neighbor(current, next);
+        }
+        return facing;
+    }
+
+    /** Appends the fewest turns from direction index {@code from} to {@code to}. */
+    private static void turn(int from, int to, List<Action> actions) {
+        int delta = (to - from) & 3;
+        if (delta == 3) {
+            actions.add(Action.TURN_LEFT);
+        } else {
+            for (int i = 0; i < delta; i++) {
+                actions.add(Action.TURN_RIGHT);
+            }
+        }
+    }
+
+    /** Walks the parent chain back to the start and converts pose changes into actions. */
+    private static Result toResult(SearchWorkspace ws, int goalState, double costCap) {
+        double cost = ws.cost(goalState) * UNIT;
+        if (cost > costCap) {
+            return new Result(List.of(), cost, false);
+        }
+        ArrayList<Action> actions = new ArrayList<>();
+        for (int state = goalState; ws.parent(state) >= 0; state = ws.parent(state)) {
+            actions.add(actionBetween(ws.parent(state), state));
+        }
+        Collections.reverse(actions);
+        return new Result(List.copyOf(actions), cost, true);
+    }
+
+    /** The action that leads from pose index {@code previous} to its successor {@code state}. */
+    static Action actionBetween(int previous, int state) {
+        if ((previous >> 2) != (state >> 2)) {
+            return Action.STEP;
+        }
+        return (((previous + 1) & 3) == (state & 3)) ? Action.TURN_RIGHT : Action.TURN_LEFT;
+    }
+
+    /**
+     * Computes the cheapest cost from {@code start} to every reachable pose in one
+     * search. Use this instead of repeated {@link #plan(Maze, Pose, GridPos)} calls
+     * when several goals are evaluated from the same pose.
+     *
+     * @param maze  the environment grid
+     * @param start start pose
+     * @return the distance field, or {@code null} if the maze or the start pose is
+     *         missing or the start lies outside the maze
+     * @see #distanceField(Maze, Pose, List)
+     */
+    DistanceField distanceField(Maze maze, Pose start) {
+        return distanceField(maze, start, null);
+    }
+
+    /**
+     * Computes a distance field from {@code start} that is exact at least for the
+     * given goals. The search stops as soon as every goal cell has been reached
+     * in its cheapest facing, so nearby goals do not pay for flooding the whole
+     * maze. Cells that were not settled by then may report a higher cost than
+     * their cheapest one, or none.
+     *
+     * <p>The search is Dijkstra over the same poses and costs as
+     * {@link #plan(Maze, Pose, GridPos, double)}, i.e. A* without a heuristic. The
+     * open list and the goal marks live in the calling thread's
+     * {@link SearchWorkspace}; the costs and parents are stored in arrays owned by
+     * the returned field so that it survives later searches. They are taken from
+     * the fields {@linkplain DistanceField#release() released} on this thread when
+     * possible.
+     *
+     * @param maze  the environment grid
+     * @param start start pose
+     * @param goals cells whose costs must be exact; {@code null} for the full field
+     * @return the distance field, or {@code null} if the maze or the start pose is
+     *         missing or the start lies outside the maze
+     */
+    DistanceField distanceField(Maze maze, Pose start, List<GridPos> goals) {
+        lastExpansions = 0;
+        if (maze == null || start == null) {
+            return null;
+        }
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+        if (!inBounds(start.x(), start.y(), width, height)) {
+            return null;
+        }
+
+        SearchWorkspace ws = SearchWorkspace.current();
+        ws.begin(width * height);
+        // Pending goal cells are marked in the workspace with cost 0, settled ones with 1.
+        int pending = Integer.MAX_VALUE;
+        if (goals != null) {
+            pending = 0;
+            for (GridPos goal : goals) {
+                if (goal != null && inBounds(goal.x(), goal.y(), width, height)
+                        && isWalkable(goal.x(), goal.y(), maze)) {
+                    int cell = goal.y() * width + goal.x();
+                    if (!ws.visited(cell)) {
+                        ws.visit(cell, 0, -1);
+                        pending++;
+                    }
+                }
+            }
+        }
+
+        int states = width * height * 4;
+        int[] cost = ws.takeFieldCost(states);
+        int[] parent = ws.takeFieldParent(states);
+        Arrays.fill(cost, 0, states, Integer.MAX_VALUE);
+
+        int startDir = index((start.facing() != null) ? start.facing() : Direction.N);
+        int startState = (start.y() * width + start.x()) * 4 + startDir;
+        cost[startState] = 0;
+        parent[startState] = -1;
+        ws.push(0, startState);
+
+        int expansions = 0;
+        while (pending > 0 && !ws.heapEmpty()) {
+            long top = ws.pop();
+            int state = (int) top;
+            int stateCost = cost[state];
+            if ((int) (top >>> 32) > stateCost) {
+                continue; // stale entry
+            }
+            expansions++;
+            int cell = state >> 2;
+            if (ws.cost(cell) == 0) {
+                ws.visit(cell, 1, -1);
+                pending--;
+            }
+            int dir = state & 3;
+            int base = cell * 4;
+            settle(ws, cost, parent, state, base + ((dir + 1) & 3), stateCost + UNITS_TURN);
+            settle(ws, cost, parent, state, base + ((dir + 3) & 3), stateCost + UNITS_TURN);
+            int nx = cell % width + DELTAS[dir][0];
+            int ny = cell / width + DELTAS[dir][1];
+            if (inBounds(nx, ny, width, height) && isWalkable(nx, ny, maze)) {
+                settle(ws, cost, parent, state, (ny * width + nx) * 4 + dir, stateCost + UNITS_STEP);
+            }
+        }
+        lastExpansions = expansions;
+        return new DistanceField(width, height, startState, cost, parent, UNIT);
+    }
+
+    /**
+     * Computes the cheapest cost from every pose to {@code goal} in one search.
+     * Use this when the arrival times of several players at the same goal are
+     * needed.
+     *
+     * <p>The search is Dijkstra over the reversed moves: it starts with cost 0 in
+     * all four facings of the goal and follows turns and steps backwards. A step
+     * from a cell into the walkable cell ahead becomes an edge from that cell back
+     * to the one behind it.
+     *
+     * @param maze the environment grid
+     * @param goal goal cell
+     * @return the reverse field, or {@code null} if the maze or the goal is missing,
+     *         or the goal lies outside the maze or is not walkable
+     */
+    ReverseDistanceField reverseDistanceField(Maze maze, GridPos goal) {
+        lastExpansions = 0;
+        if (maze == null || goal == null) {
+            return null;
+        }
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+        if (!inBounds(goal.x(), goal.y(), width, height) || !isWalkable(goal.x(), goal.y(), maze)) {
+            return null;
+        }
+
+        int[] cost = new int[width * height * 4];
+        Arrays.fill(cost, Integer.MAX_VALUE);
+        SearchWorkspace ws = SearchWorkspace.current();
+        ws.begin(0);
+        int goalCell = goal.y() * width + goal.x();
+        for (int dir = 0; dir < 4; dir++) {
+            cost[goalCell * 4 + dir] = 0;
+            ws.push(0, goalCell * 4 + dir);
+        }
+
+        int expansions = 0;
+        while (!ws.heapEmpty()) {
+            long top = ws.pop();
+            int state = (int) top;
+            int stateCost = cost[state];
+            if ((int) (top >>> 32) > stateCost) {
+                continue; // stale entry
+            }
+            expansions++;
+            int cell = state >> 2;
+            int dir = state & 3;
+            int base = cell * 4;
+            settleReverse(ws, cost, base + ((dir + 1) & 3), stateCost + UNITS_TURN);
+            settleReverse(ws, cost, base + ((dir + 3) & 3), stateCost + UNITS_TURN);
+            int x = cell % width;
+            int y = cell / width;
+            // Only a walkable cell can be stepped into from the cell behind it.
+            if (!isWalkable(x, y, maze)) {
+                continue;
+            }
+            int px = x - DELTAS[dir][0];
+            int py = y - DELTAS[dir][1];
+            if (inBounds(px, py, width, height)) {
+                settleReverse(ws, cost, (py * width + px) * 4 + dir, stateCost + UNITS_STEP);
+            }
+        }
+        lastExpansions = expansions;
+        return new ReverseDistanceField(width, height, goalCell, cost, UNIT);
+    }
+
+    private static void settleReverse(SearchWorkspace ws, int[] cost, int to, int newCost) {
+        if (newCost < cost[to]) {
+            cost[to] = newCost;
+            ws.push(newCost, to);
+        }
+    }
+
+    private static void settle(SearchWorkspace ws, int[] cost, int[] parent, int from, int to, int newCost) {
+        if (newCost < cost[to]) {
+            cost[to] = newCost;
+            parent[to] = from;
+            ws.push(newCost, to);
+        }
+    }
+
+    /**
+     * {@link #estimateCost(Pose, GridPos)} in half-units for a pose given by
+     * coordinates and direction index.
+     */
+    static int heuristic(int x, int y, int dir, int goalX, int goalY) {
+        int dx = Math.abs(goalX - x);
+        int dy = Math.abs(goalY - y);
+        if (dx == 0 && dy == 0) {
+            return 0;
+        }
+        int preferred;
+        if (dx >= dy) {
+            preferred = (goalX >= x) ? 1 : 3;
+        } else {
+            preferred = (goalY >= y) ? 2 : 0;
+        }
+        int delta = (preferred - dir) & 3;
+        int turns = Math.min(delta, 4 - delta);
+        return (dx + dy) * UNITS_STEP + turns * UNITS_TURN;
+    }
+
+    /**
+     * Plans with the previous algorithm: a BFS for the fewest steps, with the
+     * turns inserted afterwards. The result is not necessarily cost-optimal; it
+     * is kept as a baseline for {@link #plan(Maze, Pose, GridPos)}.
+     *
+     * @param maze  the environment grid
+     * @param start start pose
+     * @param goal  goal cell
+     * @return planning {@link Result}
+     */
+    Result planBfs(Maze maze, Pose start, GridPos goal) {
+        lastExpansions = 0;
         if (maze == null || start == null || goal == null) {
             return Result.EMPTY;
         }
-        Node solution = bfs(start.x(), start.y(), goal.x(), goal.y(), maze);
-        if (solution == null) {
+        SearchWorkspace ws = SearchWorkspace.current();
+        int goalCell = bfs(start.x(), start.y(), goal.x(), goal.y(), maze, ws);
+        if (goalCell < 0) {
             return Result.EMPTY;
         }
 
+        int width = maze.getWidth();
         List<Direction> steps = new ArrayList<>();
-        for (Node cursor = solution; cursor != null && cursor.step != null; cursor = cursor.parent) {
-            steps.add(cursor.step);
+        for (int cell = goalCell; ws.parent(cell) >= 0; cell = ws.parent(cell)) {
+            steps.add(stepBetween(ws.parent(cell), cell, width));
         }
         Collections.reverse(steps);
 
@@ -128,12 +812,66 @@ final class AStarPathfinder {
             facing = align(facing, stepDir, actions);
             actions.add(Action.STEP);
         }
+        return new Result(List.copyOf(actions), costOf(actions), true);
+    }
 
-        double cost = costOf(actions);
-        if (cost > costCap) {
-            return new Result(List.of(), cost, false);
+    /** Direction of the single step from cell index {@code from} to its neighbor {@code to}. */
+    private static Direction stepBetween(int from, int to, int width) {
+        int delta = to - from;
+        if (delta == -width) {
+            return Direction.N;
         }
-        return new Result(List.copyOf(actions), cost, true);
+        if (delta == width) {
+            return Direction.S;
+        }
+        return delta > 0 ? Direction.E : Direction.W;
+    }
+
+    /**
+     * Returns the number of nodes expanded by the most recent call to
+     * {@link #plan(Maze, Pose, GridPos, double)}, {@link #planBfs(Maze, Pose, GridPos)},
+     * {@link #distanceField(Maze, Pose)} or {@link #reverseDistanceField(Maze, GridPos)}:
+     * poses taken from the open list for A* and the distance fields, {@code (node,
+     * facing)} states for the junction graph, cells taken from the queue for BFS.
+     *
+     * @return the expansion count of the last search
+     */
+    int lastExpansions() {
+        return lastExpansions;
+    }
+
+    /**
+     * Maze-aware lower bound of the cost from {@code start} to {@code goal}, read
+     * from a precomputed {@link DistanceTable} in constant time.
+     *
+     * <p>The bound is the exact number of steps of a shortest walk plus the turns
+     * needed before its first step. Turns further along the walk are not
+     * counted, so the bound never exceeds the cost of
+     * {@link #plan(Maze, Pose, GridPos)} and equals it when a straight shortest
+     * walk exists.
+     *
+     * @param table distance table of the maze
+     * @param start start pose
+     * @param goal  goal cell
+     * @return the bound, or {@link Double#POSITIVE_INFINITY} if the start is the
+     *         goal cell, either cell is not walkable or the goal is unreachable
+     */
+    double costLowerBound(DistanceTable table, Pose start, GridPos goal) {
+        int steps = table.steps(start.x(), start.y(), goal.x(), goal.y());
+        if (steps <= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        int dir = index((start.facing() != null) ? start.facing() : Direction.N);
+        int turns = 2;
+        for (int d = 0; d < 4 && turns > 0; d++) {
+            int nx = start.x() + DELTAS[d][0];
+            int ny = start.y() + DELTAS[d][1];
+            if (table.steps(nx, ny, goal.x(), goal.y()) == steps - 1) {
+                int delta = (d - dir) & 3;
+                turns = Math.min(turns, Math.min(delta, 4 - delta));
+            }
+        }
+        return steps * COST_STEP + turns * COST_TURN;
     }
 
     /**
@@ -201,52 +939,62 @@ final class AStarPathfinder {
 
     /**
      * Breadth-first search on the grid from (startX, startY) to (goalX, goalY).
-     * Blocks are determined by {@link #isWalkable(int, int, Maze)}.
+     * Blocks are determined by {@link #isWalkable(int, int, Maze)}. Visited cells,
+     * their parents and the queue live in {@code ws}, so nothing is allocated.
      *
-     * @return the final {@link Node} on success (to reconstruct the path), or {@code null}
+     * @return the goal's cell index {@code y * width + x} on success (to reconstruct
+     *         the path through {@link SearchWorkspace#parent(int)}), or {@code -1}
      *         if no path exists.
      */
-    private Node bfs(int startX, int startY, int goalX, int goalY, Maze maze) {
+    int bfs(int startX, int startY, int goalX, int goalY, Maze maze, SearchWorkspace ws) {
         int width = maze.getWidth();
         int height = maze.getHeight();
-        boolean[][] visited = new boolean[height][width];
-        ArrayDeque<Node> queue = new ArrayDeque<>();
-        queue.add(new Node(startX, startY, null, null));
-        visited[startY][startX] = true;
+        ws.begin(width * height);
+        int startCell = startY * width + startX;
+        ws.visit(startCell, 0, -1);
+        ws.enqueue(startCell);
 
-        while (!queue.isEmpty()) {
-            Node current = queue.pollFirst();
+        while (!ws.queueEmpty()) {
+            int current = ws.dequeue();
+            lastExpansions++;
+            int cx = current % width;
+            int cy = current / width;
             for (int i = 0; i < DELTAS.length; i++) {
-                int nx = current.x + DELTAS[i][0];
-                int ny = current.y + DELTAS[i][1];
+                int nx = cx + DELTAS[i][0];
+                int ny = cy + DELTAS[i][1];
                 if (nx < 0 || ny < 0 || nx >= width || ny >= height) {
                     continue;
                 }
-                if (visited[ny][nx]) {
+                int next = ny * width + nx;
+                if (ws.visited(next)) {
                     continue;
                 }
                 if (!isWalkable(nx, ny, maze)) {
                     continue;
                 }
-                Node next = new Node(nx, ny, current, DIRECTIONS[i]);
+                ws.visit(next, 0, current);
                 if (nx == goalX && ny == goalY) {
                     return next;
                 }
-                visited[ny][nx] = true;
-                queue.add(next);
+                ws.enqueue(next);
             }
         }
-        return null;
+        return -1;
+    }
+
+    private static boolean inBounds(int x, int y, int width, int height) {
+        return x >= 0 && y >= 0 && x < width && y < height;
     }
 
     /**
      * Returns whether the cell at (x, y) can be traversed.
      *
-     * <p>Currently only {@link CellType#PATH} is considered walkable.
+     * <p>Currently only {@link CellType#PATH} is considered walkable. Callers
+     * check the bounds first, so this is a single bit test in the maze's
+     * walkability bitset.
      */
-    private boolean isWalkable(int x, int y, Maze maze) {
-        CellType type = maze.getTypeAt(x, y);
-        return type == CellType.PATH;
+    private static boolean isWalkable(int x, int y, Maze maze) {
+        return maze.isWalkableUnchecked(y * maze.getWidth() + x);
     }
 
     /**
@@ -277,7 +1025,7 @@ final class AStarPathfinder {
     }
 
     /** Maps {@link Direction} to an integer index 0..3 in order N,E,S,W. */
-    private int index(Direction dir) {
+    static int index(Direction dir) {
         return switch (dir) {
         case N -> 0;
         case E -> 1;
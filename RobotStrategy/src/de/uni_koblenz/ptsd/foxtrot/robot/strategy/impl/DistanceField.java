@@ -0,0 +1,122 @@
+package de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.uni_koblenz.ptsd.foxtrot.robot.strategy.Action;
+import de.uni_koblenz.ptsd.foxtrot.robot.strategy.GridPos;
+
+/**
+ * Cheapest costs from one start pose to every reachable pose of a maze.
+ *
+ * <p>A field is the result of a single search without a goal (see
+ * {@link AStarPathfinder#distanceField(de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Maze, AStarPathfinder.Pose)}).
+ * Afterwards the cost to any cell is an array lookup over its four facings, and
+ * the plan to a cell is rebuilt from the stored parents in time proportional to
+ * its length. Evaluating several targets from the same pose therefore costs one
+ * search instead of one per target.
+ *
+ * <p>Costs and plans are the same as those of
+ * {@link AStarPathfinder#plan(de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Maze, AStarPathfinder.Pose, GridPos)}:
+ * the goal is reached in its cheapest facing, and the start cell, an unwalkable
+ * or an unreachable cell yield {@link AStarPathfinder.Result#EMPTY}. Among
+ * equally cheap plans the two may pick different ones.
+ *
+ * <p>The field owns its arrays and does not change after construction, so it
+ * stays valid while further searches run. It does not notice later changes of
+ * the maze. Once the caller has read what it needs, {@link #release()} hands the
+ * arrays to the thread's {@link SearchWorkspace} for the next field.
+ */
+final class DistanceField {
+
+    private final int width;
+    private final int height;
+    private final int startState;
+    /** Cost per pose {@code (y * width + x) * 4 + facing} in half-units; {@link Integer#MAX_VALUE} if unreached. */
+    private int[] cost;
+    /** Predecessor per reached pose; {@code -1} marks the start. */
+    private int[] parent;
+    private final double unit;
+
+    DistanceField(int width, int height, int startState, int[] cost, int[] parent, double unit) {
+        this.width = width;
+        this.height = height;
+        this.startState = startState;
+        this.cost = cost;
+        this.parent = parent;
+        this.unit = unit;
+    }
+
+    /**
+     * Returns whether a plan to {@code goal} exists.
+     *
+     * @param goal goal cell
+     * @return {@code true} if {@code goal} was reached and is not the start cell
+     */
+    boolean reaches(GridPos goal) {
+        return bestState(goal) >= 0;
+    }
+
+    /**
+     * Returns the cost of the cheapest plan to {@code goal}.
+     *
+     * @param goal goal cell
+     * @return the plan cost, or {@link Double#POSITIVE_INFINITY} if there is no plan
+     */
+    double costTo(GridPos goal) {
+        int state = bestState(goal);
+        return state < 0 ? Double.POSITIVE_INFINITY : this.cost[state] * this.unit;
+    }
+
+    /**
+     * Rebuilds the cheapest plan to {@code goal} from the stored parents.
+     *
+     * @param goal goal cell
+     * @return the plan, or {@link AStarPathfinder.Result#EMPTY} if there is none
+     */
+    AStarPathfinder.Result resultTo(GridPos goal) {
+        int goalState = bestState(goal);
+        if (goalState < 0) {
+            return AStarPathfinder.Result.EMPTY;
+        }
+        ArrayList<Action> actions = new ArrayList<>();
+        for (int state = goalState; this.parent[state] >= 0; state = this.parent[state]) {
+            actions.add(AStarPathfinder.actionBetween(this.parent[state], state));
+        }
+        Collections.reverse(actions);
+        return new AStarPathfinder.Result(List.copyOf(actions), this.cost[goalState] * this.unit, true);
+    }
+
+    /**
+     * Returns the arrays of this field to the calling thread's
+     * {@link SearchWorkspace}. The field must not be used afterwards.
+     */
+    void release() {
+        if (this.cost != null) {
+            SearchWorkspace.current().releaseField(this.cost, this.parent);
+            this.cost = null;
+            this.parent = null;
+        }
+    }
+
+    /** Cheapest reached pose on the goal cell, or {@code -1}. */
+    private int bestState(GridPos goal) {
+        if (goal == null || goal.x() < 0 || goal.y() < 0 || goal.x() >= this.width || goal.y() >= this.height) {
+            return -1;
+        }
+        int base = (goal.y() * this.width + goal.x()) * 4;
+        if (base == (this.startState & ~3)) {
+            return -1;
+        }
+        int best = -1;
+        int bestCost = Integer.MAX_VALUE;
+        for (int state = base; state < base + 4; state++) {
+            if (this.cost[state] < bestCost) {
+                bestCost = this.cost[state];
+                best = state;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,520 @@
+package de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.Direction;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Maze;
+import de.uni_koblenz.ptsd.foxtrot.robot.strategy.Action;
+import de.uni_koblenz.ptsd.foxtrot.robot.strategy.GridPos;
+
+/**
+ * Hierarchical planner (HPA*) for very large mazes.
+ *
+ * <p>The maze is split into square clusters of {@value #CLUSTER} cells per
+ * side. Where two neighbouring clusters share a run of walkable cells on both
+ * sides of their border, one or two <em>transitions</em> are placed on it: one
+ * in the middle of a short run, one at each end of a long one. Every
+ * transition yields two abstract nodes, the poses of arriving in either
+ * cluster across it. At build time the cheapest way through each cluster, from
+ * every arrival pose to every departure pose, is computed with a pose search
+ * confined to the cluster; together with the step across a border these are
+ * the edges of the abstract graph.
+ *
+ * <p>A query connects the start pose to the departures of its cluster and the
+ * arrivals of the goal's cluster to the goal with two more confined searches,
+ * runs A* on the abstract graph and then refines only the chosen abstract path
+ * cluster by cluster. The work per query therefore depends on the number of
+ * clusters along the way rather than on the maze area.
+ *
+ * <p>Costs are those of {@link AStarPathfinder}, turns included. The plan is
+ * the cheapest one that crosses borders only at transitions, so it may cost a
+ * little more than a grid plan, but a goal is found whenever one is
+ * reachable. Queries whose start and goal share a cluster are not
+ * {@linkplain #covers(AStarPathfinder.Pose, GridPos) covered} and must be
+ * planned on the grid.
+ *
+ * <p>The abstract graph is immutable once built. Queries keep their scratch
+ * data in the calling thread's {@link SearchWorkspace}; the latency
+ * statistics are not synchronized, so one instance should be queried from one
+ * thread.
+ */
+final class HierarchicalPlanner {
+
+    /** Side length of a cluster in cells. */
+    static final int CLUSTER = 16;
+    /** Smallest maze, in cells, for which {@link SmartStrategy} builds a hierarchy. */
+    static final int MIN_CELLS = 256 * 256;
+    /** Smallest Manhattan distance of a {@linkplain #covers covered} query. */
+    static final int MIN_DISTANCE = 2 * CLUSTER;
+    /** Border runs up to this length get one transition, longer ones two. */
+    private static final int SINGLE_TRANSITION_RUN = 5;
+
+    /** 4-neighborhood step deltas in order N, E, S, W. */
+    private static final int[] DX = { 0, 1, 0, -1 };
+    private static final int[] DY = { -1, 0, 1, 0 };
+
+    private static final int UNITS_STEP = 2;
+    private static final int UNITS_TURN = 1;
+    private static final double UNIT = AStarPathfinder.COST_TURN;
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final Maze maze;
+    private final int width;
+    private final int height;
+    private final int clustersX;
+    /*
+     * Nodes come in pairs across a transition, so the partner of node n is
+     * n ^ 1. A node is the pose of arriving at its cell facing nodeDir; leaving
+     * the cluster through the same cell means facing the opposite way.
+     */
+    private final int[] nodeCell;
+    private final int[] nodeDir;
+    /** Index of a node among the nodes of its cluster. */
+    private final int[] nodeLocal;
+    /** Nodes of cluster k are clusterNodes[clusterStart[k] .. clusterStart[k + 1]). */
+    private final int[] clusterStart;
+    private final int[] clusterNodes;
+    /**
+     * Per cluster with e nodes, an e-by-e matrix at matrixOffset[k]: the cost in
+     * half-units from arriving at node i to facing out of the cell of node j,
+     * or UNREACHABLE.
+     */
+    private final int[] matrixOffset;
+    private final int[] matrix;
+    private final long buildNanos;
+
+    private long queries;
+    private long queryNanos;
+    private long lastQueryNanos;
+
+    private HierarchicalPlanner(Maze maze) {
+        long start = System.nanoTime();
+        this.maze = maze;
+        this.width = maze.getWidth();
+        this.height = maze.getHeight();
+        this.clustersX = (this.width + CLUSTER - 1) / CLUSTER;
+        int clusters = this.clustersX * ((this.height + CLUSTER - 1) / CLUSTER);
+
+        // Transitions across vertical borders (facing E), then across horizontal ones (facing S).
+        int[] pairs = new int[64];
+        int count = 0;
+        for (int dir = 1; dir <= 2; dir++) {
+            boolean vertical = dir == 1;
+            int step = vertical ? this.width : 1;
+            int borders = vertical ? this.width : this.height;
+            int along = vertical ? this.height : this.width;
+            for (int border = CLUSTER; border < borders; border += CLUSTER) {
+                for (int from = 0; from < along; from += CLUSTER) {
+                    // Scan one border segment for runs that are walkable on both sides.
+                    int length = Math.min(CLUSTER, along - from);
+                    int first = vertical ? from * this.width + border - 1 : (border - 1) * this.width + from;
+                    int runStart = -1;
+                    for (int i = 0; i <= length; i++) {
+                        int near = first + i * step;
+                        boolean open = i < length && maze.isWalkableUnchecked(near)
+                                && maze.isWalkableUnchecked(near + (vertical ? 1 : this.width));
+                        if (open && runStart < 0) {
+                            runStart = i;
+                        } else if (!open && runStart >= 0) {
+                            int last = i - 1;
+                            if (last - runStart + 1 <= SINGLE_TRANSITION_RUN) {
+                                pairs = append(pairs, count++, first + (runStart + last) / 2 * step, dir);
+                            } else {
+                                pairs = append(pairs, count++, first + runStart * step, dir);
+                                pairs = append(pairs, count++, first + last * step, dir);
+                            }
+                            runStart = -1;
+                        }
+                    }
+                }
+            }
+        }
+
+        // Two nodes per transition: arriving in the far cluster, and arriving back in the near one.
+        int nodes = count * 2;
+        this.nodeCell = new int[nodes];
+        this.nodeDir = new int[nodes];
+        int[] nodeCluster = new int[nodes];
+        for (int t = 0; t < count; t++) {
+            int near = pairs[t * 2];
+            int dir = pairs[t * 2 + 1];
+            int far = near + DY[dir] * this.width + DX[dir];
+            this.nodeCell[2 * t] = far;
+            this.nodeDir[2 * t] = dir;
+            this.nodeCell[2 * t + 1] = near;
+            this.nodeDir[2 * t + 1] = (dir + 2) & 3;
+            nodeCluster[2 * t] = this.clusterOf(far);
+            nodeCluster[2 * t + 1] = this.clusterOf(near);
+        }
+
+        // Group the nodes by cluster.
+        this.clusterStart = new int[clusters + 1];
+        for (int n = 0; n < nodes; n++) {
+            this.clusterStart[nodeCluster[n] + 1]++;
+        }
+        for (int k = 0; k < clusters; k++) {
+            this.clusterStart[k + 1] += this.clusterStart[k];
+        }
+        this.clusterNodes = new int[nodes];
+        this.nodeLocal = new int[nodes];
+        int[] fill = Arrays.copyOf(this.clusterStart, clusters);
+        for (int n = 0; n < nodes; n++) {
+            int k = nodeCluster[n];
+            this.nodeLocal[n] = fill[k] - this.clusterStart[k];
+            this.clusterNodes[fill[k]++] = n;
+        }
+
+        this.matrixOffset = new int[clusters];
+        int size = 0;
+        for (int k = 0; k < clusters; k++) {
+            this.matrixOffset[k] = size;
+            int e = this.clusterStart[k + 1] - this.clusterStart[k];
+            size += e * e;
+        }
+        this.matrix = new int[size];
+        // Clusters are independent; each worker searches in its own thread's workspace.
+        IntStream.range(0, clusters).parallel().forEach(this::fillMatrix);
+        this.buildNanos = System.nanoTime() - start;
+    }
+
+    /** Stores transition {@code index} as its near cell and direction, growing the array if needed. */
+    private static int[] append(int[] pairs, int index, int cell, int dir) {
+        int[] result = index * 2 + 1 < pairs.length ? pairs : Arrays.copyOf(pairs, pairs.length * 2);
+        result[index * 2] = cell;
+        result[index * 2 + 1] = dir;
+        return result;
+    }
+
+    /** Computes the crossing costs of cluster {@code k}, one confined search per node. */
+    private void fillMatrix(int k) {
+        SearchWorkspace ws = SearchWorkspace.current();
+        int first = this.clusterStart[k];
+        int e = this.clusterStart[k + 1] - first;
+        int offset = this.matrixOffset[k];
+        for (int i = 0; i < e; i++) {
+            int from = this.clusterNodes[first + i];
+            this.search(ws, k, this.localState(k, this.nodeCell[from], this.nodeDir[from]), false, -1, -1);
+            for (int j = 0; j < e; j++) {
+                int to = this.clusterNodes[first + j];
+                this.matrix[offset + i * e + j] = ws.cost(this.localState(k, this.nodeCell[to],
+                        (this.nodeDir[to] + 2) & 3));
+            }
+        }
+    }
+
+    /**
+     * Builds the hierarchy of {@code maze}.
+     *
+     * @param maze the maze
+     * @return the planner
+     */
+    static HierarchicalPlanner build(Maze maze) {
+        return new HierarchicalPlanner(maze);
+    }
+
+    /**
+     * Runs {@link #build(Maze)} on the common fork/join pool without blocking
+     * the caller.
+     *
+     * @param maze the maze
+     * @return a future completed with the planner
+     */
+    static CompletableFuture<HierarchicalPlanner> buildAsync(Maze maze) {
+        return CompletableFuture.supplyAsync(() -> build(maze), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns whether a query is answered hierarchically: the start is on a
+     * walkable cell, the goal lies in the maze, both are in different clusters
+     * and at least {@link #MIN_DISTANCE} cells apart.
+     *
+     * @param start start pose
+     * @param goal  goal cell
+     * @return {@code true} if {@link #plan(AStarPathfinder.Pose, GridPos, double)} accepts the query
+     */
+    boolean covers(AStarPathfinder.Pose start, GridPos goal) {
+        if (start == null || goal == null || !this.maze.isWalkable(start.x(), start.y())
+                || !this.inBounds(goal.x(), goal.y())) {
+            return false;
+        }
+        return Math.abs(goal.x() - start.x()) + Math.abs(goal.y() - start.y()) >= MIN_DISTANCE
+                && this.clusterOf(start.y() * this.width + start.x()) != this.clusterOf(goal.y() * this.width
+                        + goal.x());
+    }
+
+    /**
+     * Plans a path from {@code start} to {@code goal} on the abstract graph and
+     * refines it into actions. Like {@link AStarPathfinder#plan(Maze, AStarPathfinder.Pose, GridPos, double)},
+     * a plan more expensive than {@code costCap} is reported with its cost but
+     * without actions.
+     *
+     * @param start   start pose
+     * @param goal    goal cell
+     * @param costCap upper bound on acceptable total cost
+     * @return planning {@link AStarPathfinder.Result}
+     * @throws IllegalArgumentException if the query is not {@linkplain #covers covered}
+     */
+    AStarPathfinder.Result plan(AStarPathfinder.Pose start, GridPos goal, double costCap) {
+        if (!this.covers(start, goal)) {
+            throw new IllegalArgumentException("Query is not covered by the hierarchy: " + start + " -> " + goal);
+        }
+        long begin = System.nanoTime();
+        AStarPathfinder.Result result = this.query(start, goal, costCap);
+        this.lastQueryNanos = System.nanoTime() - begin;
+        this.queryNanos += this.lastQueryNanos;
+        this.queries++;
+        return result;
+    }
+
+    private AStarPathfinder.Result query(AStarPathfinder.Pose start, GridPos goal, double costCap) {
+        if (!this.maze.isWalkable(goal.x(), goal.y())) {
+            return AStarPathfinder.Result.EMPTY;
+        }
+        SearchWorkspace ws = SearchWorkspace.current();
+        int startCell = start.y() * this.width + start.x();
+        int startDir = AStarPathfinder.index((start.facing() != null) ? start.facing() : Direction.N);
+        int goalCell = goal.y() * this.width + goal.x();
+        int startCluster = this.clusterOf(startCell);
+        int goalCluster = this.clusterOf(goalCell);
+
+        // Start to the departures of its cluster, arrivals in the goal's cluster to the goal.
+        this.search(ws, startCluster, this.localState(startCluster, startCell, startDir), false, -1, -1);
+        int[] startCost = new int[this.clusterStart[startCluster + 1] - this.clusterStart[startCluster]];
+        for (int i = 0; i < startCost.length; i++) {
+            int node = this.clusterNodes[this.clusterStart[startCluster] + i];
+            startCost[i] = ws.cost(this.localState(startCluster, this.nodeCell[node], (this.nodeDir[node] + 2) & 3));
+        }
+        this.search(ws, goalCluster, this.localState(goalCluster, goalCell, 0) >> 2, true, -1, -1);
+        int[] goalCost = new int[this.clusterStart[goalCluster + 1] - this.clusterStart[goalCluster]];
+        for (int i = 0; i < goalCost.length; i++) {
+            int node = this.clusterNodes[this.clusterStart[goalCluster] + i];
+            goalCost[i] = ws.cost(this.localState(goalCluster, this.nodeCell[node], this.nodeDir[node]));
+        }
+
+        // A* over the abstract nodes; the goal is a virtual node after all others.
+        int goalState = this.nodeCell.length;
+        ws.begin(goalState + 1);
+        for (int i = 0; i < startCost.length; i++) {
+            if (startCost[i] != UNREACHABLE) {
+                int exit = this.clusterNodes[this.clusterStart[startCluster] + i];
+                this.relax(ws, -1, exit ^ 1, startCost[i] + UNITS_STEP, goalState, goal);
+            }
+        }
+        int reached = -1;
+        while (!ws.heapEmpty()) {
+            long top = ws.pop();
+            int state = (int) top;
+            int cost = ws.cost(state);
+            if (state == goalState) {
+                reached = state;
+                break;
+            }
+            if ((int) (top >>> 32) > cost + this.estimate(state, goal)) {
+                continue; // stale entry
+            }
+            int k = this.clusterOf(this.nodeCell[state]);
+            int first = this.clusterStart[k];
+            int e = this.clusterStart[k + 1] - first;
+            int row = this.matrixOffset[k] + this.nodeLocal[state] * e;
+            if (k == goalCluster && goalCost[this.nodeLocal[state]] != UNREACHABLE) {
+                this.relax(ws, state, goalState, cost + goalCost[this.nodeLocal[state]], goalState, goal);
+            }
+            for (int j = 0; j < e; j++) {
+                int through = this.matrix[row + j];
+                int exit = this.clusterNodes[first + j];
+                if (through != UNREACHABLE && exit != state) {
+                    this.relax(ws, state, exit ^ 1, cost + through + UNITS_STEP, goalState, goal);
+                }
+            }
+        }
+        if (reached < 0) {
+            return AStarPathfinder.Result.EMPTY;
+        }
+        double total = ws.cost(reached) * UNIT;
+        if (total > costCap) {
+            return new AStarPathfinder.Result(List.of(), total, false);
+        }
+
+        // The abstract path as the chain of arrival nodes; each is entered from the cell of its partner.
+        int length = 0;
+        for (int state = ws.parent(reached); state >= 0; state = ws.parent(state)) {
+            length++;
+        }
+        int[] chain = new int[length];
+        int state = ws.parent(reached);
+        for (int i = length - 1; i >= 0; i--, state = ws.parent(state)) {
+            chain[i] = state;
+        }
+
+        // Refine leg by leg: through a cluster to the cell of the next exit, then one step across.
+        ArrayList<Action> actions = new ArrayList<>();
+        int cell = startCell;
+        int dir = startDir;
+        for (int arrival : chain) {
+            int exit = arrival ^ 1;
+            this.refine(ws, cell, dir, this.nodeCell[exit], (this.nodeDir[exit] + 2) & 3, actions);
+            actions.add(Action.STEP);
+            cell = this.nodeCell[arrival];
+            dir = this.nodeDir[arrival];
+        }
+        this.refine(ws, cell, dir, goalCell, -1, actions);
+        return new AStarPathfinder.Result(List.copyOf(actions), total, true);
+    }
+
+    private void relax(SearchWorkspace ws, int from, int to, int cost, int goalState, GridPos goal) {
+        if (cost < ws.cost(to)) {
+            ws.visit(to, cost, from);
+            ws.push(cost + (to == goalState ? 0 : this.estimate(to, goal)), to);
+        }
+    }
+
+    /** Step cost of the Manhattan distance from a node to the goal; never more than the true cost. */
+    private int estimate(int node, GridPos goal) {
+        int cell = this.nodeCell[node];
+        return (Math.abs(goal.x() - cell % this.width) + Math.abs(goal.y() - cell / this.width)) * UNITS_STEP;
+    }
+
+    /**
+     * Appends the cheapest actions inside one cluster from pose {@code (cell,
+     * dir)} to pose {@code (toCell, toDir)}, or to {@code toCell} in any facing
+     * if {@code toDir} is {@code -1}.
+     */
+    private void refine(SearchWorkspace ws, int cell, int dir, int toCell, int toDir, List<Action> actions) {
+        int k = this.clusterOf(cell);
+        int reached = (toDir >= 0)
+                ? this.search(ws, k, this.localState(k, cell, dir), false, this.localState(k, toCell, toDir), -1)
+                : this.search(ws, k, this.localState(k, cell, dir), false, -1, this.localState(k, toCell, 0) >> 2);
+        int mark = actions.size();
+        for (int state = reached; ws.parent(state) >= 0; state = ws.parent(state)) {
+            actions.add(AStarPathfinder.actionBetween(ws.parent(state), state));
+        }
+        Collections.reverse(actions.subList(mark, actions.size()));
+    }
+
+    /**
+     * Dijkstra over the poses of cluster {@code k}, indexed {@code (ly * w + lx)
+     * * 4 + dir} within the cluster. A forward search starts at pose
+     * {@code source}; a reverse search computes the cost from every pose to the
+     * cell {@code source} in any facing. Costs and parents are left in
+     * {@code ws}.
+     *
+     * @param targetState a pose at which to stop, or {@code -1}
+     * @param targetCell  a cell at which to stop in any facing, or {@code -1}
+     * @return the pose at which the search stopped, or {@code -1}
+     */
+    private int search(SearchWorkspace ws, int k, int source, boolean reverse, int targetState, int targetCell) {
+        int x0 = (k % this.clustersX) * CLUSTER;
+        int y0 = (k / this.clustersX) * CLUSTER;
+        int w = Math.min(CLUSTER, this.width - x0);
+        int h = Math.min(CLUSTER, this.height - y0);
+        ws.begin(w * h * 4);
+        if (reverse) {
+            for (int d = 0; d < 4; d++) {
+                ws.visit(source * 4 + d, 0, -1);
+                ws.push(0, source * 4 + d);
+            }
+        } else {
+            ws.visit(source, 0, -1);
+            ws.push(0, source);
+        }
+        while (!ws.heapEmpty()) {
+            long top = ws.pop();
+            int state = (int) top;
+            int cost = ws.cost(state);
+            if ((int) (top >>> 32) > cost) {
+                continue; // stale entry
+            }
+            if (state == targetState || (state >> 2) == targetCell) {
+                return state;
+            }
+            int local = state >> 2;
+            int dir = state & 3;
+            this.settle(ws, state, (local << 2) | ((dir + 1) & 3), cost + UNITS_TURN);
+            this.settle(ws, state, (local << 2) | ((dir + 3) & 3), cost + UNITS_TURN);
+            int lx = local % w;
+            int ly = local / w;
+            if (reverse) {
+                if (!this.maze.isWalkableUnchecked((y0 + ly) * this.width + x0 + lx)) {
+                    continue;
+                }
+                lx -= DX[dir];
+                ly -= DY[dir];
+            } else {
+                lx += DX[dir];
+                ly += DY[dir];
+                if (lx < 0 || ly < 0 || lx >= w || ly >= h
+                        || !this.maze.isWalkableUnchecked((y0 + ly) * this.width + x0 + lx)) {
+                    continue;
+                }
+            }
+            if (lx >= 0 && ly >= 0 && lx < w && ly < h) {
+                this.settle(ws, state, ((ly * w + lx) << 2) | dir, cost + UNITS_STEP);
+            }
+        }
+        return -1;
+    }
+
+    private void settle(SearchWorkspace ws, int from, int to, int cost) {
+        if (cost < ws.cost(to)) {
+            ws.visit(to, cost, from);
+            ws.push(cost, to);
+        }
+    }
+
+    /** Pose index of global cell {@code cell} facing {@code dir} within cluster {@code k}. */
+    private int localState(int k, int cell, int dir) {
+        int x0 = (k % this.clustersX) * CLUSTER;
+        int y0 = (k / this.clustersX) * CLUSTER;
+        int w = Math.min(CLUSTER, this.width - x0);
+        return (((cell / this.width - y0) * w + cell % this.width - x0) << 2) | dir;
+    }
+
+    private int clusterOf(int cell) {
+        return (cell / this.width / CLUSTER) * this.clustersX + cell % this.width / CLUSTER;
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < this.width && y < this.height;
+    }
+
+    /** Returns the maze this hierarchy was built for. */
+    Maze maze() {
+        return this.maze;
+    }
+
+    /** Returns the number of clusters. */
+    int clusterCount() {
+        return this.clusterStart.length - 1;
+    }
+
+    /** Returns the number of abstract nodes, two per transition. */
+    int nodeCount() {
+        return this.nodeCell.length;
+    }
+
+    /** Returns how long building the abstract graph took, in nanoseconds. */
+    long buildNanos() {
+        return this.buildNanos;
+    }
+
+    /** Returns how long the most recent query took, in nanoseconds. */
+    long lastQueryNanos() {
+        return this.lastQueryNanos;
+    }
+
+    /** Returns the mean query latency so far in nanoseconds, or {@code 0} before the first query. */
+    long meanQueryNanos() {
+        return this.queries == 0 ? 0 : this.queryNanos / this.queries;
+    }
+
+    /** Returns the number of queries answered so far. */
+    long queryCount() {
+        return this.queries;
+    }
+}
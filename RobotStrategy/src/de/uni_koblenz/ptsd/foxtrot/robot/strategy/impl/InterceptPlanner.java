@@ -1,5 +1,6 @@
 package de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl;
 
+import java.util.List;
 import java.util.Objects;
 
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.BaitType;
@@ -16,8 +17,11 @@ import javafx.collections.ObservableMap;
  * <p>Given the current strategic suggestion ({@code normal}), this helper checks whether
  * the suggested target is a {@link BaitType#GEM GEM}. If so, it probes a small neighborhood
  * around the gem and evaluates interception points. For each probe position it compares our
- * estimated route cost against every opponent's route cost produced by
- * {@link SmartStrategy#planFor(Player, GridPos, GameStatusModel)}. If we can arrive at least
+ * estimated route cost against every opponent's route cost, which
+ * {@link SmartStrategy#etaTo(Player, GridPos, GameStatusModel)} reads from one
+ * reverse distance field per probe position. An opponent whose
+ * {@linkplain SmartStrategy#etaLowerBound lower bound} already loses the race
+ * needs no exact cost. If we can arrive at least
  * {@link SmartTuning#interceptMargin} steps earlier than an opponent, it proposes an
  * intercept {@link SmartStrategy.Candidate}. The best‑scoring candidate (highest score) is
  * returned.
@@ -85,20 +89,23 @@ final class InterceptPlanner {
                     Math.max(1, Math.min(model.getMaze().getHeight() - 2, probe.y())));
             Target interceptPoint = Target.of(pos, 0);
 
-            for (Player opp : players.values()) {
+            AStarPathfinder.Result ourRoute = strategy.planFor(me, pos, model);
+            Iterable<Player> opponents = (ourRoute.success() && !ourRoute.actions().isEmpty())
+                    ? players.values()
+                    : List.of();
+            for (Player opp : opponents) {
                 if (opp == null || opp.getID() == me.getID()) {
                     continue;
                 }
-                AStarPathfinder.Result ourRoute = strategy.planFor(me, pos, model);
-                AStarPathfinder.Result oppRoute = strategy.planFor(opp, pos, model);
-                if (!ourRoute.success() || ourRoute.actions().isEmpty()) {
+                double ourCost = ourRoute.cost();
+                double oppBound = strategy.etaLowerBound(opp, pos, model);
+                if (oppBound == Double.POSITIVE_INFINITY) {
                     continue;
                 }
-                if (!oppRoute.success() || oppRoute.actions().isEmpty()) {
+                double oppCost = (oppBound >= ourCost + raceMargin) ? oppBound : strategy.etaTo(opp, pos, model);
+                if (oppCost == Double.POSITIVE_INFINITY) {
                     continue;
                 }
-                double ourCost = ourRoute.cost();
-                double oppCost = oppRoute.cost();
                 if (ourCost + raceMargin <= oppCost) {
                     double score = -ourCost + 1.0; // slight bonus for successful intercept
                     SmartStrategy.Candidate cand = new SmartStrategy.Candidate(interceptPoint, ourRoute.actions(), ourCost, score);
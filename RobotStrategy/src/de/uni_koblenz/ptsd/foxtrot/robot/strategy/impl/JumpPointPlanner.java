@@ -0,0 +1,280 @@
+package de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.Direction;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Maze;
+import de.uni_koblenz.ptsd.foxtrot.robot.strategy.Action;
+import de.uni_koblenz.ptsd.foxtrot.robot.strategy.GridPos;
+
+/**
+ * Jump point search over robot poses, an alternative to {@link AStarPathfinder}
+ * for mazes with large open rooms.
+ *
+ * <p>In an open room the pose-space A* of {@link AStarPathfinder} expands almost
+ * every pose between start and goal, because many routes have the same number
+ * of steps. This planner searches the same poses with the same costs and
+ * heuristic, but a pose only has three successors: the two turns in place and
+ * a <em>jump</em> straight ahead to the next cell at which turning can be part
+ * of a cheapest plan. The cells passed over are never put on the open list.
+ *
+ * <h2>Jump points</h2>
+ * Walking in direction {@code d}, a cell {@code c} with a walkable neighbour in
+ * a perpendicular direction {@code p} is a jump point if
+ * <ul>
+ *   <li>it is the goal, or lies in the goal's row or column across {@code d},</li>
+ *   <li>the cell ahead is blocked, or</li>
+ *   <li>the free run from {@code c} in direction {@code p} is longer than the
+ *       one from the cell ahead or from the cell behind.</li>
+ * </ul>
+ * A turn anywhere else can be moved one cell forwards or backwards together
+ * with the straight walk that follows it, without making the plan more
+ * expensive. Repeating this moves every turn of a cheapest plan onto a jump
+ * point, so plans cost exactly as much as those of
+ * {@link AStarPathfinder#planGrid(Maze, AStarPathfinder.Pose, GridPos, double)}.
+ * Unlike plain JPS the rule looks at whole runs instead of the adjacent cells
+ * only: with turns costing extra, an opening several cells to the side can
+ * decide where the cheapest plan turns.
+ *
+ * <p>The free runs of every cell in all four directions are computed once per
+ * maze, on the first query after a new maze arrived. Like the other planners,
+ * the search keeps its costs, parents and open list in the calling thread's
+ * {@link SearchWorkspace}.
+ *
+ * <p>In corridor mazes nearly every cell is a jump point and this planner only
+ * adds overhead; there the {@link JunctionGraph} of {@link AStarPathfinder}
+ * is the better choice. {@code PlannerBenchmark} compares both.
+ */
+final class JumpPointPlanner {
+
+    /** 4-neighborhood step deltas in order N, E, S, W. */
+    private static final int[] DX = { 0, 1, 0, -1 };
+    private static final int[] DY = { -1, 0, 1, 0 };
+
+    private static final int UNITS_STEP = 2;
+    private static final int UNITS_TURN = 1;
+    private static final double UNIT = AStarPathfinder.COST_TURN;
+
+    /** Number of poses expanded by the most recent search. */
+    private int lastExpansions;
+
+    /** Maze the free runs were computed for. */
+    private Maze runsMaze;
+    /**
+     * Per pose {@code (y * width + x) * 4 + direction}: the number of walkable
+     * cells straight ahead before a blocked cell or the border.
+     */
+    private int[] runs;
+
+    /**
+     * Plans a path from {@code start} to {@code goal} without a cost cap.
+     *
+     * @param maze  the world model used for collision checks
+     * @param start start pose
+     * @param goal  goal cell to reach
+     * @return planning {@link AStarPathfinder.Result}
+     */
+    AStarPathfinder.Result plan(Maze maze, AStarPathfinder.Pose start, GridPos goal) {
+        return plan(maze, start, goal, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Plans a path from {@code start} to {@code goal} honoring a cost cap, with
+     * the same contract as {@link AStarPathfinder#plan(Maze, AStarPathfinder.Pose, GridPos, double)}:
+     * the plan has minimal cost, the goal is reached in any facing, a plan more
+     * expensive than {@code costCap} is reported with its cost but without
+     * actions, and a start on the goal cell yields {@link AStarPathfinder.Result#EMPTY}.
+     *
+     * @param maze    the environment grid
+     * @param start   start pose
+     * @param goal    goal cell
+     * @param costCap upper bound on acceptable total cost
+     * @return planning {@link AStarPathfinder.Result}
+     */
+    AStarPathfinder.Result plan(Maze maze, AStarPathfinder.Pose start, GridPos goal, double costCap) {
+        lastExpansions = 0;
+        if (maze == null || start == null || goal == null) {
+            return AStarPathfinder.Result.EMPTY;
+        }
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+        if (start.x() < 0 || start.y() < 0 || start.x() >= width || start.y() >= height
+                || (start.x() == goal.x() && start.y() == goal.y()) || !maze.isWalkable(goal.x(), goal.y())) {
+            return AStarPathfinder.Result.EMPTY;
+        }
+
+        int[] runs = runs(maze);
+        int goalX = goal.x();
+        int goalY = goal.y();
+        SearchWorkspace ws = SearchWorkspace.current();
+        ws.begin(width * height * 4);
+
+        int startDir = AStarPathfinder.index((start.facing() != null) ? start.facing() : Direction.N);
+        int startState = (start.y() * width + start.x()) * 4 + startDir;
+        ws.visit(startState, 0, -1);
+        ws.push(AStarPathfinder.heuristic(start.x(), start.y(), startDir, goalX, goalY), startState);
+
+        int expansions = 0;
+        int reached = -1;
+        while (!ws.heapEmpty()) {
+            long top = ws.pop();
+            int state = (int) top;
+            int cell = state >> 2;
+            int dir = state & 3;
+            int x = cell % width;
+            int y = cell / width;
+            int cost = ws.cost(state);
+            if ((int) (top >>> 32) > cost + AStarPathfinder.heuristic(x, y, dir, goalX, goalY)) {
+                continue; // stale entry
+            }
+            expansions++;
+            if (x == goalX && y == goalY) {
+                reached = state;
+                break;
+            }
+
+            int base = cell * 4;
+            relax(ws, state, base + ((dir + 1) & 3), cost + UNITS_TURN, x, y, goalX, goalY);
+            relax(ws, state, base + ((dir + 3) & 3), cost + UNITS_TURN, x, y, goalX, goalY);
+            int steps = jump(runs, width, x, y, dir, goalX, goalY);
+            if (steps > 0) {
+                int nx = x + steps * DX[dir];
+                int ny = y + steps * DY[dir];
+                relax(ws, state, (ny * width + nx) * 4 + dir, cost + steps * UNITS_STEP, nx, ny, goalX, goalY);
+            }
+        }
+        lastExpansions = expansions;
+        if (reached < 0) {
+            return AStarPathfinder.Result.EMPTY;
+        }
+
+        double cost = ws.cost(reached) * UNIT;
+        if (cost > costCap) {
+            return new AStarPathfinder.Result(List.of(), cost, false);
+        }
+        ArrayList<Action> actions = new ArrayList<>();
+        for (int state = reached; ws.parent(state) >= 0; state = ws.parent(state)) {
+            int previous = ws.parent(state);
+            if ((previous >> 2) == (state >> 2)) {
+                actions.add(AStarPathfinder.actionBetween(previous, state));
+            } else {
+                int from = previous >> 2;
+                int to = state >> 2;
+                int steps = Math.abs(to % width - from % width) + Math.abs(to / width - from / width);
+                for (int i = 0; i < steps; i++) {
+                    actions.add(Action.STEP);
+                }
+            }
+        }
+        Collections.reverse(actions);
+        return new AStarPathfinder.Result(List.copyOf(actions), cost, true);
+    }
+
+    private static void relax(SearchWorkspace ws, int from, int to, int cost, int x, int y, int goalX, int goalY) {
+        if (cost < ws.cost(to)) {
+            ws.visit(to, cost, from);
+            ws.push(cost + AStarPathfinder.heuristic(x, y, to & 3, goalX, goalY), to);
+        }
+    }
+
+    /**
+     * Walks from {@code (x, y)} in direction {@code dir} to the next jump point.
+     *
+     * @return the number of steps to it, or {@code 0} if the walk ends in a dead
+     *         end without one
+     */
+    private static int jump(int[] runs, int width, int x, int y, int dir, int goalX, int goalY) {
+        int length = runs[(y * width + x) * 4 + dir];
+        int right = (dir + 1) & 3;
+        int left = (dir + 3) & 3;
+        int dx = DX[dir];
+        int dy = DY[dir];
+        // Across a horizontal walk the goal is reached by turning into its column, and vice versa.
+        boolean horizontal = (dir & 1) == 1;
+        for (int steps = 1; steps <= length; steps++) {
+            x += dx;
+            y += dy;
+            if (x == goalX && y == goalY) {
+                return steps;
+            }
+            int cell = y * width + x;
+            boolean onGoalLine = horizontal ? x == goalX : y == goalY;
+            boolean blockedAhead = steps == length;
+            if (turnsHere(runs, width, cell, dx, dy, right, onGoalLine, blockedAhead)
+                    || turnsHere(runs, width, cell, dx, dy, left, onGoalLine, blockedAhead)) {
+                return steps;
+            }
+        }
+        return 0;
+    }
+
+    /** Whether a cheapest plan may turn from the walk {@code (dx, dy)} into direction {@code side} at {@code cell}. */
+    private static boolean turnsHere(int[] runs, int width, int cell, int dx, int dy, int side, boolean onGoalLine,
+            boolean blockedAhead) {
+        int run = runs[cell * 4 + side];
+        if (run == 0) {
+            return false;
+        }
+        if (onGoalLine || blockedAhead) {
+            return true;
+        }
+        int offset = dy * width + dx;
+        return run > runs[(cell + offset) * 4 + side] || run > runs[(cell - offset) * 4 + side];
+    }
+
+    /**
+     * Returns the free runs of {@code maze}, computing them if the maze differs
+     * from the one planned on last.
+     */
+    private int[] runs(Maze maze) {
+        if (this.runsMaze != maze) {
+            this.runs = computeRuns(maze);
+            this.runsMaze = maze;
+        }
+        return this.runs;
+    }
+
+    /** Counts the free run of every cell in each direction with one sweep per pair of opposite directions. */
+    private static int[] computeRuns(Maze maze) {
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+        int[] runs = new int[width * height * 4];
+        // Forwards: the cells to the north and west of a cell are done before it.
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int cell = y * width + x;
+                if (y > 0 && maze.isWalkableUnchecked(cell - width)) {
+                    runs[cell * 4] = runs[(cell - width) * 4] + 1;
+                }
+                if (x > 0 && maze.isWalkableUnchecked(cell - 1)) {
+                    runs[cell * 4 + 3] = runs[(cell - 1) * 4 + 3] + 1;
+                }
+            }
+        }
+        // Backwards: the cells to the south and east of a cell are done before it.
+        for (int y = height - 1; y >= 0; y--) {
+            for (int x = width - 1; x >= 0; x--) {
+                int cell = y * width + x;
+                if (y < height - 1 && maze.isWalkableUnchecked(cell + width)) {
+                    runs[cell * 4 + 2] = runs[(cell + width) * 4 + 2] + 1;
+                }
+                if (x < width - 1 && maze.isWalkableUnchecked(cell + 1)) {
+                    runs[cell * 4 + 1] = runs[(cell + 1) * 4 + 1] + 1;
+                }
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Returns the number of poses expanded by the most recent call to
+     * {@link #plan(Maze, AStarPathfinder.Pose, GridPos, double)}.
+     *
+     * @return the expansion count of the last search
+     */
+    int lastExpansions() {
+        return lastExpansions;
+    }
+}
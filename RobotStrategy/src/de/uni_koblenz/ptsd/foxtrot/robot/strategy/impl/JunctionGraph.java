@@ -0,0 +1,267 @@
+package de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl;
+
+import java.util.Arrays;
+
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Maze;
+
+/**
+ * Corridor-contracted view of a maze for long-range planning.
+ *
+ * <p>Most of a maze consists of one-cell-wide corridors. This graph keeps only
+ * the <em>nodes</em>, i.e. walkable cells with other than two walkable
+ * neighbours (junctions and dead ends), and replaces every corridor between
+ * two nodes by one edge. {@link AStarPathfinder} then searches over
+ * {@code (node, facing)} states and walks a whole corridor in a single
+ * expansion instead of one per cell.
+ *
+ * <h2>Ports</h2>
+ * An edge leaves a node in one of the four directions; the pair
+ * {@code node * 4 + direction} is its <em>port</em>. Each port stores the node
+ * the corridor ends in, the facing on arrival there and the cost of walking
+ * it in the half-units of {@link AStarPathfinder}: two per step and one per
+ * bend. Every corridor is stored once per direction. The cells of a corridor
+ * are not stored; {@link #walk(int, int, int)} follows them again when a path
+ * is expanded back to actions.
+ *
+ * <p>A closed loop of corridor cells without any junction gets one of its
+ * cells as an artificial node, so every walkable cell is either a node or
+ * lies on a corridor between two nodes.
+ *
+ * <p>Instances are immutable after construction and belong to the maze they
+ * were built for.
+ */
+final class JunctionGraph {
+
+    /** 4-neighborhood step deltas in order N, E, S, W. */
+    private static final int[] DX = { 0, 1, 0, -1 };
+    private static final int[] DY = { -1, 0, 1, 0 };
+
+    private static final int UNITS_STEP = 2;
+    private static final int UNITS_TURN = 1;
+
+    private final Maze maze;
+    private final int width;
+    /** Node id per cell {@code y * width + x}; {@code -1} for corridor and blocked cells. */
+    private final int[] nodeOf;
+    /** Cell index per node id. */
+    private final int[] nodeCell;
+    /** Target node per port; {@code -1} if no corridor leaves the node that way. */
+    private final int[] portTarget;
+    /** Facing on arrival at the target node, per port. */
+    private final byte[] portArrival;
+    /** Cost of the corridor in half-units, per port. */
+    private final int[] portCost;
+    private final long buildNanos;
+
+    /**
+     * Builds the graph of {@code maze} in one pass over its cells and one walk
+     * along every corridor in each direction.
+     *
+     * @param maze the maze
+     */
+    JunctionGraph(Maze maze) {
+        long start = System.nanoTime();
+        this.maze = maze;
+        this.width = maze.getWidth();
+        int cells = this.width * maze.getHeight();
+
+        this.nodeOf = new int[cells];
+        Arrays.fill(this.nodeOf, -1);
+        int[] nodes = new int[64];
+        int count = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (maze.isWalkableUnchecked(cell) && this.degree(cell) != 2) {
+                this.nodeOf[cell] = count;
+                nodes = append(nodes, count++, cell);
+            }
+        }
+
+        int[] target = new int[count * 4];
+        byte[] arrival = new byte[count * 4];
+        int[] cost = new int[count * 4];
+        boolean[] covered = new boolean[cells];
+        int traced = 0;
+        int scan = 0;
+        while (true) {
+            for (; traced < count; traced++) {
+                for (int dir = 0; dir < 4; dir++) {
+                    int port = traced * 4 + dir;
+                    target[port] = -1;
+                    int next = this.neighbor(nodes[traced], dir);
+                    if (next < 0) {
+                        continue;
+                    }
+                    long walked = this.walk(nodes[traced], dir, -1, covered);
+                    target[port] = this.nodeOf[endCell(walked)];
+                    arrival[port] = (byte) endFacing(walked);
+                    cost[port] = cost(walked);
+                }
+            }
+            // A walkable cell that no corridor passed lies on a loop without junctions.
+            while (scan < cells && (!maze.isWalkableUnchecked(scan) || this.nodeOf[scan] >= 0 || covered[scan])) {
+                scan++;
+            }
+            if (scan == cells) {
+                break;
+            }
+            this.nodeOf[scan] = count;
+            nodes = append(nodes, count++, scan);
+            target = Arrays.copyOf(target, count * 4);
+            arrival = Arrays.copyOf(arrival, count * 4);
+            cost = Arrays.copyOf(cost, count * 4);
+        }
+        this.nodeCell = Arrays.copyOf(nodes, count);
+        this.portTarget = target;
+        this.portArrival = arrival;
+        this.portCost = cost;
+        this.buildNanos = System.nanoTime() - start;
+    }
+
+    private static int[] append(int[] array, int size, int value) {
+        int[] result = size < array.length ? array : Arrays.copyOf(array, array.length * 2);
+        result[size] = value;
+        return result;
+    }
+
+    /** Number of walkable neighbours of a cell. */
+    private int degree(int cell) {
+        int degree = 0;
+        for (int dir = 0; dir < 4; dir++) {
+            if (this.neighbor(cell, dir) >= 0) {
+                degree++;
+            }
+        }
+        return degree;
+    }
+
+    /**
+     * Returns the walkable neighbour of {@code cell} in direction {@code dir}.
+     *
+     * @return its cell index, or {@code -1} if it is blocked or outside the maze
+     */
+    int neighbor(int cell, int dir) {
+        int x = cell % this.width + DX[dir];
+        int y = cell / this.width + DY[dir];
+        return this.maze.isWalkable(x, y) ? y * this.width + x : -1;
+    }
+
+    /**
+     * Walks from {@code cell} one step in direction {@code dir} and on along the
+     * corridor until a node or {@code stopCell} is entered. Inside a corridor
+     * the way on is the only walkable neighbour other than the one behind.
+     *
+     * @param cell     start cell
+     * @param dir      direction of the first step; the cell ahead must be walkable
+     * @param stopCell a cell to stop at even if it is no node, or {@code -1}
+     * @return the walk packed as cost in half-units (bits 32 and up), facing on
+     *         arrival (bits 30-31) and the cell arrived at (bits 0-29); read it
+     *         with {@link #cost(long)}, {@link #endFacing(long)} and {@link #endCell(long)}
+     */
+    long walk(int cell, int dir, int stopCell) {
+        return this.walk(cell, dir, stopCell, null);
+    }
+
+    private long walk(int cell, int dir, int stopCell, boolean[] covered) {
+        int facing = dir;
+        int current = this.neighbor(cell, dir);
+        int cost = UNITS_STEP;
+        while (current != stopCell && this.nodeOf[current] < 0) {
+            if (covered != null) {
+                covered[current] = true;
+            }
+            int nextDir = this.onward(current, facing);
+            if (nextDir != facing) {
+                cost += UNITS_TURN;
+            }
+            facing = nextDir;
+            current = this.neighbor(current, nextDir);
+            cost += UNITS_STEP;
+        }
+        return ((long) cost << 32) | ((long) facing << 30) | current;
+    }
+
+    /**
+     * Returns the direction in which a corridor goes on from {@code cell} when
+     * it was entered facing {@code facing}: the walkable neighbour other than
+     * the one behind.
+     *
+     * @param cell   a corridor cell, i.e. a walkable cell that is no node
+     * @param facing facing on entering the cell
+     * @return the direction of the next step
+     */
+    int onward(int cell, int facing) {
+        int back = (facing + 2) & 3;
+        for (int dir = 0; dir < 4; dir++) {
+            if (dir != back && this.neighbor(cell, dir) >= 0) {
+                return dir;
+            }
+        }
+        return back;
+    }
+
+    /** The cost in half-units of a walk returned by {@link #walk(int, int, int)}. */
+    static int cost(long walk) {
+        return (int) (walk >>> 32);
+    }
+
+    /** The facing on arrival of a walk returned by {@link #walk(int, int, int)}. */
+    static int endFacing(long walk) {
+        return (int) (walk >>> 30) & 3;
+    }
+
+    /** The cell arrived at by a walk returned by {@link #walk(int, int, int)}. */
+    static int endCell(long walk) {
+        return (int) walk & 0x3FFFFFFF;
+    }
+
+    /** Returns the maze this graph was built for. */
+    Maze maze() {
+        return this.maze;
+    }
+
+    /** Returns the node id of {@code cell}, or {@code -1} if it is no node. */
+    int nodeAt(int cell) {
+        return this.nodeOf[cell];
+    }
+
+    /** Returns the cell index of {@code node}. */
+    int cellOf(int node) {
+        return this.nodeCell[node];
+    }
+
+    /** Returns the number of nodes. */
+    int nodeCount() {
+        return this.nodeCell.length;
+    }
+
+    /** Returns the node the corridor of {@code port} ends in, or {@code -1} if there is none. */
+    int target(int port) {
+        return this.portTarget[port];
+    }
+
+    /** Returns the facing on arrival at {@link #target(int)}. */
+    int arrival(int port) {
+        return this.portArrival[port];
+    }
+
+    /** Returns the cost of the corridor of {@code port} in half-units. */
+    int cost(int port) {
+        return this.portCost[port];
+    }
+
+    /**
+     * Returns whether the graph is markedly smaller than the grid, i.e. has at
+     * most half as many nodes as the maze has walkable cells. Mazes made of open
+     * rooms have a node on almost every cell and are better searched directly.
+     *
+     * @return {@code true} if searching the graph pays off
+     */
+    boolean contracts() {
+        return 2L * this.nodeCell.length <= this.maze.getWalkableCount();
+    }
+
+    /** Returns how long building the graph took, in nanoseconds. */
+    long buildNanos() {
+        return this.buildNanos;
+    }
+}
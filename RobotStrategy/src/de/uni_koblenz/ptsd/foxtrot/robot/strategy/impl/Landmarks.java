@@ -0,0 +1,189 @@
+package de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl;
+
+import java.util.Arrays;
+
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Maze;
+
+/**
+ * Landmark distances of one maze for the ALT ("A*, landmarks, triangle
+ * inequality") heuristic of {@link AStarPathfinder}.
+ *
+ * <p>A few walkable cells are picked as landmarks and the number of steps from
+ * each of them to every cell is stored. For any landmark {@code L} the triangle
+ * inequality gives {@code steps(c, g) >= |steps(L, g) - steps(L, c)|}, so the
+ * maximum over all landmarks is a lower bound on the steps from {@code c} to
+ * {@code g}. In a winding maze this bound is far tighter than the Manhattan
+ * distance, which ignores every wall between the two cells.
+ *
+ * <p>Landmarks are picked by farthest-point selection: the first is the cell
+ * farthest from an arbitrary walkable cell, every further one the cell farthest
+ * from all landmarks picked so far. Landmarks on the outskirts of the maze bound
+ * the most queries well. Only the component of the first walkable cell gets
+ * landmarks, which covers the whole maze when it is connected. Distances are
+ * kept as unsigned 16-bit values, all landmarks of one cell next to each other
+ * so that one bound reads a single cache line. Cells a landmark does not reach,
+ * and distances that do not fit, are stored as {@link #UNREACHED} and give no
+ * bound.
+ *
+ * <p>Instances are immutable once built and belong to one {@link Maze}.
+ */
+final class Landmarks {
+
+    /** Stored distance of a cell a landmark does not reach. */
+    static final int UNREACHED = 0xFFFF;
+
+    private final Maze maze;
+    private final int count;
+    private final int[] cells;
+    /** Per cell {@code c} and landmark {@code l}: steps from the landmark at {@code c * count + l}. */
+    private final char[] distances;
+    private final long buildNanos;
+
+    private Landmarks(Maze maze, int[] cells, char[] distances, long buildNanos) {
+        this.maze = maze;
+        this.count = cells.length;
+        this.cells = cells;
+        this.distances = distances;
+        this.buildNanos = buildNanos;
+    }
+
+    /**
+     * Picks up to {@code count} landmarks in {@code maze} and computes their
+     * distances with one {@link Wavefront} search each.
+     *
+     * @param maze  the maze
+     * @param count the number of landmarks to pick; fewer are picked if the maze
+     *              has fewer walkable cells
+     * @return the landmark distances of {@code maze}
+     */
+    static Landmarks build(Maze maze, int count) {
+        long started = System.nanoTime();
+        int size = maze.getWidth() * maze.getHeight();
+        Wavefront wavefront = new Wavefront(maze);
+        int[] steps = new int[size];
+        int[] nearest = new int[size];
+        Arrays.fill(nearest, Integer.MAX_VALUE);
+
+        int first = -1;
+        for (int cell = 0; cell < size && first < 0; cell++) {
+            if (maze.isWalkableUnchecked(cell)) {
+                first = cell;
+            }
+        }
+        int picked = 0;
+        int[] cells = new int[count];
+        char[] distances = new char[size * count];
+        Arrays.fill(distances, (char) UNREACHED);
+        int next = -1;
+        if (first >= 0) {
+            wavefront.distances(first, steps);
+            next = farthest(steps);
+        }
+        while (next >= 0 && picked < count) {
+            cells[picked] = next;
+            wavefront.distances(next, steps);
+            for (int cell = 0; cell < size; cell++) {
+                if (steps[cell] >= 0) {
+                    if (steps[cell] < UNREACHED) {
+                        distances[cell * count + picked] = (char) steps[cell];
+                    }
+                    nearest[cell] = Math.min(nearest[cell], steps[cell]);
+                }
+            }
+            picked++;
+            // Only cells the landmarks reach are candidates; other components get no bound.
+            next = -1;
+            int best = 0;
+            for (int cell = 0; cell < size; cell++) {
+                if (nearest[cell] != Integer.MAX_VALUE && nearest[cell] > best) {
+                    best = nearest[cell];
+                    next = cell;
+                }
+            }
+        }
+        if (picked < count) {
+            char[] compact = new char[size * picked];
+            for (int cell = 0; cell < size; cell++) {
+                System.arraycopy(distances, cell * count, compact, cell * picked, picked);
+            }
+            cells = Arrays.copyOf(cells, picked);
+            distances = compact;
+        }
+        return new Landmarks(maze, cells, distances, System.nanoTime() - started);
+    }
+
+    /** Returns a cell with the most steps, the first one on ties. */
+    private static int farthest(int[] steps) {
+        int best = 0;
+        for (int cell = 1; cell < steps.length; cell++) {
+            if (steps[cell] > steps[best]) {
+                best = cell;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Copies the distances from every landmark to {@code cell} into
+     * {@code into}, which must hold at least {@link #count()} values.
+     *
+     * @param cell cell index {@code y * width + x}
+     * @param into receives one distance per landmark, {@link #UNREACHED} where
+     *             there is none
+     * @return whether any landmark reaches {@code cell}
+     */
+    boolean load(int cell, int[] into) {
+        boolean any = false;
+        int base = cell * count;
+        for (int l = 0; l < count; l++) {
+            into[l] = distances[base + l];
+            any |= into[l] != UNREACHED;
+        }
+        return any;
+    }
+
+    /**
+     * Lower bound on the steps from {@code cell} to the cell whose distances
+     * were {@linkplain #load(int, int[]) loaded} into {@code goal}.
+     *
+     * @param cell cell index {@code y * width + x}
+     * @param goal the goal's landmark distances
+     * @return a lower bound on the number of steps, {@code 0} if no landmark
+     *         reaches both cells
+     */
+    int bound(int cell, int[] goal) {
+        int best = 0;
+        int base = cell * count;
+        for (int l = 0; l < count; l++) {
+            int from = distances[base + l];
+            int to = goal[l];
+            if (from != UNREACHED && to != UNREACHED) {
+                best = Math.max(best, Math.abs(to - from));
+            }
+        }
+        return best;
+    }
+
+    /** @return the maze these distances belong to */
+    Maze maze() {
+        return maze;
+    }
+
+    /** @return the number of landmarks */
+    int count() {
+        return count;
+    }
+
+    /**
+     * @param landmark landmark index, {@code 0 <= landmark < count()}
+     * @return the cell index {@code y * width + x} of the landmark
+     */
+    int cell(int landmark) {
+        return cells[landmark];
+    }
+
+    /** @return nanoseconds spent picking the landmarks and computing their distances */
+    long buildNanos() {
+        return buildNanos;
+    }
+}
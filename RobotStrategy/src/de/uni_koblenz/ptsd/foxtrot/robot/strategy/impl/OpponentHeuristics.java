@@ -1,8 +1,9 @@
 package de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.GameStatusModel;
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Player;
@@ -14,9 +15,9 @@ import javafx.collections.ObservableMap;
 *
 * <p>Given a goal cell, this utility estimates how many opponents can plausibly
 * contest the goal before or around the same time as us. It is designed to be
-* fast: it first filters by Manhattan distance and, for a configurable number
-* of nearest opponents, it may consult a supplied route planner for a more
-* faithful cost. The result is returned as a weighted "pressure" value that
+* fast: it first ranks opponents by a cheap lower bound of their cost and, for a
+* configurable number of nearest opponents, consults a supplied exact cost only
+* while their bound can still beat the best cost found. The result is returned as a weighted "pressure" value that
 * indicates how much opponent competition to expect.
 *
 * <p>This class is stateless and not thread-safe by itself, but it holds no
@@ -30,28 +31,26 @@ final class OpponentHeuristics {
     /**
     * Estimate opponent pressure near a goal.
     *
-    * <p>Counts (with weights) opponents that could reach the {@code goal}
-    * not much slower than we can. A cheap Manhattan pre-check keeps it fast.
-    * Optionally, the provided {@code planner} is used for more accurate costs
-    * for a subset of opponents.
+    * <p>Returns the cheapest cost with which an opponent reaches the {@code goal}.
+    * Opponents are ranked by {@code bound}; the exact {@code eta} is asked only
+    * for the nearest ones and only while their bound is below the cheapest exact
+    * cost found so far, so the result is exact and comparable with our own costs.
     *
     * @param goal target cell to evaluate
     * @param me our player (excluded from the opponent set)
     * @param model current game state providing the set of players
     * @param topLOpponents consider at most this many nearest opponents for
     * expensive re-evaluation (by cost)
-    * @param planner callback that returns a planned route to {@code goal}
-    * for a given player; may be ignored for some players
+    * @param bound callback that returns a lower bound of {@code eta}
+    * @param eta callback that returns the cost of a player's cheapest plan to
+    * {@code goal}, or {@link Double#POSITIVE_INFINITY} if there is none; not
+    * called for players that cannot beat a cost already found
     * @return a non-negative pressure value; larger means stronger opponent
     * competition/likelihood of interception
     *
-    * @implNote Internally this method uses Manhattan distance as a quick bound
-    * and compares it against our own estimated route cost plus a small
-    * slack. Opponents within that bound increment a counter that is
-    * finally scaled by a weight.
     */
     static double estimateOpponentCost(GridPos goal, Player me, GameStatusModel model, int topLOpponents,
-            Function<Player, AStarPathfinder.Result> planner) {
+            ToDoubleFunction<Player> bound, ToDoubleFunction<Player> eta) {
         ObservableMap<Integer, Player> players = model.getPlayers();
         if (players == null || players.isEmpty()) {
             return Double.POSITIVE_INFINITY;
@@ -66,21 +65,17 @@ final class OpponentHeuristics {
             }
             opps.add(p);
         }
-        opps.sort((a, b) -> {
-            int da = Math.abs(a.getxPosition() - goal.x()) + Math.abs(a.getyPosition() - goal.y());
-            int db = Math.abs(b.getxPosition() - goal.x()) + Math.abs(b.getyPosition() - goal.y());
-            return Integer.compare(da, db);
-        });
+        opps.sort(Comparator.comparingDouble(bound));
         if (opps.size() > topLOpponents) {
             opps = opps.subList(0, topLOpponents);
         }
 
         double best = Double.POSITIVE_INFINITY;
         for (Player player : opps) {
-            AStarPathfinder.Result route = planner.apply(player);
-            if (route != null && route.success() && !route.actions().isEmpty()) {
-                best = Math.min(best, route.cost());
+            if (bound.applyAsDouble(player) >= best) {
+                break; // sorted by bound: no later opponent beats best
             }
+            best = Math.min(best, eta.applyAsDouble(player));
         }
         return best;
     }
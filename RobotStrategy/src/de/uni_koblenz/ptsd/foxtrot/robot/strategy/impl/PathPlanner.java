@@ -0,0 +1,19 @@
+package de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl;
+
+/**
+ * The single-goal planner {@link SmartStrategy} uses, selected by
+ * {@link SmartTuning#planner}. Both return plans of the same, minimal cost;
+ * they differ only in how fast they find them on a given kind of maze.
+ */
+public enum PathPlanner {
+    /**
+     * Pose-space A* of {@link AStarPathfinder}, with its junction graph for
+     * long-range queries. Best in corridor mazes.
+     */
+    ASTAR,
+    /**
+     * Jump point search of {@link JumpPointPlanner}. Best in mazes with large
+     * open rooms.
+     */
+    JUMP_POINT
+}
@@ -0,0 +1,342 @@
+package de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl;
+
+import java.util.Arrays;
+import java.util.List;
+
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.Direction;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Maze;
+import de.uni_koblenz.ptsd.foxtrot.robot.strategy.Action;
+import de.uni_koblenz.ptsd.foxtrot.robot.strategy.GridPos;
+
+/**
+ * Cache of planned routes by start pose and goal, invalidated by epochs.
+ *
+ * <p>A cached {@link AStarPathfinder.Result} depends on two things: the maze it
+ * was planned on, and that none of the cells it walks through has since been
+ * found blocked. Each is tracked by an epoch instead of clearing the cache:
+ * <ul>
+ *   <li>The <b>maze epoch</b> advances when a different {@link Maze} is passed
+ *       in. Entries of an older maze epoch are never returned.</li>
+ *   <li>The <b>obstacle epoch</b> advances with every cell reported by
+ *       {@link #markBlocked(Maze, int, int)}; the last {@value #BLOCK_HISTORY}
+ *       blocked cells are remembered. An entry of an older obstacle epoch is
+ *       checked on lookup: if its route crosses none of the cells blocked
+ *       since, it is brought to the current epoch and returned, otherwise it is
+ *       dropped. Entries older than the remembered history are dropped as
+ *       well.</li>
+ * </ul>
+ * Events that change neither, such as a teleport or switching targets, leave
+ * the cache alone. Invalidated entries are removed when they are looked up;
+ * until then they take part in eviction like any other entry.
+ *
+ * <h2>Layout</h2>
+ * The key {@code (sx, sy, facing, gx, gy)} is packed into one {@code long}.
+ * Entries live in parallel primitive arrays of {@code capacity} slots; an
+ * open-addressing table with linear probing, at most a quarter full, maps
+ * packed keys to entry slots. A lookup therefore allocates nothing, and a hit
+ * writes only the entry's reference bit instead of relinking it as an LRU
+ * list would. When the cache is full, the CLOCK policy picks the entry to
+ * evict: a hand sweeps the entries, clearing reference bits, and evicts the
+ * first entry whose bit is already clear, an approximation of LRU. Keys
+ * removed from the table are closed up by shifting later keys of their probe
+ * run back. Poses and goals with a coordinate of {@value #MAX_COORDINATE} or
+ * more are not cached.
+ *
+ * <p>{@link #hits()}, {@link #misses()}, {@link #evictions()} and
+ * {@link #invalidations()} count what happened since construction, to size the
+ * cache. Not thread-safe.
+ */
+final class PlanCache {
+
+    /** Number of blocked cells remembered for revalidating older entries. */
+    static final int BLOCK_HISTORY = 64;
+    /** Coordinates must be below this to fit into a packed key. */
+    static final int MAX_COORDINATE = 1 << 13;
+
+    private static final int[] DX = { 0, 1, 0, -1 };
+    private static final int[] DY = { -1, 0, 1, 0 };
+    private static final long EMPTY = -1L;
+
+    private final int capacity;
+    private final int mask;
+    /** Shift that keeps the top bits of a scrambled key as the table slot. */
+    private final int shift;
+    /** Open-addressing table: packed key, or {@link #EMPTY}, and its entry. */
+    private final long[] tableKeys;
+    private final int[] tableEntries;
+    /** Entries, of which {@code [0, used)} have been handed out. */
+    private final long[] keys;
+    /** Table slot of each entry, kept up to date when keys shift. */
+    private final int[] slots;
+    private final AStarPathfinder.Result[] results;
+    private final long[] mazeEpochs;
+    private final long[] obstacleEpochs;
+    private final boolean[] referenced;
+    private int used;
+    /** Entries freed by invalidation, reused before any other. */
+    private final int[] free;
+    private int freeCount;
+    private int hand;
+    /** A key known not to be in the table, so that a put after a missed get probes only once. */
+    private long absent = EMPTY;
+
+    private Maze maze;
+    private long mazeEpoch;
+    private long obstacleEpoch;
+    /** Cell blocked at obstacle epoch {@code e} at index {@code e % BLOCK_HISTORY}. */
+    private final int[] blocked = new int[BLOCK_HISTORY];
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param capacity the number of routes kept; beyond that, CLOCK evicts one
+     *                 that was not looked up recently
+     */
+    PlanCache(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        int slots = Integer.highestOneBit(this.capacity * 8 - 1);
+        this.mask = slots - 1;
+        this.shift = Long.numberOfLeadingZeros(slots - 1);
+        this.tableKeys = new long[slots];
+        Arrays.fill(this.tableKeys, EMPTY);
+        this.tableEntries = new int[slots];
+        this.keys = new long[this.capacity];
+        this.slots = new int[this.capacity];
+        this.results = new AStarPathfinder.Result[this.capacity];
+        this.mazeEpochs = new long[this.capacity];
+        this.obstacleEpochs = new long[this.capacity];
+        this.referenced = new boolean[this.capacity];
+        this.free = new int[this.capacity];
+    }
+
+    /**
+     * Returns the cached route from {@code (x, y, facing)} to {@code goal} on
+     * {@code maze}, if there is a valid one.
+     *
+     * @return the route, or {@code null} on a miss
+     */
+    AStarPathfinder.Result get(Maze maze, int x, int y, Direction facing, GridPos goal) {
+        useMaze(maze);
+        long key = pack(x, y, facing, goal);
+        int slot = (key == EMPTY) ? -1 : find(key);
+        int entry = (slot < 0) ? -1 : tableEntries[slot];
+        if (entry >= 0 && !isValid(entry)) {
+            unlink(slot);
+            results[entry] = null;
+            free[freeCount++] = entry;
+            invalidations++;
+            entry = -1;
+        }
+        if (entry < 0) {
+            absent = key;
+            misses++;
+            return null;
+        }
+        hits++;
+        referenced[entry] = true;
+        return results[entry];
+    }
+
+    /**
+     * Stores the route from {@code (x, y, facing)} to {@code goal} on
+     * {@code maze}, valid for the current epochs.
+     */
+    void put(Maze maze, int x, int y, Direction facing, GridPos goal, AStarPathfinder.Result result) {
+        useMaze(maze);
+        long key = pack(x, y, facing, goal);
+        if (key == EMPTY) {
+            return;
+        }
+        int slot = (key == absent) ? -1 : find(key);
+        int entry;
+        if (slot >= 0) {
+            entry = tableEntries[slot];
+        } else {
+            if (freeCount > 0) {
+                entry = free[--freeCount];
+            } else if (used < capacity) {
+                entry = used++;
+            } else {
+                entry = evict();
+            }
+            slot = hash(key);
+            while (tableKeys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            tableKeys[slot] = key;
+            absent = EMPTY;
+            tableEntries[slot] = entry;
+            keys[entry] = key;
+            slots[entry] = slot;
+        }
+        results[entry] = result;
+        mazeEpochs[entry] = mazeEpoch;
+        obstacleEpochs[entry] = obstacleEpoch;
+        referenced[entry] = false;
+    }
+
+    /**
+     * Reports that cell {@code (x, y)} of {@code maze} was found blocked,
+     * usually by an opponent. Cached routes through it are invalidated; all
+     * others stay valid.
+     */
+    void markBlocked(Maze maze, int x, int y) {
+        useMaze(maze);
+        obstacleEpoch++;
+        blocked[(int) (obstacleEpoch % BLOCK_HISTORY)] = y * maze.getWidth() + x;
+    }
+
+    private void useMaze(Maze maze) {
+        if (maze != this.maze) {
+            this.maze = maze;
+            mazeEpoch++;
+        }
+    }
+
+    /**
+     * Packs a lookup into 55 bits: 13 bits per coordinate and 3 for the
+     * facing, where {@code 4} stands for {@code null}.
+     *
+     * @return the key, or {@link #EMPTY} if a coordinate does not fit
+     */
+    private static long pack(int x, int y, Direction facing, GridPos goal) {
+        int gx = goal.x();
+        int gy = goal.y();
+        if ((x | y | gx | gy) < 0 || Math.max(Math.max(x, y), Math.max(gx, gy)) >= MAX_COORDINATE) {
+            return EMPTY;
+        }
+        long dir = (facing == null) ? 4 : facing.ordinal();
+        return ((((((long) x << 13 | y) << 13 | gx) << 13) | gy) << 3) | dir;
+    }
+
+    /** Fibonacci hashing: the top bits of the key times 2^64 divided by the golden ratio. */
+    private int hash(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    /** @return the slot holding {@code key}, or {@code -1} */
+    private int find(long key) {
+        for (int slot = hash(key);; slot = (slot + 1) & mask) {
+            long k = tableKeys[slot];
+            if (k == key) {
+                return slot;
+            }
+            if (k == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Evicts one entry chosen by CLOCK, the first one the hand finds without
+     * its reference bit. Only called when every entry is in use.
+     *
+     * @return the freed entry
+     */
+    private int evict() {
+        while (true) {
+            hand = (hand + 1 == capacity) ? 0 : hand + 1;
+            if (referenced[hand]) {
+                referenced[hand] = false;
+            } else {
+                unlink(slots[hand]);
+                evictions++;
+                return hand;
+            }
+        }
+    }
+
+    /** Empties table {@code slot} and shifts later keys of its probe run back so that lookups still find them. */
+    private void unlink(int slot) {
+        int gap = slot;
+        for (int next = (gap + 1) & mask; tableKeys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = hash(tableKeys[next]);
+            // Move the key into the gap unless its home lies cyclically in (gap, next].
+            boolean stays = (gap <= next) ? (gap < home && home <= next) : (gap < home || home <= next);
+            if (!stays) {
+                tableKeys[gap] = tableKeys[next];
+                tableEntries[gap] = tableEntries[next];
+                slots[tableEntries[gap]] = gap;
+                gap = next;
+            }
+        }
+        tableKeys[gap] = EMPTY;
+    }
+
+    private boolean isValid(int entry) {
+        if (mazeEpochs[entry] != mazeEpoch) {
+            return false;
+        }
+        long since = obstacleEpochs[entry];
+        if (since == obstacleEpoch) {
+            return true;
+        }
+        if (obstacleEpoch - since > BLOCK_HISTORY || crossesBlocked(results[entry].actions(), keys[entry], since)) {
+            return false;
+        }
+        obstacleEpochs[entry] = obstacleEpoch;
+        return true;
+    }
+
+    /** Whether the route from the key's pose enters a cell blocked after obstacle epoch {@code since}. */
+    private boolean crossesBlocked(List<Action> actions, long key, long since) {
+        int width = maze.getWidth();
+        int dir = (int) (key & 7) & 3;
+        int x = (int) (key >>> 42) & (MAX_COORDINATE - 1);
+        int y = (int) (key >>> 29) & (MAX_COORDINATE - 1);
+        for (int i = 0; i < actions.size(); i++) {
+            switch (actions.get(i)) {
+            case TURN_LEFT -> dir = (dir + 3) & 3;
+            case TURN_RIGHT -> dir = (dir + 1) & 3;
+            case STEP -> {
+                x += DX[dir];
+                y += DY[dir];
+                int cell = y * width + x;
+                for (long e = since + 1; e <= obstacleEpoch; e++) {
+                    if (blocked[(int) (e % BLOCK_HISTORY)] == cell) {
+                        return true;
+                    }
+                }
+            }
+            default -> {
+            }
+            }
+        }
+        return false;
+    }
+
+    /** @return the number of routes kept at most */
+    int capacity() {
+        return capacity;
+    }
+
+    /** @return the number of entries, including invalidated ones not looked up since */
+    int size() {
+        return used - freeCount;
+    }
+
+    /** @return lookups answered from the cache */
+    long hits() {
+        return hits;
+    }
+
+    /** @return lookups not answered from the cache, including those of invalidated entries */
+    long misses() {
+        return misses;
+    }
+
+    /** @return entries dropped because the cache was full */
+    long evictions() {
+        return evictions;
+    }
+
+    /** @return entries dropped on lookup because their maze or a cell on their route changed */
+    long invalidations() {
+        return invalidations;
+    }
+}
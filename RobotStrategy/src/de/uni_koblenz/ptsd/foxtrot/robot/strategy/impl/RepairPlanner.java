@@ -0,0 +1,355 @@
+package de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.Direction;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Maze;
+import de.uni_koblenz.ptsd.foxtrot.robot.strategy.Action;
+import de.uni_koblenz.ptsd.foxtrot.robot.strategy.GridPos;
+
+/**
+ * Incremental replanning with D* Lite for plans whose next step was blocked.
+ *
+ * <p>When a step fails, usually because an opponent stands in the cell ahead,
+ * {@link SmartStrategy} asks this planner for a new plan to the same goal. The
+ * blocked cell is made temporarily expensive: entering it costs
+ * {@link #BLOCK_PENALTY} half-units per failed step on top of the step itself,
+ * so the plan walks around the blocker when a detour is cheap and waits for it
+ * to move otherwise.
+ *
+ * <h2>D* Lite</h2>
+ * The planner searches backwards from the goal over the same poses and costs
+ * as {@link AStarPathfinder}: {@code g} holds the cost from a pose to the goal
+ * as far as it is known, {@code rhs} the one-step lookahead
+ * {@code min(cost(s, s') + g(s'))} over the successors {@code s'}. The search
+ * expands inconsistent poses, those with {@code g != rhs}, in order of their
+ * key {@code min(g, rhs)} plus a Manhattan bound from the robot, until the
+ * robot's pose is consistent. Both arrays are kept between calls for the same
+ * maze and goal. When the blocked cell or its penalty changes, only the four
+ * poses stepping into it are updated and the search resumes from there; the
+ * robot having moved in the meantime is accounted for by raising all keys by
+ * the bound between its old and new cell. Only the part of the search that
+ * depended on the changed costs is expanded again.
+ *
+ * <p>The first call for a new goal runs the whole backward search. Calls for
+ * another goal or maze start over. The priority queue keeps stale entries and
+ * skips them when they come up instead of updating entries in place.
+ *
+ * <p>Instances are not thread-safe; {@link SmartStrategy} keeps one.
+ */
+final class RepairPlanner {
+
+    /** Extra half-units charged for entering the blocked cell, per failed step into it. */
+    static final int BLOCK_PENALTY = 16;
+
+    /** 4-neighborhood step deltas in order N, E, S, W. */
+    private static final int[] DX = { 0, 1, 0, -1 };
+    private static final int[] DY = { -1, 0, 1, 0 };
+
+    private static final int UNITS_STEP = 2;
+    private static final int UNITS_TURN = 1;
+    private static final double UNIT = AStarPathfinder.COST_TURN;
+    private static final int INFINITE = Integer.MAX_VALUE / 4;
+
+    private Maze maze;
+    private int width;
+    private int goalCell = -1;
+    /** Known cost to the goal per pose {@code (y * width + x) * 4 + direction}. */
+    private int[] g = new int[0];
+    /** One-step lookahead of {@link #g} per pose. */
+    private int[] rhs = new int[0];
+    /** Offset added to all keys for the robot's moves since the search started. */
+    private int km;
+    private int lastStart = -1;
+    private int blockedCell = -1;
+    private int penalty;
+
+    /** Binary min-heap of keys {@code k1 << 32 | k2} with their poses. */
+    private long[] keys = new long[64];
+    private int[] states = new int[64];
+    private int size;
+
+    private int lastExpansions;
+    private int lastCost = INFINITE;
+
+    /**
+     * Plans from {@code start} to {@code goal} with the cell ahead of
+     * {@code start} blocked, reusing the search of the previous call if it was
+     * for the same maze and goal.
+     *
+     * @param maze        the environment grid
+     * @param start       the robot's pose; the cell it faces is the blocked one
+     * @param goal        goal cell
+     * @param failedSteps how many steps into the blocked cell failed in a row;
+     *                    entering it costs {@link #BLOCK_PENALTY} half-units per
+     *                    failed step, {@code 0} lifts the block
+     * @return the cheapest plan under the penalty, with its cost without the
+     *         penalty; {@link AStarPathfinder.Result#EMPTY} if there is none or
+     *         {@code start} is on the goal cell
+     */
+    AStarPathfinder.Result repair(Maze maze, AStarPathfinder.Pose start, GridPos goal, int failedSteps) {
+        lastExpansions = 0;
+        lastCost = INFINITE;
+        if (maze == null || start == null || goal == null || !maze.isWalkable(start.x(), start.y())
+                || !maze.isWalkable(goal.x(), goal.y()) || (start.x() == goal.x() && start.y() == goal.y())) {
+            return AStarPathfinder.Result.EMPTY;
+        }
+        if (maze != this.maze || goal.y() * maze.getWidth() + goal.x() != goalCell) {
+            reset(maze, goal.y() * maze.getWidth() + goal.x());
+        }
+        int dir = AStarPathfinder.index((start.facing() != null) ? start.facing() : Direction.N);
+        int startState = (start.y() * width + start.x()) * 4 + dir;
+        if (lastStart >= 0) {
+            km += bound(lastStart >> 2, startState >> 2);
+        }
+        lastStart = startState;
+
+        int ahead = -1;
+        int nx = start.x() + DX[dir];
+        int ny = start.y() + DY[dir];
+        if (failedSteps > 0 && maze.isWalkable(nx, ny)) {
+            ahead = ny * width + nx;
+        }
+        int newPenalty = (ahead >= 0) ? failedSteps * BLOCK_PENALTY : 0;
+        if (ahead != blockedCell || newPenalty != penalty) {
+            int previous = blockedCell;
+            blockedCell = ahead;
+            penalty = newPenalty;
+            if (previous >= 0) {
+                updateStepsInto(previous);
+            }
+            if (ahead >= 0) {
+                updateStepsInto(ahead);
+            }
+        }
+
+        computeShortestPath(startState);
+        return extract(startState);
+    }
+
+    private void reset(Maze maze, int goal) {
+        this.maze = maze;
+        this.width = maze.getWidth();
+        this.goalCell = goal;
+        int poses = width * maze.getHeight() * 4;
+        if (g.length != poses) {
+            g = new int[poses];
+            rhs = new int[poses];
+        }
+        Arrays.fill(g, INFINITE);
+        Arrays.fill(rhs, INFINITE);
+        size = 0;
+        km = 0;
+        lastStart = -1;
+        blockedCell = -1;
+        penalty = 0;
+        for (int d = 0; d < 4; d++) {
+            rhs[goal * 4 + d] = 0;
+            push(goal * 4 + d, 0L);
+        }
+    }
+
+    /** Cost of stepping into {@code cell}, including its penalty if it is the blocked one. */
+    private int stepCost(int cell) {
+        return (cell == blockedCell) ? UNITS_STEP + penalty : UNITS_STEP;
+    }
+
+    /** Manhattan bound in half-units between two cells. */
+    private int bound(int from, int to) {
+        return (Math.abs(from % width - to % width) + Math.abs(from / width - to / width)) * UNITS_STEP;
+    }
+
+    private long key(int state, int startCell) {
+        int best = Math.min(g[state], rhs[state]);
+        return ((long) (best + bound(startCell, state >> 2) + km) << 32) | best;
+    }
+
+    /** Updates the poses whose step leads into {@code cell} after its cost changed. */
+    private void updateStepsInto(int cell) {
+        int x = cell % width;
+        int y = cell / width;
+        for (int d = 0; d < 4; d++) {
+            int px = x - DX[d];
+            int py = y - DY[d];
+            if (maze.isWalkable(px, py)) {
+                updateVertex((py * width + px) * 4 + d, lastStart >> 2);
+            }
+        }
+    }
+
+    private void updateVertex(int state, int startCell) {
+        int cell = state >> 2;
+        if (cell != goalCell) {
+            int dir = state & 3;
+            int base = cell * 4;
+            int best = Math.min(UNITS_TURN + g[base + ((dir + 1) & 3)], UNITS_TURN + g[base + ((dir + 3) & 3)]);
+            int nx = cell % width + DX[dir];
+            int ny = cell / width + DY[dir];
+            if (maze.isWalkable(nx, ny)) {
+                int next = ny * width + nx;
+                best = Math.min(best, stepCost(next) + g[next * 4 + dir]);
+            }
+            rhs[state] = Math.min(best, INFINITE);
+        }
+        if (g[state] != rhs[state]) {
+            push(state, key(state, startCell));
+        }
+    }
+
+    /** Updates the predecessors of {@code state}: the two turns onto it and the step into it. */
+    private void updatePredecessors(int state, int startCell) {
+        int cell = state >> 2;
+        int dir = state & 3;
+        int base = cell * 4;
+        updateVertex(base + ((dir + 1) & 3), startCell);
+        updateVertex(base + ((dir + 3) & 3), startCell);
+        int px = cell % width - DX[dir];
+        int py = cell / width - DY[dir];
+        if (maze.isWalkable(px, py)) {
+            updateVertex((py * width + px) * 4 + dir, startCell);
+        }
+    }
+
+    private void computeShortestPath(int startState) {
+        int startCell = startState >> 2;
+        int expansions = 0;
+        while (size > 0) {
+            long top = keys[0];
+            if (top >= key(startState, startCell) && g[startState] == rhs[startState]) {
+                break;
+            }
+            int state = states[0];
+            pop();
+            if (g[state] == rhs[state]) {
+                continue; // stale entry of a pose that became consistent
+            }
+            long current = key(state, startCell);
+            if (top < current) {
+                push(state, current); // key grew since the entry was made
+                continue;
+            }
+            if (top > current) {
+                continue; // stale entry, the pose was queued again with a smaller key
+            }
+            expansions++;
+            if (g[state] > rhs[state]) {
+                g[state] = rhs[state];
+            } else {
+                g[state] = INFINITE;
+                updateVertex(state, startCell);
+            }
+            updatePredecessors(state, startCell);
+        }
+        lastExpansions = expansions;
+    }
+
+    /** Follows the cheapest successors from {@code startState} to the goal. */
+    private AStarPathfinder.Result extract(int startState) {
+        if (g[startState] >= INFINITE) {
+            return AStarPathfinder.Result.EMPTY;
+        }
+        lastCost = g[startState];
+        ArrayList<Action> actions = new ArrayList<>();
+        int state = startState;
+        for (int guard = g.length; (state >> 2) != goalCell && guard > 0; guard--) {
+            int cell = state >> 2;
+            int dir = state & 3;
+            int best = state;
+            int bestCost = INFINITE;
+            int nx = cell % width + DX[dir];
+            int ny = cell / width + DY[dir];
+            if (maze.isWalkable(nx, ny)) {
+                int next = ny * width + nx;
+                best = next * 4 + dir;
+                bestCost = stepCost(next) + g[best];
+            }
+            int right = cell * 4 + ((dir + 1) & 3);
+            int left = cell * 4 + ((dir + 3) & 3);
+            if (UNITS_TURN + g[right] < bestCost) {
+                best = right;
+                bestCost = UNITS_TURN + g[right];
+            }
+            if (UNITS_TURN + g[left] < bestCost) {
+                best = left;
+                bestCost = UNITS_TURN + g[left];
+            }
+            if (bestCost >= INFINITE) {
+                return AStarPathfinder.Result.EMPTY;
+            }
+            actions.add((best >> 2) == cell ? AStarPathfinder.actionBetween(state, best) : Action.STEP);
+            state = best;
+        }
+        if ((state >> 2) != goalCell) {
+            return AStarPathfinder.Result.EMPTY;
+        }
+        List<Action> plan = List.copyOf(actions);
+        return new AStarPathfinder.Result(plan, AStarPathfinder.costOf(plan), true);
+    }
+
+    private void push(int state, long key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            states = Arrays.copyOf(states, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            keys[i] = keys[parent];
+            states[i] = states[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        states[i] = state;
+    }
+
+    private void pop() {
+        long key = keys[--size];
+        int state = states[size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            keys[i] = keys[child];
+            states[i] = states[child];
+            i = child;
+        }
+        if (size > 0) {
+            keys[i] = key;
+            states[i] = state;
+        }
+    }
+
+    /**
+     * Returns the number of poses expanded by the most recent call to
+     * {@link #repair(Maze, AStarPathfinder.Pose, GridPos, int)}; far fewer than
+     * a fresh search needs when only the block changed.
+     *
+     * @return the expansion count of the last repair
+     */
+    int lastExpansions() {
+        return lastExpansions;
+    }
+
+    /**
+     * Returns the cost of the most recent plan including the penalty of the
+     * blocked cell, which is what the plan minimizes.
+     *
+     * @return the penalized cost, {@link Double#POSITIVE_INFINITY} if there was no plan
+     */
+    double lastPenalizedCost() {
+        return (lastCost >= INFINITE) ? Double.POSITIVE_INFINITY : lastCost * UNIT;
+    }
+}
@@ -0,0 +1,57 @@
+package de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl;
+
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.Direction;
+
+/**
+ * Cheapest costs from every pose of a maze to one goal cell.
+ *
+ * <p>A reverse field is the result of a single search that starts at the goal
+ * and follows the moves backwards (see
+ * {@link AStarPathfinder#reverseDistanceField(de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Maze, de.uni_koblenz.ptsd.foxtrot.robot.strategy.GridPos)}).
+ * Afterwards the time any player needs to reach the goal is one array lookup,
+ * so estimating the arrival of all opponents costs one search per goal instead
+ * of one per opponent and goal.
+ *
+ * <p>Costs are those of
+ * {@link AStarPathfinder#plan(de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Maze, AStarPathfinder.Pose, de.uni_koblenz.ptsd.foxtrot.robot.strategy.GridPos)}
+ * for the same pose and goal. As there, a pose on the goal cell has no plan.
+ * The field only depends on the maze, so it stays valid for as long as the maze
+ * does not change, whatever the players do.
+ */
+final class ReverseDistanceField {
+
+    private final int width;
+    private final int height;
+    private final int goalCell;
+    /** Cost per pose {@code (y * width + x) * 4 + facing} in half-units; {@link Integer#MAX_VALUE} if the goal is unreachable. */
+    private final int[] cost;
+    private final double unit;
+
+    ReverseDistanceField(int width, int height, int goalCell, int[] cost, double unit) {
+        this.width = width;
+        this.height = height;
+        this.goalCell = goalCell;
+        this.cost = cost;
+        this.unit = unit;
+    }
+
+    /**
+     * Returns the cost of the cheapest plan from the given pose to the goal.
+     *
+     * @param x      grid x-coordinate of the pose
+     * @param y      grid y-coordinate of the pose
+     * @param facing facing of the pose; {@code null} is treated as {@link Direction#N}
+     * @return the plan cost, or {@link Double#POSITIVE_INFINITY} if there is no plan
+     */
+    double costFrom(int x, int y, Direction facing) {
+        if (x < 0 || y < 0 || x >= this.width || y >= this.height) {
+            return Double.POSITIVE_INFINITY;
+        }
+        int cell = y * this.width + x;
+        if (cell == this.goalCell) {
+            return Double.POSITIVE_INFINITY;
+        }
+        int c = this.cost[cell * 4 + ((facing != null) ? facing.ordinal() : 0)];
+        return c == Integer.MAX_VALUE ? Double.POSITIVE_INFINITY : c * this.unit;
+    }
+}
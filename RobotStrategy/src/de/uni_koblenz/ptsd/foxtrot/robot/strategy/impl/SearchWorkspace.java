@@ -0,0 +1,206 @@
+package de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl;
+
+import java.util.Arrays;
+
+/**
+ * Reusable scratch memory for the grid searches of {@link AStarPathfinder}.
+ *
+ * <p>One workspace exists per thread (see {@link #current()}) and is reused by
+ * every search on that thread, so a search in steady state allocates nothing.
+ * The arrays only grow when a larger maze is planned on.
+ *
+ * <h2>Generation stamps</h2>
+ * Instead of clearing the visited set before each search, every search starts
+ * a new generation with {@link #begin(int)}. A node counts as visited only if its
+ * stamp equals the current generation, so the per-node {@link #cost(int)} and
+ * {@link #parent(int)} entries of older searches are ignored without touching
+ * them. The stamps are cleared only when the generation counter wraps around.
+ *
+ * <h2>Queues</h2>
+ * The workspace offers an {@code int} ring queue for BFS and a binary min-heap
+ * of packed {@code long} entries for A*. Each search uses one of them.
+ *
+ * <h2>Distance field arrays</h2>
+ * A {@link DistanceField} outlives the search that built it, so its cost and
+ * parent arrays are not part of the per-search state. A field that is no longer
+ * needed hands them back with {@link DistanceField#release()}, and the next
+ * field built on this thread reuses them instead of allocating.
+ *
+ * <p>Instances are confined to their thread and are not thread-safe.
+ */
+final class SearchWorkspace {
+
+    private static final ThreadLocal<SearchWorkspace> CURRENT = ThreadLocal.withInitial(SearchWorkspace::new);
+
+    private int[] stamp = new int[0];
+    private int[] cost = new int[0];
+    private int[] parent = new int[0];
+    private int generation;
+
+    private int[] queue = new int[16];
+    private int queueHead;
+    private int queueTail;
+
+    private long[] heap = new long[64];
+    private int heapSize;
+
+    private int[] spareFieldCost;
+    private int[] spareFieldParent;
+
+    /**
+     * Returns the workspace of the calling thread.
+     *
+     * @return the thread's workspace
+     */
+    static SearchWorkspace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Starts a new search over {@code nodes} node indices: grows the arrays if
+     * needed, invalidates all nodes and empties both queues.
+     *
+     * @param nodes number of distinct node indices the search may use
+     */
+    void begin(int nodes) {
+        if (this.stamp.length < nodes) {
+            int capacity = Math.max(nodes, this.stamp.length * 2);
+            this.stamp = new int[capacity];
+            this.cost = new int[capacity];
+            this.parent = new int[capacity];
+            this.generation = 0;
+        }
+        if (++this.generation == 0) {
+            Arrays.fill(this.stamp, 0);
+            this.generation = 1;
+        }
+        if (this.queue.length < nodes) {
+            this.queue = new int[Integer.highestOneBit(nodes) << 1];
+        }
+        this.queueHead = 0;
+        this.queueTail = 0;
+        this.heapSize = 0;
+    }
+
+    /** Returns whether {@code node} was reached in the current search. */
+    boolean visited(int node) {
+        return this.stamp[node] == this.generation;
+    }
+
+    /** Records {@code node} as reached with the given cost and predecessor. */
+    void visit(int node, int nodeCost, int parentNode) {
+        this.stamp[node] = this.generation;
+        this.cost[node] = nodeCost;
+        this.parent[node] = parentNode;
+    }
+
+    /** Returns the cost recorded for {@code node}, or {@link Integer#MAX_VALUE} if it was not reached. */
+    int cost(int node) {
+        return this.stamp[node] == this.generation ? this.cost[node] : Integer.MAX_VALUE;
+    }
+
+    /** Returns the predecessor recorded for a reached {@code node}; {@code -1} marks the start. */
+    int parent(int node) {
+        return this.parent[node];
+    }
+
+    // ---- ring queue (BFS) ----
+
+    void enqueue(int node) {
+        this.queue[this.queueTail] = node;
+        this.queueTail = (this.queueTail + 1) & (this.queue.length - 1);
+    }
+
+    int dequeue() {
+        int node = this.queue[this.queueHead];
+        this.queueHead = (this.queueHead + 1) & (this.queue.length - 1);
+        return node;
+    }
+
+    boolean queueEmpty() {
+        return this.queueHead == this.queueTail;
+    }
+
+    // ---- min-heap (A*) ----
+
+    /**
+     * Adds an open-list entry. The priority goes into the upper and the node
+     * into the lower 32 bits, so ordering by the {@code long} orders by priority.
+     */
+    void push(int priority, int node) {
+        if (this.heapSize == this.heap.length) {
+            this.heap = Arrays.copyOf(this.heap, this.heapSize * 2);
+        }
+        long entry = ((long) priority << 32) | (node & 0xFFFFFFFFL);
+        long[] h = this.heap;
+        int i = this.heapSize++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (h[up] <= entry) {
+                break;
+            }
+            h[i] = h[up];
+            i = up;
+        }
+        h[i] = entry;
+    }
+
+    /** Removes and returns the entry with the smallest priority. */
+    long pop() {
+        long[] h = this.heap;
+        long top = h[0];
+        int size = --this.heapSize;
+        long last = h[size];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && h[child + 1] < h[child]) {
+                child++;
+            }
+            if (last <= h[child]) {
+                break;
+            }
+            h[i] = h[child];
+            i = child;
+        }
+        h[i] = last;
+        return top;
+    }
+
+    boolean heapEmpty() {
+        return this.heapSize == 0;
+    }
+
+    // ---- distance field arrays ----
+
+    /** Returns a released cost array of at least {@code states} entries, or a new one. */
+    int[] takeFieldCost(int states) {
+        int[] array = this.spareFieldCost;
+        if (array == null || array.length < states) {
+            return new int[states];
+        }
+        this.spareFieldCost = null;
+        return array;
+    }
+
+    /** Returns a released parent array of at least {@code states} entries, or a new one. */
+    int[] takeFieldParent(int states) {
+        int[] array = this.spareFieldParent;
+        if (array == null || array.length < states) {
+            return new int[states];
+        }
+        this.spareFieldParent = null;
+        return array;
+    }
+
+    /** Keeps the arrays of a released field for the next one; the larger arrays win. */
+    void releaseField(int[] cost, int[] parent) {
+        if (this.spareFieldCost == null || this.spareFieldCost.length < cost.length) {
+            this.spareFieldCost = cost;
+        }
+        if (this.spareFieldParent == null || this.spareFieldParent.length < parent.length) {
+            this.spareFieldParent = parent;
+        }
+    }
+}
@@ -4,10 +4,12 @@ import java.util.ArrayDeque;
 import java.util.List;
 import java.util.Deque;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.BaitType;
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.Direction;
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Bait;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.DistanceTable;
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.GameStatusModel;
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Maze;
 import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Player;
@@ -31,7 +33,11 @@ import javafx.collections.ObservableMap;
 * <h2>Pipeline</h2>
 * <ol>
 * <li><b>Primary candidate:</b> Determine the most promising target under the current
-* objective (e.g., closest gem). Plan a route using {@link AStarPathfinder}.</li>
+* objective (e.g., closest gem). Routes already in the plan cache are reused.
+* Candidates that {@link #planFor} would route with the hierarchical or the
+* jump point planner are planned with it; the routes to all others are read
+* from one {@link DistanceField} computed by {@link AStarPathfinder} from our
+* pose.</li>
 * <li><b>Interception (optional):</b> If enabled via {@link SmartTuning}, call
 * {@link InterceptPlanner} to check if we can beat an opponent to a gem by
 * heading to a nearby intercept cell.</li>
@@ -42,6 +48,11 @@ import javafx.collections.ObservableMap;
 * Only switch if it is sufficiently better and cooldown permits.</li>
 * </ol>
 *
+* <h2>Blocked steps</h2>
+* <p>When a step fails, usually because an opponent stands in the cell ahead,
+* the current plan is repaired by {@link RepairPlanner} around the blocked cell
+* instead of replanning and dropping the cached routes.</p>
+*
 * <h2>Thread-safety</h2>
 * <p>This class is not thread-safe. Create one instance per controlled player or
 * guard external access.</p>
@@ -74,14 +85,28 @@ public final class SmartStrategy implements Strategy {
 
     private final boolean ENABLE_EXPLORATION;
 
+    private final boolean DEBUG;
+
     // helpers
     private final SmartTuning tuning;
     private final AStarPathfinder pathfinder;
+    // Only set if the tuning selects jump point search for single-goal plans.
+    private final JumpPointPlanner jumpPoints;
     private final ExplorationPlanner exploration;
     private final InterceptPlanner intercept;
     private final HysteresisController hysteresis;
-
-    private final LruCache<PlanKey, AStarPathfinder.Result> planCache = new LruCache<>(256);
+    private final RepairPlanner repair = new RepairPlanner();
+
+    // Routes stay valid until the maze changes or a cell on them is found blocked.
+    private final PlanCache planCache = new PlanCache(PLAN_CACHE_SIZE);
+    // Reverse fields only depend on the maze; they are dropped when a new maze arrives.
+    private final LruCache<GridPos, ReverseDistanceField> etaFields = new LruCache<>(ETA_FIELD_CACHE_SIZE);
+    private Maze etaFieldMaze;
+    private DistanceTable reportedTable;
+    // Hierarchy of the current maze if it is large; built in the background when the maze arrives.
+    private CompletableFuture<HierarchicalPlanner> hierarchy;
+    private Maze hierarchyMaze;
+    private HierarchicalPlanner reportedHierarchy;
 
     // dynamic state
     private GridPos lastPos;
@@ -96,12 +121,17 @@ public final class SmartStrategy implements Strategy {
     private int stuckTicks;
     private int lrOscCount;
 
-    private static final boolean DEBUG = true;
+    /** Goals whose reverse distance field is kept; each holds four ints per maze cell. */
+    private static final int ETA_FIELD_CACHE_SIZE = 32;
+    /** Hierarchical plans between two reports of their latency. */
+    private static final int HIERARCHY_REPORT_INTERVAL = 256;
+    /** Routes kept in the plan cache. */
+    private static final int PLAN_CACHE_SIZE = 256;
+    /** Plan cache lookups between two reports of its counters. */
+    private static final int PLAN_CACHE_REPORT_INTERVAL = 1024;
 
     static final record Candidate(Target target, List<Action> actions, double cost, double score) {}
 
-    private static final record PlanKey(int sx, int sy, int dirOrdinal, int gx, int gy) {}
-
     private static boolean isBetter(Candidate candidate, Candidate incumbent) {
         if (candidate == null) {
             return false;
@@ -181,6 +211,7 @@ public final class SmartStrategy implements Strategy {
     SmartStrategy(AStarPathfinder pathfinder, SmartTuning tuning) {
         this.pathfinder = Objects.requireNonNull(pathfinder);
         this.tuning = (tuning != null) ? tuning : SmartTuning.defaults();
+        this.jumpPoints = (this.tuning.planner == PathPlanner.JUMP_POINT) ? new JumpPointPlanner() : null;
         this.exploration = new ExplorationPlanner(this);
         this.intercept = new InterceptPlanner(this, this.tuning);
         this.hysteresis = new HysteresisController(this.tuning.replanCooldownTicks, this.tuning.scoreDeltaMin,
@@ -199,6 +230,7 @@ public final class SmartStrategy implements Strategy {
         this.ENABLE_TELEPORT_GUARD = this.tuning.enableTeleportGuard;
         this.TELEPORT_JUMP_THRESHOLD = this.tuning.teleportJumpThreshold;
         this.ENABLE_EXPLORATION = this.tuning.enableExploration;
+        this.DEBUG = this.tuning.debugLogging;
     }
 
     @Override
@@ -207,6 +239,10 @@ public final class SmartStrategy implements Strategy {
             return Action.IDLE;
         }
 
+        if (jumpPoints == null && model.getMaze() != null) {
+            // Build the junction graph of a new maze in the background before the first long-range plan.
+            pathfinder.prepare(model.getMaze());
+        }
         GridPos nowPos = new GridPos(me.getxPosition(), me.getyPosition());
         Direction nowDir = me.getDirection();
 
@@ -224,8 +260,12 @@ public final class SmartStrategy implements Strategy {
                 System.out.println("[SmartStrategy] STUCK after " + lastAction + " at " + nowPos.x() + ","
                         + nowPos.y() + " dir=" + nowDir + " (cnt=" + stuckTicks + ")");
             }
-            invalidateCachedPlans();
-            planNext(model, me);
+            if (lastAction == Action.STEP && nowDir != null && model.getMaze() != null) {
+                planCache.markBlocked(model.getMaze(), nowPos.x() + stepX(nowDir), nowPos.y() + stepY(nowDir));
+            }
+            if (!repairBlockedStep(model, me)) {
+                planNext(model, me);
+            }
         } else {
             stuckTicks = 0;
         }
@@ -238,7 +278,6 @@ public final class SmartStrategy implements Strategy {
                 if (DEBUG) {
                     System.out.println("[SmartStrategy] REPLAN (teleport jump=" + jump + ")");
                 }
-                invalidateCachedPlans();
                 planNext(model, me);
             }
         }
@@ -256,7 +295,6 @@ public final class SmartStrategy implements Strategy {
                     System.out.println("[SmartStrategy] REPLAN (opponent ETA better: " + oppBest + " + " + dynMargin
                             + ")");
                 }
-                invalidateCachedPlans();
                 planNext(model, me);
             }
         }
@@ -284,7 +322,6 @@ public final class SmartStrategy implements Strategy {
                 if (DEBUG) {
                     System.out.println("[SmartStrategy] LR-oscillation -> REPLAN");
                 }
-                invalidateCachedPlans();
                 planNext(model, me);
                 if (!currentPlan.isEmpty()) {
                     next = currentPlan.pollFirst();
@@ -360,8 +397,45 @@ public final class SmartStrategy implements Strategy {
         }
     }
 
-    private void invalidateCachedPlans() {
-        planCache.clear();
+    /**
+     * Repairs the current plan after a step into the cell ahead failed, keeping
+     * the target: the cell is treated as temporarily costly, more so with every
+     * failed step, and the {@link RepairPlanner} updates only the part of its
+     * search that depended on it.
+     *
+     * @return whether the plan was repaired; if not, the caller replans from scratch
+     */
+    private boolean repairBlockedStep(GameStatusModel model, Player me) {
+        if (lastAction != Action.STEP || currentTarget == null || model.getMaze() == null) {
+            return false;
+        }
+        AStarPathfinder.Pose pose = new AStarPathfinder.Pose(me.getxPosition(), me.getyPosition(), me.getDirection());
+        AStarPathfinder.Result repaired = repair.repair(model.getMaze(), pose, currentTarget.pos(), stuckTicks);
+        if (!repaired.success() || repaired.actions().isEmpty()) {
+            return false;
+        }
+        currentPlan = new ArrayDeque<>(repaired.actions());
+        if (DEBUG) {
+            System.out.println("[SmartStrategy] REPAIR (expanded=" + repair.lastExpansions() + " planLen="
+                    + currentPlan.size() + " cost=" + repaired.cost() + ")");
+        }
+        return true;
+    }
+
+    private static int stepX(Direction dir) {
+        return switch (dir) {
+        case E -> 1;
+        case W -> -1;
+        default -> 0;
+        };
+    }
+
+    private static int stepY(Direction dir) {
+        return switch (dir) {
+        case S -> 1;
+        case N -> -1;
+        default -> 0;
+        };
     }
 
     private Candidate selectBestTarget(GameStatusModel model, Player me) {
@@ -377,18 +451,49 @@ public final class SmartStrategy implements Strategy {
             }
             pre.add(bait);
         }
-        pre.sort((b1, b2) -> {
-            int d1 = Math.abs(me.getxPosition() - b1.getxPosition()) + Math.abs(me.getyPosition() - b1.getyPosition());
-            int d2 = Math.abs(me.getxPosition() - b2.getxPosition()) + Math.abs(me.getyPosition() - b2.getyPosition());
-            return Integer.compare(d1, d2);
-        });
+        DistanceTable table = model.getDistanceTable();
+        pre.sort((b1, b2) -> Integer.compare(preselectDistance(table, me, b1), preselectDistance(table, me, b2)));
         if (pre.size() > TOP_K_BAITS) {
             pre = pre.subList(0, TOP_K_BAITS);
         }
 
+        Maze maze = model.getMaze();
+        if (maze == null) {
+            return null;
+        }
+        // Cached routes first, then the planner planFor would pick; one search
+        // from our pose serves all candidates left to the grid search.
+        AStarPathfinder.Pose pose = new AStarPathfinder.Pose(me.getxPosition(), me.getyPosition(), me.getDirection());
+        HierarchicalPlanner hierarchical = hierarchyFor(maze);
+        AStarPathfinder.Result[] routes = new AStarPathfinder.Result[pre.size()];
+        java.util.List<GridPos> misses = new java.util.ArrayList<>(pre.size());
+        for (int i = 0; i < pre.size(); i++) {
+            GridPos goal = new GridPos(pre.get(i).getxPosition(), pre.get(i).getyPosition());
+            routes[i] = cachedRoute(maze, me, goal);
+            if (routes[i] == null) {
+                if (plansOnGrid(hierarchical, pose, goal)) {
+                    misses.add(goal);
+                } else {
+                    routes[i] = plan(maze, hierarchical, pose, goal);
+                }
+            }
+        }
+        if (!misses.isEmpty()) {
+            DistanceField field = distanceFieldFor(me, misses, model);
+            for (int i = 0, miss = 0; i < routes.length; i++) {
+                if (routes[i] == null) {
+                    GridPos goal = misses.get(miss++);
+                    routes[i] = (field != null) ? routeFrom(field, maze, me, goal) : plan(maze, null, pose, goal);
+                }
+            }
+            if (field != null) {
+                field.release();
+            }
+        }
+
         Candidate best = null;
-        for (Bait bait : pre) {
-            Candidate cand = evaluateCandidate(bait, me, model);
+        for (int i = 0; i < routes.length; i++) {
+            Candidate cand = evaluateCandidate(pre.get(i), routes[i], me, model);
             if (cand == null) {
                 continue;
             }
@@ -399,12 +504,23 @@ public final class SmartStrategy implements Strategy {
         return best;
     }
 
-    private Candidate evaluateCandidate(Bait bait, Player me, GameStatusModel model) {
+    /**
+     * Distance used to preselect the top-K baits: walking steps from the table
+     * when one is available (unreachable baits sort last), Manhattan otherwise.
+     */
+    private static int preselectDistance(DistanceTable table, Player me, Bait bait) {
+        if (table != null) {
+            int steps = table.steps(me.getxPosition(), me.getyPosition(), bait.getxPosition(), bait.getyPosition());
+            return steps < 0 ? Integer.MAX_VALUE : steps;
+        }
+        return Math.abs(me.getxPosition() - bait.getxPosition()) + Math.abs(me.getyPosition() - bait.getyPosition());
+    }
+
+    private Candidate evaluateCandidate(Bait bait, AStarPathfinder.Result route, Player me, GameStatusModel model) {
         if (bait == null) {
             return null;
         }
         Target baseTarget = Target.of(bait, 0);
-        AStarPathfinder.Result route = planFor(me, baseTarget.pos(), model);
         if (!route.success() || route.actions().isEmpty()) {
             return null;
         }
@@ -469,7 +585,8 @@ public final class SmartStrategy implements Strategy {
     }
 
     private double estimateOpponentSteps(GridPos goal, Player me, GameStatusModel model) {
-        return OpponentHeuristics.estimateOpponentCost(goal, me, model, TOP_L_OPPONENTS, opp -> planFor(opp, goal, model));
+        return OpponentHeuristics.estimateOpponentCost(goal, me, model, TOP_L_OPPONENTS,
+                opp -> etaLowerBound(opp, goal, model), opp -> etaTo(opp, goal, model));
     }
 
 
@@ -496,19 +613,186 @@ public final class SmartStrategy implements Strategy {
             return AStarPathfinder.Result.EMPTY;
         }
         Direction facing = actor.getDirection();
-        PlanKey key = new PlanKey(actor.getxPosition(), actor.getyPosition(), dirOrdinal(facing), goal.x(), goal.y());
-        AStarPathfinder.Result cached = planCache.get(key);
+        AStarPathfinder.Result cached = cachedRoute(maze, actor, goal);
         if (cached != null) {
             return cached;
         }
         AStarPathfinder.Pose pose = new AStarPathfinder.Pose(actor.getxPosition(), actor.getyPosition(), facing);
-        AStarPathfinder.Result result = pathfinder.plan(maze, pose, goal);
-        planCache.put(key, result);
+        return plan(maze, hierarchyFor(maze), pose, goal);
+    }
+
+    /**
+     * Returns whether {@link #planFor} plans to {@code goal} with the grid search,
+     * i.e. neither the hierarchy (when built) nor the jump point planner applies.
+     * These are the routes a {@link DistanceField} reproduces.
+     */
+    private boolean plansOnGrid(HierarchicalPlanner hierarchical, AStarPathfinder.Pose pose, GridPos goal) {
+        return jumpPoints == null && (hierarchical == null || !hierarchical.covers(pose, goal));
+    }
+
+    /** Plans with the planner {@link #planFor} picks and stores the route in the plan cache. */
+    private AStarPathfinder.Result plan(Maze maze, HierarchicalPlanner hierarchical, AStarPathfinder.Pose pose,
+            GridPos goal) {
+        AStarPathfinder.Result result;
+        if (hierarchical != null && hierarchical.covers(pose, goal)) {
+            result = hierarchical.plan(pose, goal, Double.POSITIVE_INFINITY);
+            if (DEBUG && hierarchical.queryCount() % HIERARCHY_REPORT_INTERVAL == 1) {
+                System.out.println("[SmartStrategy] hierarchical plan in " + hierarchical.lastQueryNanos() / 1_000
+                        + " us (mean " + hierarchical.meanQueryNanos() / 1_000 + " us over "
+                        + hierarchical.queryCount() + " plans)");
+            }
+        } else {
+            result = (jumpPoints != null) ? jumpPoints.plan(maze, pose, goal) : pathfinder.plan(maze, pose, goal);
+        }
+        planCache.put(maze, pose.x(), pose.y(), pose.facing(), goal, result);
         return result;
     }
 
-    private static int dirOrdinal(Direction dir) {
-        return dir == null ? -1 : dir.ordinal();
+    /** Returns the cached route from the actor's pose to {@code goal}, or {@code null}. */
+    private AStarPathfinder.Result cachedRoute(Maze maze, Player actor, GridPos goal) {
+        AStarPathfinder.Result cached = planCache.get(maze, actor.getxPosition(), actor.getyPosition(),
+                actor.getDirection(), goal);
+        reportPlanCache();
+        return cached;
+    }
+
+    private void reportPlanCache() {
+        long lookups = planCache.hits() + planCache.misses();
+        if (DEBUG && lookups % PLAN_CACHE_REPORT_INTERVAL == 0) {
+            System.out.println("[SmartStrategy] plan cache: " + planCache.hits() + " hits, " + planCache.misses()
+                    + " misses, " + planCache.evictions() + " evictions, " + planCache.invalidations()
+                    + " invalidations, " + planCache.size() + "/" + planCache.capacity() + " entries");
+        }
+    }
+
+    /**
+     * Returns the plan cache, whose counters show how well it is sized.
+     *
+     * @return the cache of routes by start pose and goal
+     */
+    PlanCache planCache() {
+        return planCache;
+    }
+
+    /**
+     * Returns the hierarchical planner of {@code maze} once it is built. The
+     * build starts in the background the first time a maze of at least
+     * {@link HierarchicalPlanner#MIN_CELLS} cells is seen; until it is done,
+     * and for smaller mazes, plans are made on the grid.
+     */
+    private HierarchicalPlanner hierarchyFor(Maze maze) {
+        if ((long) maze.getWidth() * maze.getHeight() < HierarchicalPlanner.MIN_CELLS) {
+            return null;
+        }
+        if (maze != hierarchyMaze) {
+            hierarchyMaze = maze;
+            hierarchy = HierarchicalPlanner.buildAsync(maze);
+        }
+        if (!hierarchy.isDone() || hierarchy.isCompletedExceptionally()) {
+            return null;
+        }
+        HierarchicalPlanner built = hierarchy.join();
+        if (DEBUG && built != reportedHierarchy) {
+            reportedHierarchy = built;
+            System.out.println("[SmartStrategy] hierarchy: " + built.clusterCount() + " clusters, "
+                    + built.nodeCount() + " nodes, built in " + built.buildNanos() / 1_000_000 + " ms");
+        }
+        return built;
+    }
+
+    /**
+     * Returns the cost of the actor's cheapest plan to {@code goal}.
+     *
+     * <p>The exact cost is read from the goal's cached {@link ReverseDistanceField};
+     * any number of actors can be asked about the same goal for the price of one
+     * search per goal and maze. It is comparable with the costs of our own plans.
+     * Callers that only need to rank actors or rule them out use the cheaper
+     * {@link #etaLowerBound(Player, GridPos, GameStatusModel)} first.
+     *
+     * @return the plan cost, or {@link Double#POSITIVE_INFINITY} if there is no plan
+     */
+    double etaTo(Player actor, GridPos goal, GameStatusModel model) {
+        if (actor == null || goal == null || model == null) {
+            return Double.POSITIVE_INFINITY;
+        }
+        Maze maze = model.getMaze();
+        if (maze == null) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (maze != etaFieldMaze) {
+            etaFields.clear();
+            etaFieldMaze = maze;
+        }
+        ReverseDistanceField field = etaFields.get(goal);
+        if (field == null) {
+            field = pathfinder.reverseDistanceField(maze, goal);
+            if (field == null) {
+                return Double.POSITIVE_INFINITY;
+            }
+            etaFields.put(goal, field);
+        }
+        return field.costFrom(actor.getxPosition(), actor.getyPosition(), actor.getDirection());
+    }
+
+    /**
+     * Returns a lower bound of {@link #etaTo(Player, GridPos, GameStatusModel)}.
+     *
+     * <p>Once the model's {@link DistanceTable} for the current maze is available,
+     * this is the constant-time {@linkplain AStarPathfinder#costLowerBound bound}
+     * read from it, otherwise the Manhattan distance. It never exceeds the exact
+     * cost, so an actor whose bound is not below a known cost cannot beat it.
+     *
+     * @return the bound, or {@link Double#POSITIVE_INFINITY} if there is no plan
+     */
+    double etaLowerBound(Player actor, GridPos goal, GameStatusModel model) {
+        if (actor == null || goal == null || model == null) {
+            return Double.POSITIVE_INFINITY;
+        }
+        int manhattan = Math.abs(actor.getxPosition() - goal.x()) + Math.abs(actor.getyPosition() - goal.y());
+        DistanceTable table = model.getDistanceTable();
+        if (table == null || manhattan == 0) {
+            return manhattan * AStarPathfinder.COST_STEP;
+        }
+        reportDistanceTable(table);
+        AStarPathfinder.Pose pose = new AStarPathfinder.Pose(actor.getxPosition(), actor.getyPosition(),
+                actor.getDirection());
+        return pathfinder.costLowerBound(table, pose, goal);
+    }
+
+    private void reportDistanceTable(DistanceTable table) {
+        if (DEBUG && table != reportedTable) {
+            reportedTable = table;
+            System.out.println("[SmartStrategy] distance table: " + table.getCellCount() + " cells, "
+                    + (table.isLoaded() ? "loaded" : "built") + " in " + table.getBuildNanos() / 1_000_000 + " ms, "
+                    + table.getMemoryBytes() / 1024 + " KiB");
+        }
+    }
+
+    /**
+     * Runs a single search from the actor's pose whose result answers
+     * {@link #routeFrom(DistanceField, Maze, Player, GridPos)} for each of the goals.
+     *
+     * @return the field, or {@code null} if there is no maze or actor
+     */
+    DistanceField distanceFieldFor(Player actor, List<GridPos> goals, GameStatusModel model) {
+        if (actor == null || model == null || model.getMaze() == null) {
+            return null;
+        }
+        AStarPathfinder.Pose pose = new AStarPathfinder.Pose(actor.getxPosition(), actor.getyPosition(),
+                actor.getDirection());
+        return pathfinder.distanceField(model.getMaze(), pose, goals);
+    }
+
+    /**
+     * Reads the route to {@code goal} from a field built for {@code actor} and
+     * stores it in the plan cache, so later {@link #planFor} calls for the same
+     * pose and goal do not search again. Callers look the route up in the cache
+     * first and build the field only for the goals it misses.
+     */
+    private AStarPathfinder.Result routeFrom(DistanceField field, Maze maze, Player actor, GridPos goal) {
+        AStarPathfinder.Result result = field.resultTo(goal);
+        planCache.put(maze, actor.getxPosition(), actor.getyPosition(), actor.getDirection(), goal, result);
+        return result;
     }
 
 }
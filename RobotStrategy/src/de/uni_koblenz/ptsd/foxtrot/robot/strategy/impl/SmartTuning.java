@@ -4,7 +4,8 @@ package de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl;
 * Central configuration for {@link SmartStrategy} and its helper components.
 *
 * <p>This immutable bag of tuning knobs influences candidate generation,
-* scoring, opponent handling, exploration fallback, and hysteresis behavior.
+* scoring, opponent handling, exploration fallback, hysteresis behavior and the
+* choice of {@link PathPlanner}.
 * All fields are {@code public final} for simple inspection and dependency-free
 * wiring. Typical usage is to construct a single instance (e.g., via a
 * factory) and share it across the strategy objects.</p>
@@ -53,6 +54,9 @@ public final class SmartTuning {
     public final int stuckReplanTicks;
     public final int maxStepRetry;
 
+    // Planning
+    public final PathPlanner planner;
+
     public SmartTuning(
             double costWeight,
             int opponentMarginGem, int opponentMarginDefault, int oppScoringMarginGem, int oppScoringMarginDefault,
@@ -63,6 +67,29 @@ public final class SmartTuning {
             boolean enableExploration,
             int replanCooldownTicks, double scoreDeltaMin, double scoreRatioMin,
             boolean debugLogging, int stuckReplanTicks, int maxStepRetry) {
+        this(costWeight,
+                opponentMarginGem, opponentMarginDefault, oppScoringMarginGem, oppScoringMarginDefault,
+                topKBaits, topLOpponents,
+                multiNearExtra, multiNearWeight,
+                enableIntercept, interceptKSteps, interceptMargin,
+                enableTeleportGuard, teleportJumpThreshold,
+                enableExploration,
+                replanCooldownTicks, scoreDeltaMin, scoreRatioMin,
+                debugLogging, stuckReplanTicks, maxStepRetry,
+                PathPlanner.ASTAR);
+    }
+
+    public SmartTuning(
+            double costWeight,
+            int opponentMarginGem, int opponentMarginDefault, int oppScoringMarginGem, int oppScoringMarginDefault,
+            int topKBaits, int topLOpponents,
+            int multiNearExtra, double multiNearWeight,
+            boolean enableIntercept, int interceptKSteps, int interceptMargin,
+            boolean enableTeleportGuard, int teleportJumpThreshold,
+            boolean enableExploration,
+            int replanCooldownTicks, double scoreDeltaMin, double scoreRatioMin,
+            boolean debugLogging, int stuckReplanTicks, int maxStepRetry,
+            PathPlanner planner) {
 
         this.costWeight = costWeight;
         this.opponentMarginGem = opponentMarginGem;
@@ -85,6 +112,52 @@ public final class SmartTuning {
         this.debugLogging = debugLogging;
         this.stuckReplanTicks = stuckReplanTicks;
         this.maxStepRetry = maxStepRetry;
+        this.planner = (planner != null) ? planner : PathPlanner.ASTAR;
+    }
+
+    /**
+     * Returns a copy of this tuning that plans with {@code planner}, e.g.
+     * {@code SmartTuning.balanced().withPlanner(PathPlanner.JUMP_POINT)} for maps
+     * with large open rooms.
+     *
+     * @param planner the planner to use
+     * @return the new tuning
+     */
+    public SmartTuning withPlanner(PathPlanner planner) {
+        return new SmartTuning(
+            costWeight,
+            opponentMarginGem, opponentMarginDefault, oppScoringMarginGem, oppScoringMarginDefault,
+            topKBaits, topLOpponents,
+            multiNearExtra, multiNearWeight,
+            enableIntercept, interceptKSteps, interceptMargin,
+            enableTeleportGuard, teleportJumpThreshold,
+            enableExploration,
+            replanCooldownTicks, scoreDeltaMin, scoreRatioMin,
+            debugLogging, stuckReplanTicks, maxStepRetry,
+            planner
+        );
+    }
+
+    /**
+     * Returns a copy of this tuning with the strategy's diagnostic output
+     * switched on or off, e.g. to silence hundreds of bots in one process.
+     *
+     * @param debugLogging whether the strategy prints its debug output
+     * @return the new tuning
+     */
+    public SmartTuning withDebugLogging(boolean debugLogging) {
+        return new SmartTuning(
+            costWeight,
+            opponentMarginGem, opponentMarginDefault, oppScoringMarginGem, oppScoringMarginDefault,
+            topKBaits, topLOpponents,
+            multiNearExtra, multiNearWeight,
+            enableIntercept, interceptKSteps, interceptMargin,
+            enableTeleportGuard, teleportJumpThreshold,
+            enableExploration,
+            replanCooldownTicks, scoreDeltaMin, scoreRatioMin,
+            debugLogging, stuckReplanTicks, maxStepRetry,
+            planner
+        );
     }
 
     public static SmartTuning defaults() {
@@ -31,16 +31,29 @@ public final class StrategyFactory {
     private StrategyFactory() {}
 
     public static Strategy create(StrategyMode mode) {
+        return create(mode, true);
+    }
+
+    /**
+     * Creates the strategy for {@code mode} with its debug output switched
+     * on or off.
+     *
+     * @param mode         the strategy mode
+     * @param debugLogging whether the strategy prints its debug output
+     * @return the strategy, or {@code null} for {@link StrategyMode#OFF}
+     */
+    public static Strategy create(StrategyMode mode, boolean debugLogging) {
         if (mode == null) {
             return null;
         }
-        return switch (mode) {
-            case SMART_BALANCED -> new SmartStrategy(SmartTuning.balanced());
-            case SMART_GEM_RUSH -> new SmartStrategy(SmartTuning.gemRush());
-            case SMART_INTERCEPT_AGGRO -> new SmartStrategy(SmartTuning.interceptAggro());
-            case SMART_DEFENSIVE -> new SmartStrategy(SmartTuning.defensiveControl());
+        SmartTuning tuning = switch (mode) {
+            case SMART_BALANCED -> SmartTuning.balanced();
+            case SMART_GEM_RUSH -> SmartTuning.gemRush();
+            case SMART_INTERCEPT_AGGRO -> SmartTuning.interceptAggro();
+            case SMART_DEFENSIVE -> SmartTuning.defensiveControl();
             case OFF -> null;
         };
+        return (tuning != null) ? new SmartStrategy(tuning.withDebugLogging(debugLogging)) : null;
     }
 }
 
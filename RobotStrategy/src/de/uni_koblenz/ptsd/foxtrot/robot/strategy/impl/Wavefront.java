@@ -0,0 +1,182 @@
+package de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl;
+
+import java.util.Arrays;
+
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Maze;
+
+/**
+ * Bit-parallel breadth-first search over the walkable cells of one maze.
+ *
+ * <p>Every row of the maze is kept as {@code long} words, one bit per cell.
+ * Instead of taking cells from a queue one at a time, a search advances the
+ * whole frontier by one step at once: the cells next to the frontier are the
+ * frontier shifted one word up and down, and shifted one bit left and right
+ * within each row, ANDed with the walkable cells not visited yet. Only the
+ * words the frontier has cells in and the words next to them are looked at,
+ * and each costs a few operations no matter how many of its 64 cells are in
+ * the frontier. The step count of a cell is the
+ * layer in which its bit first appears, so {@link #distances(int, int[])}
+ * gives exactly the same distances as a queue-based BFS such as
+ * {@link AStarPathfinder#bfs(int, int, int, int, Maze, SearchWorkspace)}.
+ *
+ * <p>This pays off where the frontier is wide, in open rooms and in mazes with
+ * many loops. In a perfect maze of one-cell corridors the frontier holds about
+ * one cell per word and the queue is faster; {@code PathfinderBenchmark}
+ * compares both. {@link Landmarks} uses it for its full-maze searches.
+ *
+ * <p>An instance belongs to one {@link Maze} and keeps its bitsets between
+ * searches, so repeated searches do not allocate. It is not thread-safe.
+ */
+final class Wavefront {
+
+    private final Maze maze;
+    private final int width;
+    private final int height;
+    /** Words per row, a power of two so that word indices split with shifts. */
+    private final int words;
+    private final int wordShift;
+    /** Walkable cells, row {@code y} at words {@code [y * words, (y + 1) * words)}. */
+    private final long[] walkable;
+    private long[] frontier;
+    private long[] next;
+    private final long[] visited;
+    /** Words in which the frontier has cells. */
+    private int[] active;
+    private int[] nextActive;
+    /** Per word, the last layer for which it was grown; a word is grown once per layer. */
+    private final int[] seen;
+    /** Cells reached by the running search. */
+    private int reached;
+
+    /**
+     * Packs the walkable cells of {@code maze} into row bitsets.
+     *
+     * @param maze the maze to search
+     */
+    Wavefront(Maze maze) {
+        this.maze = maze;
+        this.width = maze.getWidth();
+        this.height = maze.getHeight();
+        this.words = Integer.highestOneBit(Math.max(1, (width + 63) >>> 6) * 2 - 1);
+        this.wordShift = Integer.numberOfTrailingZeros(words);
+        this.walkable = new long[height * words];
+        this.frontier = new long[height * words];
+        this.next = new long[height * words];
+        this.visited = new long[height * words];
+        this.active = new int[height * words];
+        this.nextActive = new int[height * words];
+        this.seen = new int[height * words];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (maze.isWalkableUnchecked(y * width + x)) {
+                    walkable[y * words + (x >>> 6)] |= 1L << x;
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the number of steps from {@code source} to every cell.
+     *
+     * @param source cell index {@code y * width + x}; must be walkable
+     * @param steps  receives the steps per cell index, {@code -1} for cells that
+     *               are blocked or not reachable; must hold {@code width * height}
+     *               values
+     * @return the number of reached cells, including {@code source}
+     */
+    int distances(int source, int[] steps) {
+        Arrays.fill(steps, -1);
+        Arrays.fill(frontier, 0L);
+        Arrays.fill(next, 0L);
+        Arrays.fill(visited, 0L);
+        Arrays.fill(seen, 0);
+        int first = ((source / width) << wordShift) + ((source % width) >>> 6);
+        frontier[first] = 1L << (source % width);
+        visited[first] = frontier[first];
+        steps[source] = 0;
+        reached = 1;
+        active[0] = first;
+        int activeCount = 1;
+        for (int layer = 1; activeCount > 0; layer++) {
+            // The next layer lies in the words of the frontier and the four words around each.
+            int nextCount = 0;
+            for (int a = 0; a < activeCount; a++) {
+                int i = active[a];
+                int w = i & (words - 1);
+                nextCount = grow(i, layer, steps, nextCount);
+                if (w > 0) {
+                    nextCount = grow(i - 1, layer, steps, nextCount);
+                }
+                if (w < words - 1) {
+                    nextCount = grow(i + 1, layer, steps, nextCount);
+                }
+                if (i >= words) {
+                    nextCount = grow(i - words, layer, steps, nextCount);
+                }
+                if (i + words < frontier.length) {
+                    nextCount = grow(i + words, layer, steps, nextCount);
+                }
+            }
+            // The old frontier becomes the next buffer, so clear its words.
+            for (int a = 0; a < activeCount; a++) {
+                frontier[active[a]] = 0L;
+            }
+            long[] swap = frontier;
+            frontier = next;
+            next = swap;
+            int[] swapActive = active;
+            active = nextActive;
+            nextActive = swapActive;
+            activeCount = nextCount;
+        }
+        return reached;
+    }
+
+    /**
+     * Computes word {@code i} of the next frontier, unless it was already done
+     * for this layer: the unvisited walkable cells next to the current frontier.
+     * Marks them visited, records their steps and lists the word as active.
+     *
+     * @return the new number of active words of the next frontier
+     */
+    private int grow(int i, int layer, int[] steps, int nextCount) {
+        if (seen[i] == layer) {
+            return nextCount;
+        }
+        seen[i] = layer;
+        int w = i & (words - 1);
+        long f = frontier[i];
+        long grown = (f << 1) | (f >>> 1);
+        if (w > 0) {
+            grown |= frontier[i - 1] >>> 63;
+        }
+        if (w < words - 1) {
+            grown |= frontier[i + 1] << 63;
+        }
+        if (i >= words) {
+            grown |= frontier[i - words];
+        }
+        if (i + words < frontier.length) {
+            grown |= frontier[i + words];
+        }
+        long fresh = grown & walkable[i] & ~visited[i];
+        if (fresh == 0) {
+            return nextCount;
+        }
+        next[i] = fresh;
+        visited[i] |= fresh;
+        reached += Long.bitCount(fresh);
+        int base = (i >>> wordShift) * width + (w << 6);
+        do {
+            steps[base + Long.numberOfTrailingZeros(fresh)] = layer;
+            fresh &= fresh - 1;
+        } while (fresh != 0);
+        nextActive[nextCount] = i;
+        return nextCount + 1;
+    }
+
+    /** @return the maze this wavefront searches */
+    Maze maze() {
+        return maze;
+    }
+}
@@ -0,0 +1,585 @@
+package de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.CellType;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.Direction;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.DistanceTable;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Maze;
+import de.uni_koblenz.ptsd.foxtrot.robot.strategy.Action;
+import de.uni_koblenz.ptsd.foxtrot.robot.strategy.GridPos;
+
+class AStarPathfinderTest {
+
+    private final AStarPathfinder pathfinder = new AStarPathfinder();
+
+    @Test
+    @DisplayName("An open room is crossed with a single turn")
+    void prefersRoutesWithFewerTurns() {
+        Maze maze = maze(6, 6, new Random(0), 0.0);
+        AStarPathfinder.Pose start = new AStarPathfinder.Pose(0, 0, Direction.E);
+        GridPos goal = new GridPos(4, 4);
+
+        AStarPathfinder.Result result = pathfinder.plan(maze, start, goal);
+
+        assertTrue(result.success());
+        assertEquals(8 * AStarPathfinder.COST_STEP + AStarPathfinder.COST_TURN, result.cost());
+        assertEquals(goal, follow(maze, start, result));
+    }
+
+    @Test
+    @DisplayName("Plans are valid and never cost more than the BFS baseline")
+    void neverWorseThanBfs() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            Maze maze = maze(15, 11, random, 0.3);
+            AStarPathfinder.Pose start = new AStarPathfinder.Pose(random.nextInt(15), random.nextInt(11),
+                    Direction.values()[random.nextInt(4)]);
+            GridPos goal = new GridPos(random.nextInt(15), random.nextInt(11));
+            if (maze.getTypeAt(start.x(), start.y()) != CellType.PATH) {
+                continue;
+            }
+
+            AStarPathfinder.Result astar = pathfinder.plan(maze, start, goal);
+            AStarPathfinder.Result bfs = pathfinder.planBfs(maze, start, goal);
+
+            assertEquals(bfs.success(), astar.success(), "Both planners must agree on reachability");
+            if (astar.success()) {
+                assertTrue(astar.cost() <= bfs.cost(), "A* must not be more expensive than BFS");
+                assertEquals(AStarPathfinder.costOf(astar.actions()), astar.cost());
+                assertEquals(goal, follow(maze, start, astar));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A distance field matches single-goal planning for every goal")
+    void distanceFieldMatchesPlan() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            Maze maze = maze(15, 11, random, 0.3);
+            AStarPathfinder.Pose start = new AStarPathfinder.Pose(random.nextInt(15), random.nextInt(11),
+                    Direction.values()[random.nextInt(4)]);
+            if (maze.getTypeAt(start.x(), start.y()) != CellType.PATH) {
+                continue;
+            }
+
+            DistanceField field = pathfinder.distanceField(maze, start);
+            for (int y = 0; y < 11; y++) {
+                for (int x = 0; x < 15; x++) {
+                    GridPos goal = new GridPos(x, y);
+                    AStarPathfinder.Result planned = pathfinder.plan(maze, start, goal);
+                    AStarPathfinder.Result read = field.resultTo(goal);
+
+                    assertEquals(planned.success(), read.success());
+                    assertEquals(planned.success(), field.reaches(goal));
+                    assertEquals(planned.cost(), read.cost());
+                    assertEquals(planned.cost(), field.costTo(goal));
+                    if (read.success()) {
+                        assertEquals(AStarPathfinder.costOf(read.actions()), read.cost());
+                        assertEquals(goal, follow(maze, start, read));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A field bounded by goals is exact for those goals")
+    void boundedDistanceFieldIsExactForItsGoals() {
+        Maze maze = maze(21, 21, new Random(3), 0.2);
+        AStarPathfinder.Pose start = new AStarPathfinder.Pose(10, 10, Direction.S);
+        List<GridPos> goals = List.of(new GridPos(8, 10), new GridPos(12, 13), new GridPos(10, 6));
+
+        DistanceField full = pathfinder.distanceField(maze, start);
+        int fullExpansions = pathfinder.lastExpansions();
+        DistanceField bounded = pathfinder.distanceField(maze, start, goals);
+
+        assertTrue(pathfinder.lastExpansions() < fullExpansions);
+        for (GridPos goal : goals) {
+            assertEquals(full.costTo(goal), bounded.costTo(goal));
+            assertEquals(pathfinder.plan(maze, start, goal).cost(), bounded.costTo(goal));
+        }
+    }
+
+    @Test
+    @DisplayName("A reverse field matches single-goal planning from every pose")
+    void reverseDistanceFieldMatchesPlan() {
+        Random random = new Random(11);
+        for (int round = 0; round < 10; round++) {
+            Maze maze = maze(13, 9, random, 0.3);
+            GridPos goal = new GridPos(random.nextInt(13), random.nextInt(9));
+            ReverseDistanceField field = pathfinder.reverseDistanceField(maze, goal);
+            if (maze.getTypeAt(goal.x(), goal.y()) != CellType.PATH) {
+                assertNull(field);
+                continue;
+            }
+
+            for (int y = 0; y < 9; y++) {
+                for (int x = 0; x < 13; x++) {
+                    for (Direction facing : Direction.values()) {
+                        AStarPathfinder.Result planned = pathfinder.plan(maze,
+                                new AStarPathfinder.Pose(x, y, facing), goal);
+                        assertEquals(planned.cost(), field.costFrom(x, y, facing),
+                                "cost from " + x + "," + y + " " + facing);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("The distance table bound counts BFS steps and never exceeds the plan cost")
+    void distanceTableBoundsPlanCost() {
+        Random random = new Random(5);
+        for (int round = 0; round < 10; round++) {
+            Maze maze = maze(13, 9, random, 0.3);
+            DistanceTable table = DistanceTable.build(maze);
+            for (int i = 0; i < 100; i++) {
+                AStarPathfinder.Pose start = new AStarPathfinder.Pose(random.nextInt(13), random.nextInt(9),
+                        Direction.values()[random.nextInt(4)]);
+                GridPos goal = new GridPos(random.nextInt(13), random.nextInt(9));
+                if (maze.getTypeAt(start.x(), start.y()) != CellType.PATH) {
+                    continue;
+                }
+                AStarPathfinder.Result planned = pathfinder.plan(maze, start, goal);
+                AStarPathfinder.Result bfs = pathfinder.planBfs(maze, start, goal);
+                double bound = pathfinder.costLowerBound(table, start, goal);
+
+                assertEquals(planned.success(), bound < Double.POSITIVE_INFINITY);
+                if (planned.success()) {
+                    long steps = bfs.actions().stream().filter(a -> a == Action.STEP).count();
+                    assertEquals(steps, table.steps(start.x(), start.y(), goal.x(), goal.y()));
+                    assertTrue(bound <= planned.cost(), "bound " + bound + " > cost " + planned.cost());
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Plans on the junction graph cost the same as grid plans")
+    void junctionGraphMatchesGrid() {
+        Random random = new Random(13);
+        for (int round = 0; round < 40; round++) {
+            Maze maze = (round % 2 == 0) ? TestMazes.carve(21, 0.05, random) : maze(17, 13, random, 0.35);
+            JunctionGraph graph = pathfinder.junctionGraph(maze);
+            for (int i = 0; i < 50; i++) {
+                AStarPathfinder.Pose start = new AStarPathfinder.Pose(random.nextInt(maze.getWidth()),
+                        random.nextInt(maze.getHeight()), Direction.values()[random.nextInt(4)]);
+                GridPos goal = new GridPos(random.nextInt(maze.getWidth()), random.nextInt(maze.getHeight()));
+                if (!maze.isWalkable(start.x(), start.y())) {
+                    continue;
+                }
+                AStarPathfinder.Result grid = pathfinder.planGrid(maze, start, goal, Double.POSITIVE_INFINITY);
+                AStarPathfinder.Result onGraph = pathfinder.planOnGraph(graph, start, goal, Double.POSITIVE_INFINITY);
+
+                assertEquals(grid.success(), onGraph.success());
+                assertEquals(grid.cost(), onGraph.cost(), "cost from " + start + " to " + goal);
+                if (onGraph.success()) {
+                    assertEquals(AStarPathfinder.costOf(onGraph.actions()), onGraph.cost());
+                    assertEquals(goal, follow(maze, start, onGraph));
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A loop without junctions is planned around in both directions")
+    void junctionGraphHandlesPlainLoops() {
+        CellType[][] cells = new CellType[5][5];
+        for (int y = 0; y < 5; y++) {
+            for (int x = 0; x < 5; x++) {
+                boolean ring = (x == 1 || x == 3 || y == 1 || y == 3) && x >= 1 && x <= 3 && y >= 1 && y <= 3;
+                cells[y][x] = ring ? CellType.PATH : CellType.WALL;
+            }
+        }
+        Maze maze = new Maze(5, 5, cells);
+        JunctionGraph graph = pathfinder.junctionGraph(maze);
+        assertEquals(1, graph.nodeCount());
+
+        for (Direction facing : Direction.values()) {
+            AStarPathfinder.Pose start = new AStarPathfinder.Pose(2, 1, facing);
+            for (GridPos goal : List.of(new GridPos(1, 3), new GridPos(3, 2), new GridPos(2, 3))) {
+                AStarPathfinder.Result onGraph = pathfinder.planOnGraph(graph, start, goal, Double.POSITIVE_INFINITY);
+                assertEquals(pathfinder.planGrid(maze, start, goal, Double.POSITIVE_INFINITY).cost(), onGraph.cost());
+                assertEquals(goal, follow(maze, start, onGraph));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("The junction graph expands far fewer states in corridor mazes")
+    void junctionGraphExpandsFewerStates() {
+        Random random = new Random(17);
+        Maze maze = TestMazes.carve(61, 0.0, random);
+        JunctionGraph graph = pathfinder.junctionGraph(maze);
+        assertTrue(graph.contracts());
+        long gridExpansions = 0;
+        long graphExpansions = 0;
+        AStarPathfinder.Pose start = new AStarPathfinder.Pose(1, 1, Direction.E);
+        for (int i = 0; i < 20; i++) {
+            GridPos goal = new GridPos(1 + 2 * random.nextInt(30), 1 + 2 * random.nextInt(30));
+            pathfinder.planGrid(maze, start, goal, Double.POSITIVE_INFINITY);
+            gridExpansions += pathfinder.lastExpansions();
+            pathfinder.planOnGraph(graph, start, goal, Double.POSITIVE_INFINITY);
+            graphExpansions += pathfinder.lastExpansions();
+        }
+        assertTrue(graphExpansions * 2 < gridExpansions, graphExpansions + " vs " + gridExpansions);
+    }
+
+    @Test
+    @DisplayName("Grid plans with landmarks cost the same as with Manhattan distance")
+    void landmarksMatchManhattan() {
+        AStarPathfinder manhattan = new AStarPathfinder(false);
+        Random random = new Random(31);
+        for (int round = 0; round < 30; round++) {
+            Maze maze = switch (round % 3) {
+            case 0 -> TestMazes.carve(31, 0.1, random);
+            case 1 -> TestMazes.rooms(40, 3 + round % 7, random);
+            default -> maze(23, 17, random, 0.35);
+            };
+            for (int i = 0; i < 50; i++) {
+                AStarPathfinder.Pose start = new AStarPathfinder.Pose(random.nextInt(maze.getWidth()),
+                        random.nextInt(maze.getHeight()), Direction.values()[random.nextInt(4)]);
+                GridPos goal = new GridPos(random.nextInt(maze.getWidth()), random.nextInt(maze.getHeight()));
+                AStarPathfinder.Result expected = manhattan.planGrid(maze, start, goal, Double.POSITIVE_INFINITY);
+                AStarPathfinder.Result planned = pathfinder.planGrid(maze, start, goal, Double.POSITIVE_INFINITY);
+
+                assertEquals(expected.success(), planned.success());
+                assertEquals(expected.cost(), planned.cost(), "cost from " + start + " to " + goal);
+                if (planned.success()) {
+                    assertEquals(goal, follow(maze, start, planned));
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Landmarks make the grid search expand fewer states in corridor mazes")
+    void landmarksExpandFewerStates() {
+        AStarPathfinder manhattan = new AStarPathfinder(false);
+        Random random = new Random(37);
+        Maze maze = TestMazes.carve(61, 0.0, random);
+        long manhattanExpansions = 0;
+        long landmarkExpansions = 0;
+        for (int i = 0; i < 20; i++) {
+            AStarPathfinder.Pose start = new AStarPathfinder.Pose(1 + 2 * random.nextInt(30),
+                    1 + 2 * random.nextInt(30), Direction.E);
+            GridPos goal = new GridPos(1 + 2 * random.nextInt(30), 1 + 2 * random.nextInt(30));
+            manhattan.planGrid(maze, start, goal, Double.POSITIVE_INFINITY);
+            manhattanExpansions += manhattan.lastExpansions();
+            pathfinder.planGrid(maze, start, goal, Double.POSITIVE_INFINITY);
+            landmarkExpansions += pathfinder.lastExpansions();
+        }
+        assertTrue(landmarkExpansions * 3 < manhattanExpansions * 2, landmarkExpansions + " vs " + manhattanExpansions);
+    }
+
+    @Test
+    @DisplayName("Jump point plans cost the same as grid plans")
+    void jumpPointMatchesGrid() {
+        JumpPointPlanner jumpPoints = new JumpPointPlanner();
+        Random random = new Random(19);
+        for (int round = 0; round < 60; round++) {
+            Maze maze = switch (round % 3) {
+            case 0 -> TestMazes.carve(21, 0.1, random);
+            case 1 -> TestMazes.rooms(27, 5, random);
+            default -> maze(17, 13, random, 0.1 + 0.1 * (round % 4));
+            };
+            for (int i = 0; i < 50; i++) {
+                AStarPathfinder.Pose start = new AStarPathfinder.Pose(random.nextInt(maze.getWidth()),
+                        random.nextInt(maze.getHeight()), Direction.values()[random.nextInt(4)]);
+                GridPos goal = new GridPos(random.nextInt(maze.getWidth()), random.nextInt(maze.getHeight()));
+                AStarPathfinder.Result grid = pathfinder.planGrid(maze, start, goal, Double.POSITIVE_INFINITY);
+                AStarPathfinder.Result jump = jumpPoints.plan(maze, start, goal);
+
+                assertEquals(grid.success(), jump.success());
+                assertEquals(grid.cost(), jump.cost(), "cost from " + start + " to " + goal);
+                if (jump.success()) {
+                    assertEquals(AStarPathfinder.costOf(jump.actions()), jump.cost());
+                    assertEquals(goal, follow(maze, start, jump));
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Jump point search expands far fewer states in open rooms")
+    void jumpPointExpandsFewerStatesInRooms() {
+        JumpPointPlanner jumpPoints = new JumpPointPlanner();
+        Random random = new Random(23);
+        Maze maze = TestMazes.rooms(61, 12, random);
+        long gridExpansions = 0;
+        long jumpExpansions = 0;
+        for (int i = 0; i < 20; i++) {
+            AStarPathfinder.Pose start = new AStarPathfinder.Pose(1 + random.nextInt(59), 1 + random.nextInt(59),
+                    Direction.E);
+            GridPos goal = new GridPos(1 + random.nextInt(59), 1 + random.nextInt(59));
+            pathfinder.planGrid(maze, start, goal, Double.POSITIVE_INFINITY);
+            gridExpansions += pathfinder.lastExpansions();
+            jumpPoints.plan(maze, start, goal);
+            jumpExpansions += jumpPoints.lastExpansions();
+        }
+        assertTrue(jumpExpansions * 2 < gridExpansions, jumpExpansions + " vs " + gridExpansions);
+    }
+
+    @Test
+    @DisplayName("Hierarchical plans are valid and close to the cheapest")
+    void hierarchicalPlansAreNearOptimal() {
+        Random random = new Random(29);
+        double gridCost = 0;
+        double hierarchicalCost = 0;
+        for (int round = 0; round < 12; round++) {
+            Maze maze = switch (round % 3) {
+            case 0 -> TestMazes.carve(71, 0.1, random);
+            case 1 -> TestMazes.rooms(70, 4 + round, random);
+            default -> maze(80, 60, random, 0.3);
+            };
+            HierarchicalPlanner hierarchy = HierarchicalPlanner.build(maze);
+            for (int i = 0; i < 30; i++) {
+                AStarPathfinder.Pose start = new AStarPathfinder.Pose(random.nextInt(maze.getWidth()),
+                        random.nextInt(maze.getHeight()), Direction.values()[random.nextInt(4)]);
+                GridPos goal = new GridPos(random.nextInt(maze.getWidth()), random.nextInt(maze.getHeight()));
+                if (!hierarchy.covers(start, goal)) {
+                    continue;
+                }
+                AStarPathfinder.Result grid = pathfinder.planGrid(maze, start, goal, Double.POSITIVE_INFINITY);
+                AStarPathfinder.Result planned = hierarchy.plan(start, goal, Double.POSITIVE_INFINITY);
+
+                assertEquals(grid.success(), planned.success(), "reachability from " + start + " to " + goal);
+                if (planned.success()) {
+                    assertTrue(planned.cost() >= grid.cost());
+                    assertEquals(AStarPathfinder.costOf(planned.actions()), planned.cost());
+                    assertEquals(goal, follow(maze, start, planned));
+                    gridCost += grid.cost();
+                    hierarchicalCost += planned.cost();
+                }
+            }
+            assertTrue(hierarchy.queryCount() > 0 && hierarchy.meanQueryNanos() > 0);
+        }
+        assertTrue(hierarchicalCost < 1.1 * gridCost, hierarchicalCost + " vs " + gridCost);
+    }
+
+    @Test
+    @DisplayName("Repaired plans are as cheap as fresh plans around the same block")
+    void repairMatchesFreshPlans() {
+        Random random = new Random(43);
+        for (int round = 0; round < 20; round++) {
+            Maze maze = (round % 2 == 0) ? TestMazes.carve(31, 0.2, random) : maze(24, 18, random, 0.25);
+            GridPos goal = new GridPos(random.nextInt(maze.getWidth()), random.nextInt(maze.getHeight()));
+            RepairPlanner incremental = new RepairPlanner();
+            for (int i = 0; i < 15; i++) {
+                AStarPathfinder.Pose start = new AStarPathfinder.Pose(random.nextInt(maze.getWidth()),
+                        random.nextInt(maze.getHeight()), Direction.values()[random.nextInt(4)]);
+                if (!maze.isWalkable(start.x(), start.y())) {
+                    continue;
+                }
+                int failedSteps = random.nextInt(4);
+                AStarPathfinder.Result repaired = incremental.repair(maze, start, goal, failedSteps);
+                RepairPlanner fresh = new RepairPlanner();
+                AStarPathfinder.Result expected = fresh.repair(maze, start, goal, failedSteps);
+
+                assertEquals(expected.success(), repaired.success());
+                assertEquals(fresh.lastPenalizedCost(), incremental.lastPenalizedCost(),
+                        "cost from " + start + " to " + goal);
+                if (repaired.success()) {
+                    assertEquals(goal, follow(maze, start, repaired));
+                }
+                if (failedSteps == 0) {
+                    AStarPathfinder.Result grid = pathfinder.planGrid(maze, start, goal, Double.POSITIVE_INFINITY);
+                    assertEquals(grid.success(), repaired.success());
+                    assertEquals(grid.cost(), repaired.cost());
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Repairing around a blocked cell expands far fewer states than a fresh search")
+    void repairExpandsFewerStates() {
+        Random random = new Random(47);
+        Maze maze = TestMazes.carve(61, 0.2, random);
+        GridPos goal = new GridPos(59, 59);
+        RepairPlanner incremental = new RepairPlanner();
+        AStarPathfinder.Pose pose = new AStarPathfinder.Pose(1, 1, Direction.E);
+        incremental.repair(maze, pose, goal, 0);
+        long repairExpansions = 0;
+        long freshExpansions = 0;
+        for (int i = 0; i < 20; i++) {
+            AStarPathfinder.Result plan = incremental.repair(maze, pose, goal, 1 + i % 3);
+            repairExpansions += incremental.lastExpansions();
+            RepairPlanner fresh = new RepairPlanner();
+            fresh.repair(maze, pose, goal, 1 + i % 3);
+            freshExpansions += fresh.lastExpansions();
+            // Walk up to the next blocked step: a few actions along the repaired plan.
+            for (int a = 0; a < 4 && a < plan.actions().size() - 1; a++) {
+                pose = apply(maze, pose, plan.actions().get(a));
+            }
+        }
+        assertTrue(repairExpansions * 4 < freshExpansions, repairExpansions + " vs " + freshExpansions);
+    }
+
+    @Test
+    @DisplayName("The wavefront finds the same distance layers as the queue BFS")
+    void wavefrontMatchesBfsLayers() {
+        Random random = new Random(41);
+        SearchWorkspace ws = SearchWorkspace.current();
+        for (int round = 0; round < 12; round++) {
+            Maze maze = switch (round % 3) {
+            case 0 -> TestMazes.carve(71, 0.05 * round, random);
+            case 1 -> TestMazes.rooms(150, 5 + round, random);
+            default -> maze(130 + round, 17, random, 0.3);
+            };
+            int size = maze.getWidth() * maze.getHeight();
+            Wavefront wavefront = new Wavefront(maze);
+            int[] steps = new int[size];
+            for (int i = 0; i < 5; i++) {
+                int source = random.nextInt(size);
+                if (!maze.isWalkableUnchecked(source)) {
+                    continue;
+                }
+                int reached = wavefront.distances(source, steps);
+                pathfinder.bfs(source % maze.getWidth(), source / maze.getWidth(), -1, -1, maze, ws);
+                int visited = 0;
+                for (int cell = 0; cell < size; cell++) {
+                    int layer = -1;
+                    if (ws.visited(cell)) {
+                        visited++;
+                        layer = 0;
+                        for (int c = cell; ws.parent(c) >= 0; c = ws.parent(c)) {
+                            layer++;
+                        }
+                    }
+                    assertEquals(layer, steps[cell], "steps from " + source + " to " + cell);
+                }
+                assertEquals(visited, reached);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("An unreachable goal yields the empty result")
+    void unreachableGoal() {
+        CellType[][] cells = new CellType[1][3];
+        cells[0][0] = CellType.PATH;
+        cells[0][1] = CellType.WALL;
+        cells[0][2] = CellType.PATH;
+        Maze maze = new Maze(3, 1, cells);
+
+        AStarPathfinder.Result result = pathfinder.plan(maze, new AStarPathfinder.Pose(0, 0, Direction.E),
+                new GridPos(2, 0));
+
+        assertSame(AStarPathfinder.Result.EMPTY, result);
+        assertFalse(result.success());
+    }
+
+    @Test
+    @DisplayName("Searching in steady state allocates nothing")
+    void steadyStateSearchAllocatesNothing() {
+        Random random = new Random(3);
+        Maze maze = maze(40, 30, random, 0.25);
+        AStarPathfinder.Pose[] starts = new AStarPathfinder.Pose[32];
+        GridPos[] goals = new GridPos[32];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = new AStarPathfinder.Pose(random.nextInt(40), random.nextInt(30), Direction.values()[i & 3]);
+            goals[i] = new GridPos(random.nextInt(40), random.nextInt(30));
+        }
+        SearchWorkspace ws = SearchWorkspace.current();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (int round = 0; round < 2; round++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int run = 0; run < 1_000; run++) {
+                int i = run & 31;
+                pathfinder.search(maze, starts[i], goals[i], ws);
+                pathfinder.bfs(starts[i].x(), starts[i].y(), goals[i].x(), goals[i].y(), maze, ws);
+            }
+            long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+            if (round == 1) {
+                // A fixed slack for stray JVM allocations, far below one object per search.
+                assertTrue(allocated <= 1_024,
+                        "Searches must not allocate once the workspace is sized, but 2000 searches allocated "
+                                + allocated + " bytes");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A field built after another was released reuses its arrays")
+    void releasedDistanceFieldArraysAreReused() {
+        Maze maze = maze(40, 30, new Random(5), 0.25);
+        AStarPathfinder.Pose start = new AStarPathfinder.Pose(20, 15, Direction.E);
+        List<GridPos> goals = List.of(new GridPos(3, 4), new GridPos(35, 27));
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        DistanceField warm = pathfinder.distanceField(maze, start, goals);
+        double expected = warm.costTo(goals.get(1));
+        warm.release();
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        DistanceField field = pathfinder.distanceField(maze, start, goals);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertEquals(expected, field.costTo(goals.get(1)));
+        field.release();
+        // Fresh arrays would take 2 * 40 * 30 * 4 ints, about 38 KB.
+        assertTrue(allocated <= 1_024, "Building the field allocated " + allocated + " bytes");
+    }
+
+    private static Maze maze(int width, int height, Random random, double wallRatio) {
+        CellType[][] cells = new CellType[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                cells[y][x] = random.nextDouble() < wallRatio ? CellType.WALL : CellType.PATH;
+            }
+        }
+        return new Maze(width, height, cells);
+    }
+
+    /** Executes one action and returns the new pose; fails on a blocked step. */
+    private static AStarPathfinder.Pose apply(Maze maze, AStarPathfinder.Pose pose, Action action) {
+        int[][] deltas = { { 0, -1 }, { 1, 0 }, { 0, 1 }, { -1, 0 } };
+        int dir = pose.facing().ordinal();
+        return switch (action) {
+        case TURN_LEFT -> new AStarPathfinder.Pose(pose.x(), pose.y(), Direction.values()[(dir + 3) & 3]);
+        case TURN_RIGHT -> new AStarPathfinder.Pose(pose.x(), pose.y(), Direction.values()[(dir + 1) & 3]);
+        case STEP -> {
+            int x = pose.x() + deltas[dir][0];
+            int y = pose.y() + deltas[dir][1];
+            assertEquals(CellType.PATH, maze.getTypeAt(x, y), "Plan steps into a blocked cell");
+            yield new AStarPathfinder.Pose(x, y, pose.facing());
+        }
+        default -> pose;
+        };
+    }
+
+    private static GridPos follow(Maze maze, AStarPathfinder.Pose start, AStarPathfinder.Result result) {
+        int[][] deltas = { { 0, -1 }, { 1, 0 }, { 0, 1 }, { -1, 0 } };
+        int x = start.x();
+        int y = start.y();
+        int dir = start.facing().ordinal();
+        for (Action action : result.actions()) {
+            switch (action) {
+            case TURN_LEFT -> dir = (dir + 3) & 3;
+            case TURN_RIGHT -> dir = (dir + 1) & 3;
+            case STEP -> {
+                x += deltas[dir][0];
+                y += deltas[dir][1];
+                assertEquals(CellType.PATH, maze.getTypeAt(x, y), "Plan steps into a blocked cell");
+            }
+            default -> {
+            }
+            }
+        }
+        return new GridPos(x, y);
+    }
+}
@@ -0,0 +1,222 @@
+package de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl;
+
+import static de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl.PlanQueries.QUERIES;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Maze;
+import de.uni_koblenz.ptsd.foxtrot.robot.strategy.GridPos;
+
+/**
+ * Compares the pose-space A* of {@link AStarPathfinder#plan(Maze, AStarPathfinder.Pose, GridPos)}
+ * with the cell BFS baseline {@link AStarPathfinder#planBfs(Maze, AStarPathfinder.Pose, GridPos)}.
+ * <p>
+ * Every operation plans a fixed set of {@value PlanQueries#QUERIES} random queries between
+ * walkable cells, so the reported time is per plan. At the end of each trial the
+ * mean number of expanded nodes and the mean plan cost (steps plus turns) are
+ * printed, which shows how much work each planner does and what it buys.
+ * </p>
+ * <p>
+ * {@code astar} goes through {@link AStarPathfinder#plan(Maze, AStarPathfinder.Pose, GridPos)},
+ * which answers long-range queries on the {@link JunctionGraph}; {@code astarGrid}
+ * always searches the grid with the ALT heuristic of its {@link Landmarks};
+ * {@code astarGridManhattan} searches the grid with Manhattan distance only,
+ * the heuristic before landmarks. The graph and the landmarks are built once per
+ * trial, like once per maze in the game.
+ * </p>
+ * <p>
+ * The {@code candidates*} benchmarks group the queries into sets of
+ * {@value #CANDIDATES} goals that share one start pose and compare planning
+ * each goal with reading all of them from a single {@link DistanceField}.
+ * The {@code opponentEta*} benchmarks do the same for the costs of
+ * {@value #OPPONENTS} players to one goal and a {@link ReverseDistanceField}.
+ * </p>
+ * <p>
+ * The {@code sweep*} benchmarks search the whole maze from each start cell, as
+ * full-maze distance sweeps do: {@code sweepQueue} with the queue-based
+ * {@link AStarPathfinder#bfs(int, int, int, int, Maze, SearchWorkspace)},
+ * {@code sweepWavefront} with the bit-parallel {@link Wavefront}.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathfinderBenchmark {
+
+    /** Goals evaluated per start pose in the candidate benchmarks, like {@code topKBaits}. */
+    static final int CANDIDATES = 8;
+    /** Opponents per goal in the opponent benchmarks. */
+    static final int OPPONENTS = 24;
+
+    /** Side length of the generated maze. */
+    @Param({ "31", "101", "201" })
+    public int size;
+
+    /** Share of walls removed after carving, which opens loops and rooms. */
+    @Param({ "0.0", "0.3" })
+    public double openness;
+
+    private final AStarPathfinder pathfinder = new AStarPathfinder();
+    private final AStarPathfinder manhattan = new AStarPathfinder(false);
+    private Maze maze;
+    private Wavefront wavefront;
+    private int[] steps;
+    private PlanQueries queries;
+    private AStarPathfinder.Pose[] starts;
+    private GridPos[] goals;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(this.size);
+        this.maze = TestMazes.carve(this.size, this.openness, random);
+        this.queries = new PlanQueries(this.maze, random);
+        this.starts = this.queries.starts;
+        this.goals = this.queries.goals;
+        this.wavefront = new Wavefront(this.maze);
+        this.steps = new int[this.size * this.size];
+        JunctionGraph graph = this.pathfinder.junctionGraph(this.maze);
+        Landmarks landmarks = this.pathfinder.landmarks(this.maze);
+        System.out.printf("%n  junction graph: %d nodes for %d cells, built in %.2f ms; %d landmarks in %.2f ms%n",
+                graph.nodeCount(), this.queries.walkableCount, graph.buildNanos() / 1e6, landmarks.count(), landmarks.buildNanos() / 1e6);
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        this.queries.report();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void astar(Blackhole bh) {
+        for (int i = 0; i < QUERIES; i++) {
+            this.record(bh, this.pathfinder.plan(this.maze, this.starts[i], this.goals[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void astarGrid(Blackhole bh) {
+        for (int i = 0; i < QUERIES; i++) {
+            this.record(bh, this.pathfinder.planGrid(this.maze, this.starts[i], this.goals[i],
+                    Double.POSITIVE_INFINITY));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void astarGridManhattan(Blackhole bh) {
+        for (int i = 0; i < QUERIES; i++) {
+            this.queries.record(bh, this.manhattan.planGrid(this.maze, this.starts[i], this.goals[i],
+                    Double.POSITIVE_INFINITY), this.manhattan.lastExpansions());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void bfs(Blackhole bh) {
+        for (int i = 0; i < QUERIES; i++) {
+            this.record(bh, this.pathfinder.planBfs(this.maze, this.starts[i], this.goals[i]));
+        }
+    }
+
+    /**
+     * Candidate evaluation as done by {@link SmartStrategy}: {@value #CANDIDATES}
+     * goals per start pose, each planned on its own.
+     */
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void candidatesPlanned(Blackhole bh) {
+        for (int i = 0; i < QUERIES; i++) {
+            this.record(bh, this.pathfinder.plan(this.maze, this.starts[i - i % CANDIDATES], this.goals[i]));
+        }
+    }
+
+    /** The same candidates read from one {@link DistanceField} per start pose. */
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void candidatesFromField(Blackhole bh) {
+        DistanceField field = null;
+        for (int i = 0; i < QUERIES; i++) {
+            if (i % CANDIDATES == 0) {
+                field = this.pathfinder.distanceField(this.maze, this.starts[i],
+                        Arrays.asList(this.goals).subList(i, i + CANDIDATES));
+            }
+            // The field's expansions are counted once, with its first goal.
+            int expansions = (i % CANDIDATES == 0) ? this.pathfinder.lastExpansions() : 0;
+            this.queries.record(bh, field.resultTo(this.goals[i]), expansions);
+        }
+    }
+
+    /**
+     * Opponent pressure as estimated by {@link OpponentHeuristics}: the cost of
+     * {@value #OPPONENTS} opponents to each of {@value #CANDIDATES} goals, each
+     * planned on its own.
+     */
+    @Benchmark
+    @OperationsPerInvocation(CANDIDATES * OPPONENTS)
+    public void opponentEtaPlanned(Blackhole bh) {
+        for (int g = 0; g < CANDIDATES; g++) {
+            for (int o = 0; o < OPPONENTS; o++) {
+                bh.consume(this.pathfinder.plan(this.maze, this.starts[o], this.goals[g]).cost());
+            }
+        }
+    }
+
+    /**
+     * The same estimates read from one {@link ReverseDistanceField} per goal. The
+     * fields are rebuilt on every call; the strategy keeps them for the whole maze.
+     */
+    @Benchmark
+    @OperationsPerInvocation(CANDIDATES * OPPONENTS)
+    public void opponentEtaFromReverseField(Blackhole bh) {
+        for (int g = 0; g < CANDIDATES; g++) {
+            ReverseDistanceField field = this.pathfinder.reverseDistanceField(this.maze, this.goals[g]);
+            for (int o = 0; o < OPPONENTS; o++) {
+                AStarPathfinder.Pose opp = this.starts[o];
+                bh.consume(field.costFrom(opp.x(), opp.y(), opp.facing()));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void sweepQueue(Blackhole bh) {
+        SearchWorkspace ws = SearchWorkspace.current();
+        for (int i = 0; i < QUERIES; i++) {
+            bh.consume(this.pathfinder.bfs(this.starts[i].x(), this.starts[i].y(), -1, -1, this.maze, ws));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void sweepWavefront(Blackhole bh) {
+        for (int i = 0; i < QUERIES; i++) {
+            bh.consume(this.wavefront.distances(this.starts[i].y() * this.size + this.starts[i].x(), this.steps));
+        }
+    }
+
+    private void record(Blackhole bh, AStarPathfinder.Result result) {
+        this.queries.record(bh, result, this.pathfinder.lastExpansions());
+    }
+}
@@ -0,0 +1,147 @@
+package de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.Direction;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Maze;
+import de.uni_koblenz.ptsd.foxtrot.robot.strategy.Action;
+import de.uni_koblenz.ptsd.foxtrot.robot.strategy.GridPos;
+
+/**
+ * Compares {@link PlanCache} with the {@link LruCache} keyed by a record that
+ * {@link SmartStrategy} used for plans before.
+ * <p>
+ * Every operation runs a fixed stream of {@value #LOOKUPS} lookups the way
+ * {@link SmartStrategy} does: look the route up, and store it on a miss. A
+ * lookup picks one of {@value #HOT} recurring poses and goals with probability
+ * {@code hitRate}, as when a bot replans towards the same target, and otherwise
+ * a pose and goal that is practically never seen again. The reported time is
+ * per lookup and excludes planning; at the end of each trial the measured hit
+ * rate is printed. Run with {@code -prof gc} to see the allocations per lookup.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanCacheBenchmark {
+
+    /** Long enough that even at the highest hit rate the rare keys recur only after being evicted. */
+    static final int LOOKUPS = 1 << 16;
+    /** Number of recurring poses and goals, well below the cache capacity. */
+    static final int HOT = 64;
+    static final int SIDE = 501;
+    /** Capacity of the plan cache of {@link SmartStrategy}. */
+    static final int CAPACITY = 256;
+
+    /** The key of the former plan cache, allocated per lookup. */
+    private record PlanKey(int sx, int sy, int dirOrdinal, int gx, int gy) {}
+
+    /** Fraction of lookups that go to a recurring pose and goal. */
+    @Param({ "0.5", "0.9", "0.99" })
+    public double hitRate;
+
+    private static final AStarPathfinder.Result ROUTE = new AStarPathfinder.Result(
+            List.of(Action.STEP, Action.TURN_LEFT, Action.STEP), 2.5, true);
+
+    private final Maze maze = TestMazes.carve(SIDE, 1.0, new Random(1));
+    private final int[] xs = new int[LOOKUPS];
+    private final int[] ys = new int[LOOKUPS];
+    private final Direction[] facings = new Direction[LOOKUPS];
+    private final GridPos[] goals = new GridPos[LOOKUPS];
+
+    private PlanCache planCache;
+    private LruCache<PlanKey, AStarPathfinder.Result> lruCache;
+    private long hits;
+    private long lookups;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        Direction[] dirs = Direction.values();
+        int[] hot = new int[HOT * 4];
+        GridPos[] hotGoals = new GridPos[HOT];
+        for (int h = 0; h < HOT; h++) {
+            hot[h * 4] = random.nextInt(SIDE);
+            hot[h * 4 + 1] = random.nextInt(SIDE);
+            hot[h * 4 + 2] = random.nextInt(dirs.length);
+            hotGoals[h] = new GridPos(random.nextInt(SIDE), random.nextInt(SIDE));
+        }
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (random.nextDouble() < hitRate) {
+                int h = random.nextInt(HOT);
+                xs[i] = hot[h * 4];
+                ys[i] = hot[h * 4 + 1];
+                facings[i] = dirs[hot[h * 4 + 2]];
+                goals[i] = hotGoals[h];
+            } else {
+                xs[i] = random.nextInt(SIDE);
+                ys[i] = random.nextInt(SIDE);
+                facings[i] = dirs[random.nextInt(dirs.length)];
+                goals[i] = new GridPos(random.nextInt(SIDE), random.nextInt(SIDE));
+            }
+        }
+        planCache = new PlanCache(CAPACITY);
+        lruCache = new LruCache<>(CAPACITY);
+        hits = 0;
+        lookups = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        if (lookups > 0) {
+            System.out.printf("%n[PlanCacheBenchmark] hitRate=%s: %.3f measured%n", hitRate, (double) hits / lookups);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void planCache(Blackhole bh) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            AStarPathfinder.Result cached = planCache.get(maze, xs[i], ys[i], facings[i], goals[i]);
+            if (cached == null) {
+                planCache.put(maze, xs[i], ys[i], facings[i], goals[i], ROUTE);
+            } else {
+                hits++;
+            }
+            bh.consume(cached);
+        }
+        lookups += LOOKUPS;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void lruCache(Blackhole bh) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            PlanKey key = new PlanKey(xs[i], ys[i], facings[i].ordinal(), goals[i].x(), goals[i].y());
+            AStarPathfinder.Result cached = lruCache.get(key);
+            if (cached == null) {
+                lruCache.put(key, ROUTE);
+            } else {
+                hits++;
+            }
+            bh.consume(cached);
+        }
+        lookups += LOOKUPS;
+    }
+}
@@ -0,0 +1,104 @@
+package de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.Direction;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Maze;
+import de.uni_koblenz.ptsd.foxtrot.robot.strategy.Action;
+import de.uni_koblenz.ptsd.foxtrot.robot.strategy.GridPos;
+
+class PlanCacheTest {
+
+    /** From (1, 1) facing E: two steps east, turn right, one step south, ending at (3, 2). */
+    private static final AStarPathfinder.Result ROUTE = new AStarPathfinder.Result(
+            List.of(Action.STEP, Action.STEP, Action.TURN_RIGHT, Action.STEP), 3.5, true);
+    private static final GridPos GOAL = new GridPos(3, 2);
+
+    private final Maze maze = TestMazes.carve(11, 1.0, new Random(1));
+
+    @Test
+    @DisplayName("A block invalidates only the routes through the blocked cell")
+    void blockInvalidatesRoutesThroughTheCell() {
+        PlanCache cache = new PlanCache(16);
+        cache.put(maze, 1, 1, Direction.E, GOAL, ROUTE);
+        cache.put(maze, 5, 5, Direction.N, new GridPos(5, 3), AStarPathfinder.Result.EMPTY);
+
+        cache.markBlocked(maze, 7, 7);
+        assertSame(ROUTE, cache.get(maze, 1, 1, Direction.E, GOAL));
+        cache.markBlocked(maze, 3, 1);
+        assertNull(cache.get(maze, 1, 1, Direction.E, GOAL));
+        assertSame(AStarPathfinder.Result.EMPTY, cache.get(maze, 5, 5, Direction.N, new GridPos(5, 3)));
+
+        assertEquals(2, cache.hits());
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.invalidations());
+    }
+
+    @Test
+    @DisplayName("A new maze invalidates every route, a full cache evicts a route not looked up since")
+    void mazeChangeAndEviction() {
+        PlanCache cache = new PlanCache(2);
+        cache.put(maze, 1, 1, Direction.E, GOAL, ROUTE);
+        cache.put(maze, 1, 1, Direction.S, GOAL, ROUTE);
+        cache.get(maze, 1, 1, Direction.E, GOAL);
+        cache.put(maze, 1, 1, Direction.W, GOAL, ROUTE);
+        assertEquals(1, cache.evictions());
+        assertNull(cache.get(maze, 1, 1, Direction.S, GOAL));
+
+        Maze next = TestMazes.carve(11, 1.0, new Random(2));
+        assertNull(cache.get(next, 1, 1, Direction.E, GOAL));
+        assertEquals(1, cache.invalidations());
+    }
+
+    @Test
+    @DisplayName("Routes older than the remembered blocks are dropped")
+    void routesOlderThanTheHistoryAreDropped() {
+        PlanCache cache = new PlanCache(16);
+        cache.put(maze, 1, 1, Direction.E, GOAL, ROUTE);
+        for (int i = 0; i <= PlanCache.BLOCK_HISTORY; i++) {
+            cache.markBlocked(maze, 9, 9);
+        }
+        assertNull(cache.get(maze, 1, 1, Direction.E, GOAL));
+    }
+
+    @Test
+    @DisplayName("Colliding keys stay reachable through evictions and removals")
+    void churnKeepsEveryKeyReachable() {
+        PlanCache cache = new PlanCache(32);
+        Map<Long, AStarPathfinder.Result> stored = new HashMap<>();
+        Random random = new Random(7);
+        Direction[] dirs = Direction.values();
+        for (int i = 0; i < 20_000; i++) {
+            int x = random.nextInt(6);
+            int y = random.nextInt(6);
+            Direction dir = dirs[random.nextInt(dirs.length)];
+            GridPos goal = new GridPos(random.nextInt(3), random.nextInt(3));
+            long key = (((long) (x * 6 + y) * 4 + dir.ordinal()) * 3 + goal.x()) * 3 + goal.y();
+            AStarPathfinder.Result cached = cache.get(maze, x, y, dir, goal);
+            if (cached != null) {
+                assertSame(stored.get(key), cached);
+            } else {
+                AStarPathfinder.Result result = new AStarPathfinder.Result(List.of(), i, true);
+                cache.put(maze, x, y, dir, goal, result);
+                stored.put(key, result);
+                assertSame(result, cache.get(maze, x, y, dir, goal));
+            }
+            if (random.nextInt(50) == 0) {
+                cache.markBlocked(maze, random.nextInt(11), random.nextInt(11));
+            }
+            assertTrue(cache.size() <= cache.capacity());
+        }
+        assertTrue(cache.evictions() > 0);
+    }
+}
@@ -0,0 +1,62 @@
+package de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl;
+
+import java.util.Random;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.Direction;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Maze;
+import de.uni_koblenz.ptsd.foxtrot.robot.strategy.GridPos;
+
+/**
+ * Random planning queries between walkable cells of one maze, shared by the
+ * planner benchmarks, together with the counters they report per trial.
+ */
+final class PlanQueries {
+
+    /** Queries per benchmark operation. */
+    static final int QUERIES = 64;
+
+    final AStarPathfinder.Pose[] starts = new AStarPathfinder.Pose[QUERIES];
+    final GridPos[] goals = new GridPos[QUERIES];
+    /** Number of walkable cells the queries were drawn from. */
+    final int walkableCount;
+
+    private long expanded;
+    private double cost;
+    private long plans;
+
+    /** Draws {@value #QUERIES} start poses and goals from the walkable cells of {@code maze}. */
+    PlanQueries(Maze maze, Random random) {
+        int width = maze.getWidth();
+        int[] walkable = new int[width * maze.getHeight()];
+        int count = 0;
+        for (int cell = 0; cell < walkable.length; cell++) {
+            if (maze.isWalkableUnchecked(cell)) {
+                walkable[count++] = cell;
+            }
+        }
+        for (int i = 0; i < QUERIES; i++) {
+            int from = walkable[random.nextInt(count)];
+            int to = walkable[random.nextInt(count)];
+            this.starts[i] = new AStarPathfinder.Pose(from % width, from / width,
+                    Direction.values()[random.nextInt(4)]);
+            this.goals[i] = new GridPos(to % width, to / width);
+        }
+        this.walkableCount = count;
+    }
+
+    /** Counts one plan with the states its planner expanded for it. */
+    void record(Blackhole bh, AStarPathfinder.Result result, int expansions) {
+        this.expanded += expansions;
+        this.cost += result.success() ? result.cost() : 0;
+        this.plans++;
+        bh.consume(result);
+    }
+
+    /** Prints the mean expansions and cost per recorded plan. */
+    void report() {
+        System.out.printf("%n  states expanded/plan=%.1f  cost/plan=%.2f%n", (double) this.expanded / this.plans,
+                this.cost / this.plans);
+    }
+}
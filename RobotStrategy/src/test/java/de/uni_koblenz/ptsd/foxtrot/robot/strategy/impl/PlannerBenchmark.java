@@ -0,0 +1,138 @@
+package de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl;
+
+import static de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl.PlanQueries.QUERIES;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Maze;
+import de.uni_koblenz.ptsd.foxtrot.robot.strategy.GridPos;
+
+/**
+ * Compares the planners of {@link SmartStrategy} on corridor-heavy and
+ * room-heavy mazes.
+ * <p>
+ * {@code corridors} are perfect mazes from {@link TestMazes#carve},
+ * {@code rooms} are grids of open rooms from {@link TestMazes#rooms}.
+ * Every operation plans a fixed set of {@value PlanQueries#QUERIES} random queries between
+ * walkable cells, so the reported time is per plan; at the end of each trial the
+ * mean number of expanded states per plan is printed.
+ * </p>
+ * <p>
+ * {@code astar} is {@link AStarPathfinder#plan(Maze, AStarPathfinder.Pose, GridPos)}
+ * with its junction graph for long-range queries, {@code astarGrid} the plain
+ * pose-space A* and {@code jumpPoint} the {@link JumpPointPlanner}. All three
+ * return plans of the same cost. {@code hierarchical} answers the queries that
+ * {@link HierarchicalPlanner#covers} on its abstract graph and the rest with
+ * {@code astar}, like {@link SmartStrategy} on large mazes; its plans may cost
+ * a little more, and the mean cost per plan is printed to show how much. The
+ * junction graph, the free runs of the jump point planner and the abstract
+ * graph are built once per trial, like once per maze in the game; the build
+ * time of the abstract graph is printed.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlannerBenchmark {
+
+    /** Inner side length of a room in the {@code rooms} layout. */
+    static final int ROOM = 12;
+
+    /** Maze layout: {@code corridors} or {@code rooms}. */
+    @Param({ "corridors", "rooms" })
+    public String layout;
+
+    /** Side length of the generated maze. */
+    @Param({ "51", "201", "501" })
+    public int size;
+
+    private final AStarPathfinder pathfinder = new AStarPathfinder();
+    private final JumpPointPlanner jumpPoints = new JumpPointPlanner();
+    private HierarchicalPlanner hierarchy;
+    private Maze maze;
+    private PlanQueries queries;
+    private AStarPathfinder.Pose[] starts;
+    private GridPos[] goals;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(this.size);
+        this.maze = this.layout.equals("rooms") ? TestMazes.rooms(this.size, ROOM, random)
+                : TestMazes.carve(this.size, 0.0, random);
+        this.queries = new PlanQueries(this.maze, random);
+        this.starts = this.queries.starts;
+        this.goals = this.queries.goals;
+        JunctionGraph graph = this.pathfinder.junctionGraph(this.maze);
+        this.jumpPoints.plan(this.maze, this.starts[0], this.goals[0]);
+        this.hierarchy = HierarchicalPlanner.build(this.maze);
+        System.out.printf("%n  %d walkable cells, junction graph: %d nodes (%s), hierarchy: %d clusters, %d nodes, "
+                + "built in %.2f ms%n", this.queries.walkableCount, graph.nodeCount(), graph.contracts() ? "used" : "not used",
+                this.hierarchy.clusterCount(), this.hierarchy.nodeCount(), this.hierarchy.buildNanos() / 1e6);
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        this.queries.report();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void astar(Blackhole bh) {
+        for (int i = 0; i < QUERIES; i++) {
+            this.queries.record(bh, this.pathfinder.plan(this.maze, this.starts[i], this.goals[i]),
+                    this.pathfinder.lastExpansions());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void astarGrid(Blackhole bh) {
+        for (int i = 0; i < QUERIES; i++) {
+            this.queries.record(bh, this.pathfinder.planGrid(this.maze, this.starts[i], this.goals[i],
+                    Double.POSITIVE_INFINITY), this.pathfinder.lastExpansions());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void jumpPoint(Blackhole bh) {
+        for (int i = 0; i < QUERIES; i++) {
+            this.queries.record(bh, this.jumpPoints.plan(this.maze, this.starts[i], this.goals[i]),
+                    this.jumpPoints.lastExpansions());
+        }
+    }
+
+    /** Hierarchical where covered, otherwise {@code astar}; expansions are only counted for the latter. */
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public void hierarchical(Blackhole bh) {
+        for (int i = 0; i < QUERIES; i++) {
+            if (this.hierarchy.covers(this.starts[i], this.goals[i])) {
+                this.queries.record(bh, this.hierarchy.plan(this.starts[i], this.goals[i], Double.POSITIVE_INFINITY), 0);
+            } else {
+                this.queries.record(bh, this.pathfinder.plan(this.maze, this.starts[i], this.goals[i]),
+                        this.pathfinder.lastExpansions());
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package de.uni_koblenz.ptsd.foxtrot.robot.strategy.impl;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.enums.CellType;
+import de.uni_koblenz.ptsd.foxtrot.gamestatus.model.Maze;
+
+/**
+ * Maze generators shared by the planner tests and benchmarks.
+ */
+final class TestMazes {
+
+    private TestMazes() {
+        // utility class
+    }
+
+    /** Carves a perfect maze with an iterative DFS, then knocks out a share of the walls. */
+    static Maze carve(int size, double openness, Random random) {
+        CellType[][] cells = new CellType[size][size];
+        for (CellType[] row : cells) {
+            Arrays.fill(row, CellType.WALL);
+        }
+        int[][] deltas = { { 0, -2 }, { 2, 0 }, { 0, 2 }, { -2, 0 } };
+        ArrayDeque<int[]> stack = new ArrayDeque<>();
+        cells[1][1] = CellType.PATH;
+        stack.push(new int[] { 1, 1 });
+        while (!stack.isEmpty()) {
+            int[] top = stack.peek();
+            int[] order = { 0, 1, 2, 3 };
+            for (int i = 3; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int t = order[i];
+                order[i] = order[j];
+                order[j] = t;
+            }
+            boolean moved = false;
+            for (int k : order) {
+                int nx = top[0] + deltas[k][0];
+                int ny = top[1] + deltas[k][1];
+                if (nx > 0 && ny > 0 && nx < size - 1 && ny < size - 1 && cells[ny][nx] == CellType.WALL) {
+                    cells[top[1] + deltas[k][1] / 2][top[0] + deltas[k][0] / 2] = CellType.PATH;
+                    cells[ny][nx] = CellType.PATH;
+                    stack.push(new int[] { nx, ny });
+                    moved = true;
+                    break;
+                }
+            }
+            if (!moved) {
+                stack.pop();
+            }
+        }
+        for (int y = 1; y < size - 1; y++) {
+            for (int x = 1; x < size - 1; x++) {
+                if (cells[y][x] == CellType.WALL && random.nextDouble() < openness) {
+                    cells[y][x] = CellType.PATH;
+                }
+            }
+        }
+        return new Maze(size, size, cells);
+    }
+
+    /**
+     * Builds a grid of square rooms with {@code room} cells per side, separated
+     * by one-cell walls. Every wall between two neighbouring rooms has one or two
+     * doors, and a few single-cell pillars stand inside the rooms.
+     */
+    static Maze rooms(int size, int room, Random random) {
+        CellType[][] cells = new CellType[size][size];
+        for (int y = 0; y < size; y++) {
+            Arrays.fill(cells[y], CellType.PATH);
+            for (int x = 0; x < size; x++) {
+                boolean wall = x % (room + 1) == 0 || y % (room + 1) == 0 || x == size - 1 || y == size - 1;
+                boolean pillar = random.nextInt(40) == 0;
+                if (wall || pillar) {
+                    cells[y][x] = CellType.WALL;
+                }
+            }
+        }
+        for (int wall = room + 1; wall < size - 1; wall += room + 1) {
+            for (int offset = 0; offset + room < size - 1; offset += room + 1) {
+                int doors = 1 + random.nextInt(2);
+                for (int d = 0; d < doors; d++) {
+                    int along = offset + 1 + random.nextInt(room);
+                    cells[along][wall] = CellType.PATH;
+                    cells[wall][along] = CellType.PATH;
+                }
+            }
+        }
+        return new Maze(size, size, cells);
+    }
+}